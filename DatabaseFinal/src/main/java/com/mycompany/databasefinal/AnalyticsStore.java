@@ -0,0 +1,36 @@
+package com.mycompany.databasefinal;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// The app's columnar copies of Payments and Orders, for the Payments chart groupings the daily rollups can't answer.
+// Loaded in full the first time, then topped up with just the new rows on each refresh
+public class AnalyticsStore {
+
+    private static final AnalyticsStore SHARED = new AnalyticsStore();
+
+    private volatile TransactionColumns payments = TransactionColumns.empty(TransactionColumns.PAYMENTS);
+    private volatile TransactionColumns orders = TransactionColumns.empty(TransactionColumns.ORDERS);
+
+    // The store shared by every screen
+    public static AnalyticsStore shared() {
+        return SHARED;
+    }
+
+    public TransactionColumns payments() {
+        return payments;
+    }
+
+    public TransactionColumns orders() {
+        return orders;
+    }
+
+    // Catches both tables up with the database, payments first so every loaded payment's order is loaded too. Runs on
+    // a worker thread; readers keep using the old snapshots meanwhile
+    public synchronized void refresh() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            payments = payments.refresh(conn);
+            orders = orders.refresh(conn);
+        }
+    }
+}
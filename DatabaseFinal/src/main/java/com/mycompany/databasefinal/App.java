@@ -1,12 +1,13 @@
 package com.mycompany.databasefinal;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
+import javafx.application.Platform;
 import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.sql.SQLException;
 
 /**
  * JavaFX App
@@ -14,29 +15,73 @@ import java.io.IOException;
 public class App extends Application {
 
     private static Scene scene;
+    // Keeps visited screens so navigating back to them doesn't re-parse the FXML and reload everything
+    private static SceneManager scenes;
+    // Set for the AppCDS training run (javafx:run@cds-train): exit once startup and the screen preload are done
+    private static final boolean EXIT_AFTER_STARTUP = Boolean.getBoolean("gamevault.startup.exitAfterStartup");
 
     @Override
     public void start(Stage stage) throws IOException {
+        StartupTimer.mark("JavaFX started");
         // Set the Main Menu as the initial scene
-        scene = new Scene(loadFXML("GameVaultHub"), 640, 480);
+        scene = new Scene(new Pane(), 640, 480);
+        // Diagnostics only reads in-memory counters, rebuilding it is the simplest way to show fresh numbers
+        scenes = new SceneManager(scene).policy("DiagnosticsScene", SceneManager.Policy.NONE);
+        scenes.show("GameVaultHub");
         stage.setScene(scene);
         stage.setTitle("Game Vault Management System"); // Set window title
+        StartupTimer.mark("hub parsed");
         stage.show();
+        // The first pulse after show() is the first frame on screen; only then start building the other screens, so
+        // the preload doesn't compete with the hub for the CPU
+        Runnable firstFrame = new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                StartupTimer.markInteractive();
+                scenes.preload(SceneManager.defaultPreloadList(), () -> {
+                    StartupTimer.mark("screens preloaded");
+                    if (EXIT_AFTER_STARTUP) {
+                        Platform.exit();
+                    }
+                });
+            }
+        };
+        scene.addPostLayoutPulseListener(firstFrame);
     }
 
-    // This method allows you to change the scene dynamically (for scene transitions)
-    static void setRoot(String fxml) throws IOException {
-        scene.setRoot(loadFXML(fxml));
+    // Releases the pooled database connections when the window closes
+    @Override
+    public void stop() {
+        DatabaseUtil.shutdown();
     }
 
-    // Helper method to load FXML files based on the provided name
-    private static Parent loadFXML(String fxml) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource(fxml + ".fxml"));
-        return fxmlLoader.load();
+    // This method allows you to change the scene dynamically (for scene transitions)
+    static void setRoot(String fxml) throws IOException {
+        scenes.show(fxml);
     }
 
     // Main entry point of the application
     public static void main(String[] args) {
+        StartupTimer.mark("main");
+        warmUp();
         launch();
     }
-}
\ No newline at end of file
+
+    // Loads the MySQL driver, opens the pool's first connections and fills the Genres/Platforms cache on a side thread,
+    // while JavaFX starts and the hub is drawn. Failures are only printed, the screens report them when they query
+    private static void warmUp() {
+        Thread thread = new Thread(() -> {
+            try {
+                DatabaseUtil.getPool().fillToMinimum();
+                StartupTimer.mark("connection pool warm");
+                ReferenceData.preload();
+                StartupTimer.mark("reference data loaded");
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }, "startup-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,470 @@
+package com.mycompany.databasefinal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Streams a distributor's CSV into the catalog. Rows are read incrementally and written with JDBC batches,
+// one transaction per chunk, so a 20k-line file never sits in memory and a bad row only costs its own chunk a retry.
+//
+// Two layouts are accepted, told apart by the header row:
+//   title,genre,platform,year_released,price[,quantity_in_stock[,restock_date]]   -> new games + inventory rows
+//   game_id,quantity_in_stock,restock_date                                       -> restock updates for existing games
+public class CatalogImporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    // Errors past this many are counted but not kept, so a completely wrong file can't exhaust memory
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    public static final String INSERT_GAME_SQL =
+            "INSERT INTO Games (title, genre_id, platform_id, year_released, price) VALUES (?, ?, ?, ?, ?)";
+    public static final String INSERT_INVENTORY_SQL =
+            "INSERT INTO Inventory (game_id, quantity_in_stock, restock_date) VALUES (?, ?, ?)";
+    public static final String RESTOCK_SQL =
+            "UPDATE Inventory SET quantity_in_stock = ?, restock_date = ? WHERE game_id = ?";
+
+    private final int chunkSize;
+    private final ProgressListener listener;
+
+    public CatalogImporter(int chunkSize, ProgressListener listener) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.listener = listener;
+    }
+
+    // Reads the whole CSV and imports it, picking new-game or restock mode from the header
+    public Result importCsv(Reader source) throws IOException, SQLException {
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return new Result(0, 0, 0, Collections.emptyList());
+        }
+        List<String> header = parseCsvLine(stripBom(headerLine));
+        String first = header.isEmpty() ? "" : header.get(0).trim().toLowerCase(Locale.ROOT);
+        return "game_id".equals(first) ? importRestocks(reader) : importGames(reader);
+    }
+
+    // New games: resolves genre/platform names against the cached lookup tables, then batch inserts Games and Inventory
+    private Result importGames(BufferedReader reader) throws IOException, SQLException {
+        LookupTable genres = ReferenceData.genres();
+        LookupTable platforms = ReferenceData.platforms();
+        Progress progress = new Progress();
+        List<NewGame> chunk = new ArrayList<>(chunkSize);
+        String line;
+        long lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.read++;
+            try {
+                chunk.add(parseNewGame(lineNumber, parseCsvLine(line), genres, platforms));
+            } catch (IllegalArgumentException e) {
+                progress.fail(lineNumber, e.getMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                writeGames(chunk, progress);
+                chunk.clear();
+                progress.report();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeGames(chunk, progress);
+        }
+        progress.report();
+        return progress.toResult();
+    }
+
+    // Restocks: batch updates quantity and restock date for existing game ids
+    private Result importRestocks(BufferedReader reader) throws IOException, SQLException {
+        Progress progress = new Progress();
+        List<Restock> chunk = new ArrayList<>(chunkSize);
+        String line;
+        long lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.read++;
+            try {
+                chunk.add(parseRestock(lineNumber, parseCsvLine(line)));
+            } catch (IllegalArgumentException e) {
+                progress.fail(lineNumber, e.getMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                restock(chunk, progress);
+                chunk.clear();
+                progress.report();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            restock(chunk, progress);
+        }
+        progress.report();
+        return progress.toResult();
+    }
+
+    // Applies a list of restock updates in chunked, batched transactions (the bulk form of InventoryController.updateInventory)
+    public Result restock(List<Restock> updates) throws SQLException {
+        Progress progress = new Progress();
+        progress.read = updates.size();
+        for (int from = 0; from < updates.size(); from += chunkSize) {
+            restock(updates.subList(from, Math.min(updates.size(), from + chunkSize)), progress);
+            progress.report();
+        }
+        return progress.toResult();
+    }
+
+    private void writeGames(List<NewGame> chunk, Progress progress) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insertGames(conn, chunk);
+                conn.commit();
+                progress.imported += chunk.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                // Something in the chunk was rejected; redo it row by row so only the bad rows are reported
+                for (NewGame game : chunk) {
+                    try {
+                        insertGames(conn, Collections.singletonList(game));
+                        conn.commit();
+                        progress.imported++;
+                    } catch (SQLException rowError) {
+                        conn.rollback();
+                        progress.fail(game.lineNumber, rowError.getMessage());
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Inserts the games, collects their generated ids, then inserts one inventory row per game, all as batches
+    private void insertGames(Connection conn, List<NewGame> games) throws SQLException {
+        int[] ids = new int[games.size()];
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_GAME_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (NewGame game : games) {
+                stmt.setString(1, game.title);
+                stmt.setInt(2, game.genreId);
+                stmt.setInt(3, game.platformId);
+                stmt.setInt(4, game.yearReleased);
+                Money.set(stmt, 5, game.priceCents);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                int i = 0;
+                while (keys.next() && i < ids.length) {
+                    ids[i++] = keys.getInt(1);
+                }
+                if (i != ids.length) {
+                    throw new SQLException("Expected " + ids.length + " generated game ids but got " + i);
+                }
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_INVENTORY_SQL)) {
+            for (int i = 0; i < ids.length; i++) {
+                NewGame game = games.get(i);
+                stmt.setInt(1, ids[i]);
+                stmt.setInt(2, game.quantityInStock);
+                if (game.restockDate != null) {
+                    stmt.setDate(3, Date.valueOf(game.restockDate));
+                } else {
+                    stmt.setNull(3, Types.DATE);
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void restock(List<Restock> chunk, Progress progress) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int[] counts = updateStock(conn, chunk);
+                conn.commit();
+                for (int i = 0; i < chunk.size(); i++) {
+                    countRestock(chunk.get(i), i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO, progress);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                // Something in the chunk was rejected; redo it row by row so only the bad rows are reported
+                for (Restock update : chunk) {
+                    try {
+                        int[] counts = updateStock(conn, Collections.singletonList(update));
+                        conn.commit();
+                        countRestock(update, counts.length > 0 ? counts[0] : Statement.SUCCESS_NO_INFO, progress);
+                    } catch (SQLException rowError) {
+                        conn.rollback();
+                        progress.fail(update.lineNumber, rowError.getMessage());
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private int[] updateStock(Connection conn, List<Restock> updates) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(RESTOCK_SQL)) {
+            for (Restock update : updates) {
+                stmt.setInt(1, update.quantityInStock);
+                stmt.setDate(2, Date.valueOf(update.restockDate));
+                stmt.setInt(3, update.gameId);
+                stmt.addBatch();
+            }
+            return stmt.executeBatch();
+        }
+    }
+
+    // SUCCESS_NO_INFO (-2) is what rewritten batches report, treat it as applied
+    private static void countRestock(Restock update, int count, Progress progress) {
+        if (count == 0) {
+            progress.fail(update.lineNumber, "No inventory row for game_id " + update.gameId);
+        } else {
+            progress.imported++;
+        }
+    }
+
+    private static NewGame parseNewGame(long lineNumber, List<String> fields, LookupTable genres, LookupTable platforms) {
+        if (fields.size() < 5) {
+            throw new IllegalArgumentException("Expected at least 5 columns but found " + fields.size());
+        }
+        String title = fields.get(0).trim();
+        if (title.isEmpty()) {
+            throw new IllegalArgumentException("Title is empty");
+        }
+        int genreId = genres.idOf(fields.get(1).trim());
+        if (genreId == -1) {
+            throw new IllegalArgumentException("Unknown genre \"" + fields.get(1).trim() + "\"");
+        }
+        int platformId = platforms.idOf(fields.get(2).trim());
+        if (platformId == -1) {
+            throw new IllegalArgumentException("Unknown platform \"" + fields.get(2).trim() + "\"");
+        }
+        int year = parseInt(fields.get(3), "year_released");
+        long priceCents = parseMoney(fields.get(4), "price");
+        int quantity = fields.size() > 5 && !fields.get(5).isBlank() ? parseInt(fields.get(5), "quantity_in_stock") : 0;
+        LocalDate restockDate = fields.size() > 6 && !fields.get(6).isBlank() ? parseDate(fields.get(6)) : null;
+        return new NewGame(lineNumber, title, genreId, platformId, year, priceCents, quantity, restockDate);
+    }
+
+    private static Restock parseRestock(long lineNumber, List<String> fields) {
+        if (fields.size() < 3) {
+            throw new IllegalArgumentException("Expected 3 columns but found " + fields.size());
+        }
+        return new Restock(lineNumber, parseInt(fields.get(0), "game_id"), parseInt(fields.get(1), "quantity_in_stock"),
+                parseDate(fields.get(2)));
+    }
+
+    private static int parseInt(String value, String column) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " \"" + value.trim() + "\"");
+        }
+    }
+
+    private static long parseMoney(String value, String column) {
+        try {
+            long cents = Money.parse(value);
+            if (cents < 0 || cents > Money.MAX_COLUMN_CENTS) {
+                throw new NumberFormatException(value);
+            }
+            return cents;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " \"" + value.trim() + "\"");
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date \"" + value.trim() + "\", expected yyyy-MM-dd");
+        }
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    // Splits one CSV line, honouring double-quoted fields and "" escapes
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Receives running totals after every chunk; called on the importing thread
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long rowsRead, long rowsImported, long rowsFailed);
+    }
+
+    // Outcome of one import: counts plus the first MAX_REPORTED_ERRORS row errors
+    public static class Result {
+        private final long rowsRead;
+        private final long rowsImported;
+        private final long rowsFailed;
+        private final List<RowError> errors;
+
+        public Result(long rowsRead, long rowsImported, long rowsFailed, List<RowError> errors) {
+            this.rowsRead = rowsRead;
+            this.rowsImported = rowsImported;
+            this.rowsFailed = rowsFailed;
+            this.errors = Collections.unmodifiableList(errors);
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getRowsImported() {
+            return rowsImported;
+        }
+
+        public long getRowsFailed() {
+            return rowsFailed;
+        }
+
+        public List<RowError> getErrors() {
+            return errors;
+        }
+    }
+
+    // A rejected CSV line and why
+    public static class RowError {
+        private final long lineNumber;
+        private final String message;
+
+        public RowError(long lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + message;
+        }
+    }
+
+    // One restock update: set quantity_in_stock and restock_date for game_id
+    public static class Restock {
+        private final long lineNumber;
+        private final int gameId;
+        private final int quantityInStock;
+        private final LocalDate restockDate;
+
+        public Restock(int gameId, int quantityInStock, LocalDate restockDate) {
+            this(0, gameId, quantityInStock, restockDate);
+        }
+
+        private Restock(long lineNumber, int gameId, int quantityInStock, LocalDate restockDate) {
+            this.lineNumber = lineNumber;
+            this.gameId = gameId;
+            this.quantityInStock = quantityInStock;
+            this.restockDate = restockDate;
+        }
+    }
+
+    private static final class NewGame {
+        private final long lineNumber;
+        private final String title;
+        private final int genreId;
+        private final int platformId;
+        private final int yearReleased;
+        private final long priceCents;
+        private final int quantityInStock;
+        private final LocalDate restockDate;
+
+        private NewGame(long lineNumber, String title, int genreId, int platformId, int yearReleased, long priceCents,
+                        int quantityInStock, LocalDate restockDate) {
+            this.lineNumber = lineNumber;
+            this.title = title;
+            this.genreId = genreId;
+            this.platformId = platformId;
+            this.yearReleased = yearReleased;
+            this.priceCents = priceCents;
+            this.quantityInStock = quantityInStock;
+            this.restockDate = restockDate;
+        }
+    }
+
+    // Running totals for one import
+    private final class Progress {
+        private long read;
+        private long imported;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        private void fail(long lineNumber, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(lineNumber, message));
+            }
+        }
+
+        private void report() {
+            if (listener != null) {
+                listener.onProgress(read, imported, failed);
+            }
+        }
+
+        private Result toResult() {
+            return new Result(read, imported, failed, new ArrayList<>(errors));
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.mycompany.databasefinal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// A bounded pool of physical JDBC connections. Callers get a proxy whose close() hands the connection back to the pool instead of closing the socket
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Map<PooledConnection, Long> borrowed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+    private int totalConnections;
+    private boolean closed;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong invalidCount = new AtomicLong();
+
+    // statementCacheSize is the number of prepared statements kept open per connection, 0 to prepare every time
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis, int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationTimeoutSeconds = 2;
+        this.statementCacheSize = statementCacheSize;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, leakThresholdMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Opens connections until the pool holds minSize, used to warm the pool up front
+    public void fillToMinimum() throws SQLException {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalConnections >= minSize) {
+                    return;
+                }
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+            PooledConnection pc;
+            try {
+                pc = new PooledConnection(openPhysical());
+            } catch (SQLException e) {
+                releaseSlot();
+                throw e;
+            }
+            lock.lock();
+            try {
+                idle.addFirst(pc);
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Borrows a connection, waiting up to borrowTimeoutMillis for one to be returned when the pool is exhausted
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        while (true) {
+            PooledConnection candidate = null;
+            boolean openNew = false;
+            lock.lock();
+            try {
+                while (candidate == null && !openNew) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+                    if (!idle.isEmpty()) {
+                        candidate = idle.pollFirst();
+                    } else if (totalConnections < maxSize) {
+                        totalConnections++;
+                        openNew = true;
+                    } else {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            timeoutCount.incrementAndGet();
+                            throw new SQLTransientConnectionException("Timed out after " + borrowTimeoutMillis
+                                    + " ms waiting for a database connection (" + maxSize + " in use)");
+                        }
+                        try {
+                            available.awaitNanos(remaining);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new SQLException("Interrupted while waiting for a database connection", e);
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (openNew) {
+                try {
+                    candidate = new PooledConnection(openPhysical());
+                } catch (SQLException e) {
+                    releaseSlot();
+                    throw e;
+                }
+            } else if (!isUsable(candidate)) {
+                // Stale connection (server restart, wait_timeout, ...), drop it and try again
+                invalidCount.incrementAndGet();
+                discard(candidate);
+                continue;
+            }
+            recordWait(System.nanoTime() - start);
+            borrowed.put(candidate, System.currentTimeMillis());
+            return candidate.lease();
+        }
+    }
+
+    // Returns a borrowed connection to the idle queue (or discards it if it was left in a broken state)
+    private void giveBack(PooledConnection pc) {
+        if (borrowed.remove(pc) == null) {
+            return; // Already returned
+        }
+        // Statements the borrower left open go back to the cache first, so their result sets are closed before the rollback
+        pc.statements.reclaim();
+        boolean healthy;
+        try {
+            healthy = !pc.physical.isClosed() && resetState(pc.physical);
+        } catch (SQLException e) {
+            healthy = false;
+        }
+        if (!healthy) {
+            discard(pc);
+            return;
+        }
+        pc.lastUsed = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (closed) {
+                pc.close();
+                totalConnections--;
+                return;
+            }
+            idle.addFirst(pc);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Rolls back anything the caller left open and restores auto-commit so the next borrower starts clean
+    private boolean resetState(Connection c) throws SQLException {
+        if (!c.getAutoCommit()) {
+            c.rollback();
+            c.setAutoCommit(true);
+        }
+        c.clearWarnings();
+        return true;
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        try {
+            return pc.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        pc.close();
+        releaseSlot();
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // Runs periodically: evicts connections idle longer than idleTimeoutMillis (keeping minSize) and reports leaked borrows
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        Deque<PooledConnection> expired = new ArrayDeque<>();
+        lock.lock();
+        try {
+            // Oldest idle connections sit at the tail since returns go to the head
+            while (totalConnections - expired.size() > minSize && !idle.isEmpty()
+                    && now - idle.peekLast().lastUsed > idleTimeoutMillis) {
+                expired.add(idle.pollLast());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (PooledConnection pc : expired) {
+            evictedCount.incrementAndGet();
+            discard(pc);
+        }
+        for (Map.Entry<PooledConnection, Long> entry : borrowed.entrySet()) {
+            PooledConnection pc = entry.getKey();
+            if (!pc.reportedLeak && now - entry.getValue() > leakThresholdMillis) {
+                pc.reportedLeak = true;
+                leakCount.incrementAndGet();
+                System.err.println("Possible connection leak: connection borrowed " + (now - entry.getValue())
+                        + " ms ago has not been returned");
+                if (pc.borrowSite != null) {
+                    pc.borrowSite.printStackTrace();
+                }
+            }
+        }
+        try {
+            fillToMinimum();
+        } catch (SQLException e) {
+            // Database unreachable right now, the next borrow will surface the error
+        }
+    }
+
+    // Closes every idle connection and rejects further borrows. Borrowed connections are closed as they come back
+    public void shutdown() {
+        housekeeper.shutdownNow();
+        lock.lock();
+        try {
+            closed = true;
+            for (PooledConnection pc : idle) {
+                pc.close();
+                totalConnections--;
+            }
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException e) {
+            // Nothing useful to do with a failure while closing
+        }
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            long borrows = borrowCount.get();
+            return new PoolStats(borrowed.size(), idle.size(), totalConnections, maxSize, borrows,
+                    borrows == 0 ? 0 : totalWaitNanos.get() / borrows, maxWaitNanos.get(),
+                    timeoutCount.get(), leakCount.get(), evictedCount.get(), invalidCount.get(),
+                    statementCounters.getHits(), statementCounters.getMisses(), statementCounters.getEvictions());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // One physical connection owned by the pool
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile boolean reportedLeak;
+        private volatile Throwable borrowSite;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new StatementCache(physical, statementCacheSize, statementCounters);
+        }
+
+        private void close() {
+            statements.clear();
+            closeQuietly(physical);
+        }
+
+        // Hands out a fresh proxy per borrow so a stale handle can't be used after close()
+        private Connection lease() {
+            reportedLeak = false;
+            borrowSite = Boolean.getBoolean("gamevault.pool.traceLeaks") ? new Throwable("Connection borrowed here") : null;
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new LeaseHandler(this));
+        }
+    }
+
+    // Forwards calls to the physical connection until the caller closes its handle
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection owner;
+        private boolean returned;
+
+        private LeaseHandler(PooledConnection owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(owner);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || owner.physical.isClosed();
+                case "unwrap":
+                    if (args != null && args[0] == Connection.class) {
+                        return proxy;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + owner.physical;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (statementCacheSize > 0 && StatementCache.isCacheable(method, args)) {
+                return owner.statements.prepare(method, args, proxy);
+            }
+            try {
+                return method.invoke(owner.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,61 +1,40 @@
 package com.mycompany.databasefinal;
-import javafx.beans.property.*;
 
+// One Customers row, immutable and without JavaFX properties
 public class Customer {
 
-    private final IntegerProperty customerId;
-    private final StringProperty firstName;
-    private final StringProperty lastName;
-    private final StringProperty email;
-    private final BooleanProperty isMember;
+    private final int customerId;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final boolean isMember;
 
     public Customer(int customerId, String firstName, String lastName, String email, boolean isMember) {
-        this.customerId = new SimpleIntegerProperty(customerId);
-        this.firstName = new SimpleStringProperty(firstName);
-        this.lastName = new SimpleStringProperty(lastName);
-        this.email = new SimpleStringProperty(email);
-        this.isMember = new SimpleBooleanProperty(isMember);
+        this.customerId = customerId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.isMember = isMember;
     }
 
-    // Property Getters (used by TableView)
-    public IntegerProperty customerIdProperty() {
-        return customerId;
-    }
-
-    public StringProperty firstNameProperty() {
-        return firstName;
-    }
-
-    public StringProperty lastNameProperty() {
-        return lastName;
-    }
-
-    public StringProperty emailProperty() {
-        return email;
-    }
-
-    public BooleanProperty isMemberProperty() {
-        return isMember;
-    }
-
-    // Regular Getters
+    // Getters
     public int getCustomerId() {
-        return customerId.get();
+        return customerId;
     }
 
     public String getFirstName() {
-        return firstName.get();
+        return firstName;
     }
     
     public String getLastName() {
-        return lastName.get();
+        return lastName;
     }
     
     public String getEmail() {
-        return email.get();
+        return email;
     }
     
     public boolean getIsMember() {
-        return isMember.get();
+        return isMember;
     }
-}
\ No newline at end of file
+}
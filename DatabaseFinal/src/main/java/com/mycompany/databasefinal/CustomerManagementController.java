@@ -2,13 +2,16 @@ package com.mycompany.databasefinal;
 
 import java.io.IOException;
 import java.sql.*;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
-public class CustomerManagementController {
+public class CustomerManagementController implements SceneLifecycle {
+
+    // DeleteCustomerHistory (game_vault_functions.sql) deletes the customer's orders, payments and rentals first
+    public static final String DELETE_CUSTOMER_SQL = "DELETE FROM Customers WHERE customer_id = ?";
+    public static final String UPDATE_CUSTOMER_SQL =
+            "UPDATE Customers SET first_name = ?, last_name = ?, email = ?, is_member = ? WHERE customer_id = ?";
 
     @FXML
     private TableView<Customer> customerTable;
@@ -30,16 +33,16 @@ public class CustomerManagementController {
     @FXML
     private Button addButton, updateButton, deleteButton, backButton;
 
-    private ObservableList<Customer> customerList = FXCollections.observableArrayList();
+    private PagedTableLoader<Customer> customerPager;
 
     @FXML
     public void initialize() {
         // Set up table columns
-        idColumn.setCellValueFactory(data -> data.getValue().customerIdProperty().asObject());
-        fNameColumn.setCellValueFactory(data -> data.getValue().firstNameProperty());
-        lNameColumn.setCellValueFactory(data -> data.getValue().lastNameProperty());
-        emailColumn.setCellValueFactory(data -> data.getValue().emailProperty());
-        isMemberColumn.setCellValueFactory(data -> data.getValue().isMemberProperty());
+        idColumn.setCellValueFactory(TableCells.value(Customer::getCustomerId));
+        fNameColumn.setCellValueFactory(TableCells.value(Customer::getFirstName));
+        lNameColumn.setCellValueFactory(TableCells.value(Customer::getLastName));
+        emailColumn.setCellValueFactory(TableCells.value(Customer::getEmail));
+        isMemberColumn.setCellValueFactory(TableCells.value(Customer::getIsMember));
         isMemberColumn.setCellFactory(column -> new TableCell<Customer, Boolean>() {
             // Using an anonymous inner class to override updateItem method so that a customer's membership status is visually seen as either "Active" or "Inactive" instead of TRUE/FALSE
             @Override
@@ -48,29 +51,27 @@ public class CustomerManagementController {
                 setText(empty || item == null ? null : item ? "Active" : "Inactive");
             }
         });
+        // Pages the Customers table by customer_id, the server sorts when a column header is clicked
+        customerPager = new PagedTableLoader<>(this, customerTable, "Customers", "customer_id", RowMappers::customer, Customer::getCustomerId)
+                .sortable(idColumn, "customer_id", Customer::getCustomerId)
+                .sortable(fNameColumn, "first_name", Customer::getFirstName)
+                .sortable(lNameColumn, "last_name", Customer::getLastName)
+                .sortable(emailColumn, "email", Customer::getEmail)
+                .sortable(isMemberColumn, "is_member", Customer::getIsMember);
         loadCustomers();
     }
     
-    // Queries the Customers table from the DB for all of its information, using it to fill the table of the UI
+    // Back from the cache: fetches customers added since the last visit if the window already reached the end
+    @Override
+    public void onShow() {
+        customerPager.refresh();
+    }
+
+    // Queries the Customers table from the DB for its first page of customers, using it to fill the table of the UI
     private void loadCustomers() {
-        customerList.clear();
-        try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT * FROM Customers")) {
-            while (rs.next()) {
-                Customer c = new Customer(
-                        rs.getInt("customer_id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        rs.getString("email"),
-                        rs.getBoolean("is_member")
-                );
-                customerList.add(c);
-            }
-            customerTable.setItems(customerList);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        customerPager.reload();
     }
-    
+
     // Calls the AddCustomer stored procedure within the DB to add a new customer to the Customer DB table, then refreshes the UI table
     @FXML
     private void handleAdd(ActionEvent event) {
@@ -79,18 +80,19 @@ public class CustomerManagementController {
         String email = emailField.getText();
         boolean isMember = isMemberCheckBox.isSelected();
         String call = "{ CALL AddCustomer(?, ?, ?, ?) }";
-        try (Connection conn = DatabaseUtil.getConnection(); CallableStatement stmt = conn.prepareCall(call)) {
-            stmt.setString(1, fName);
-            stmt.setString(2, lName);
-            stmt.setString(3, email);
-            stmt.setBoolean(4, isMember);
-            stmt.execute();
+        DataLoader.run(() -> {
+            try (Connection conn = DatabaseUtil.getConnection(); CallableStatement stmt = conn.prepareCall(call)) {
+                stmt.setString(1, fName);
+                stmt.setString(2, lName);
+                stmt.setString(3, email);
+                stmt.setBoolean(4, isMember);
+                stmt.execute();
+            }
+            return null;
+        }, ignored -> {
             loadCustomers();
-            customerTable.refresh();
             clearForm();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        }, Throwable::printStackTrace);
     }
     
     // Queries the database to find and delete any customer with the matching customer id that was selected
@@ -98,14 +100,13 @@ public class CustomerManagementController {
     private void handleDelete(ActionEvent event) {
         Customer selected = customerTable.getSelectionModel().getSelectedItem();
         if (selected != null) {
-            String sql = "DELETE FROM Customers WHERE customer_id = ?";
-            try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, selected.getCustomerId());
-                stmt.executeUpdate();
-                loadCustomers();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            DataLoader.run(() -> {
+                try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(DELETE_CUSTOMER_SQL)) {
+                    stmt.setInt(1, selected.getCustomerId());
+                    stmt.executeUpdate();
+                }
+                return null;
+            }, ignored -> loadCustomers(), Throwable::printStackTrace);
         }
     }
     
@@ -120,19 +121,20 @@ public class CustomerManagementController {
         String lName = lNameField.getText();
         String email = emailField.getText();
         boolean isMember = isMemberCheckBox.isSelected();
-        String sql = "UPDATE Customers SET first_name = ?, last_name = ?, email = ?, is_member = ? WHERE customer_id = ?";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, fName);
-            stmt.setString(2, lName);
-            stmt.setString(3, email);
-            stmt.setBoolean(4, isMember);
-            stmt.setInt(5, selected.getCustomerId());
-            stmt.executeUpdate();
+        DataLoader.run(() -> {
+            try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(UPDATE_CUSTOMER_SQL)) {
+                stmt.setString(1, fName);
+                stmt.setString(2, lName);
+                stmt.setString(3, email);
+                stmt.setBoolean(4, isMember);
+                stmt.setInt(5, selected.getCustomerId());
+                stmt.executeUpdate();
+            }
+            return null;
+        }, ignored -> {
             loadCustomers();
             clearForm();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        }, Throwable::printStackTrace);
     }
     
     // Simply clears the TextFields within the UI
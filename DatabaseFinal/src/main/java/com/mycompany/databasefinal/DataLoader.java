@@ -0,0 +1,195 @@
+package com.mycompany.databasefinal;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.VBox;
+
+// Runs database work off the JavaFX application thread and hands the results back to it with Platform.runLater
+public class DataLoader {
+
+    // Keep the worker count in line with the connection pool so queued loads wait here rather than on a pool borrow
+    private static final int WORKER_COUNT = Integer.getInteger("gamevault.loader.threads",
+            Integer.getInteger("gamevault.pool.maxSize", 10));
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(WORKER_COUNT, workerThreadFactory());
+    // Loads still running for each screen controller, so they can be cancelled when the user navigates away
+    private static final Map<Object, Set<LoadTask<?>>> RUNNING = new ConcurrentHashMap<>();
+    private static final Map<TableView<?>, Node> ORIGINAL_PLACEHOLDERS = new ConcurrentHashMap<>();
+
+    private DataLoader() {
+    }
+
+    // Runs a query for a screen. The result is dropped if the screen's loads were cancelled before it finished
+    public static <T> Future<T> load(Object owner, Callable<T> query, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        return load(owner, query, onSuccess, onFailure, null);
+    }
+
+    // Same, and runs onCancelled on the JavaFX thread instead of either callback if cancelAll drops the result, so
+    // callers can undo state they set when the load started (a screen kept in the scene cache is shown again later)
+    public static <T> Future<T> load(Object owner, Callable<T> query, Consumer<T> onSuccess, Consumer<Throwable> onFailure,
+                                     Runnable onCancelled) {
+        LoadTask<T> task = new LoadTask<>(owner, query, onSuccess, onFailure, onCancelled);
+        if (owner != null) {
+            RUNNING.compute(owner, (key, tasks) -> {
+                Set<LoadTask<?>> set = tasks != null ? tasks : ConcurrentHashMap.newKeySet();
+                set.add(task);
+                return set;
+            });
+        }
+        WORKERS.execute(task);
+        return task;
+    }
+
+    // Same as load, but shows a loading indicator in the table until the query completes
+    public static <S, T> Future<T> load(Object owner, TableView<S> table, Callable<T> query, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        return load(owner, table, query, onSuccess, onFailure, null);
+    }
+
+    // Same, with a cancellation callback. A cancelled load puts the placeholder back so the table isn't left spinning
+    public static <S, T> Future<T> load(Object owner, TableView<S> table, Callable<T> query, Consumer<T> onSuccess, Consumer<Throwable> onFailure,
+                                        Runnable onCancelled) {
+        showLoading(table);
+        return load(owner, query,
+                result -> {
+                    hideLoading(table);
+                    onSuccess.accept(result);
+                },
+                error -> {
+                    hideLoading(table);
+                    onFailure.accept(error);
+                },
+                () -> {
+                    hideLoading(table);
+                    if (onCancelled != null) {
+                        onCancelled.run();
+                    }
+                });
+    }
+
+    // Runs a write that must not be abandoned by navigation (inserts, updates, deletes)
+    public static <T> Future<T> run(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        return load(null, work, onSuccess, onFailure);
+    }
+
+    // Cancels every pending load started by the given screen controller
+    public static void cancelAll(Object owner) {
+        if (owner == null) {
+            return;
+        }
+        Set<LoadTask<?>> tasks = RUNNING.remove(owner);
+        if (tasks != null) {
+            for (LoadTask<?> task : tasks) {
+                task.abandoned = true;
+                task.cancel(true);
+            }
+        }
+    }
+
+    // Replaces the table's empty-state placeholder with a spinner while its rows load
+    public static <S> void showLoading(TableView<S> table) {
+        ORIGINAL_PLACEHOLDERS.putIfAbsent(table, table.getPlaceholder() != null ? table.getPlaceholder() : new Label("No content in table"));
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setMaxSize(40, 40);
+        VBox box = new VBox(8, spinner, new Label("Loading..."));
+        box.setAlignment(Pos.CENTER);
+        table.setPlaceholder(box);
+        // Swap in an empty list rather than clearing, the current items may be a controller's own backing list
+        table.setItems(FXCollections.observableArrayList());
+    }
+
+    // Puts back the table's normal empty-state placeholder
+    public static void hideLoading(TableView<?> table) {
+        Node original = ORIGINAL_PLACEHOLDERS.remove(table);
+        if (original != null) {
+            table.setPlaceholder(original);
+        }
+    }
+
+    // Uses virtual threads when running on a JDK that has them (21+), otherwise plain daemon platform threads
+    private static ThreadFactory workerThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "data-loader-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return r -> {
+                Thread t = new Thread(r, "data-loader-" + counter.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            };
+        }
+    }
+
+    // A query plus its callbacks. Callbacks only run if the task was not cancelled in the meantime
+    private static final class LoadTask<T> extends FutureTask<T> {
+        private final Object owner;
+        private final Consumer<T> onSuccess;
+        private final Consumer<Throwable> onFailure;
+        private final Runnable onCancelled;
+        private volatile boolean abandoned;
+
+        private LoadTask(Object owner, Callable<T> query, Consumer<T> onSuccess, Consumer<Throwable> onFailure, Runnable onCancelled) {
+            super(query);
+            this.owner = owner;
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+            this.onCancelled = onCancelled;
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                forget();
+                if (onCancelled != null) {
+                    Platform.runLater(onCancelled);
+                }
+                return;
+            }
+            Platform.runLater(() -> {
+                // Removing here (on the FX thread) means cancelAll either sees this task or runs after its callback
+                forget();
+                if (abandoned) {
+                    if (onCancelled != null) {
+                        onCancelled.run();
+                    }
+                    return;
+                }
+                try {
+                    onSuccess.accept(get());
+                } catch (ExecutionException e) {
+                    onFailure.accept(e.getCause());
+                } catch (InterruptedException | CancellationException e) {
+                    // Cancelled, nothing to deliver
+                }
+            });
+        }
+
+        private void forget() {
+            if (owner != null) {
+                RUNNING.computeIfPresent(owner, (key, tasks) -> {
+                    tasks.remove(this);
+                    return tasks.isEmpty() ? null : tasks;
+                });
+            }
+        }
+    }
+}
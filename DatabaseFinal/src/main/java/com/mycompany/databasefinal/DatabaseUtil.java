@@ -1,23 +1,80 @@
 package com.mycompany.databasefinal;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseUtil {
-    private static final String URL = "jdbc:mysql://localhost:3306/game_vault_db";
+    // The database clock to the millisecond, for watermarks compared with updated_at columns
+    public static final String SERVER_TIME_SQL = "SELECT NOW(3)";
+
+    // rewriteBatchedStatements turns JDBC batches into multi-row INSERTs, one round trip per batch. useServerPrepStmts
+    // makes the server parse each statement once per connection; cachePrepStmts keeps the driver's prepared handles (and
+    // the server-side statements behind them) for SQL that falls out of the pool's own StatementCache
+    private static final String URL = "jdbc:mysql://localhost:3306/game_vault_db?rewriteBatchedStatements=true"
+            + "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048";
     private static final String USER = "root";
     private static final String PASSWORD = "Sophie12!";
 
+    // Pool settings, each can be overridden with -Dgamevault.pool.<name>=<value>
+    private static final int MIN_POOL_SIZE = Integer.getInteger("gamevault.pool.minSize", 2);
+    private static final int MAX_POOL_SIZE = Integer.getInteger("gamevault.pool.maxSize", 10);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("gamevault.pool.borrowTimeoutMs", 5_000);
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("gamevault.pool.idleTimeoutMs", 300_000);
+    private static final long LEAK_THRESHOLD_MS = Long.getLong("gamevault.pool.leakThresholdMs", 60_000);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("gamevault.pool.statementCacheSize", 64);
+
+    private static volatile ConnectionPool pool;
+
+    // Borrows a pooled connection; closing it returns it to the pool rather than closing the socket. Its statements are
+    // recorded in QueryMetrics under the calling controller method
     public static Connection getConnection() throws SQLException {
-        try {
-            // Load the JDBC driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            
-            // Establish and return the connection
-            return DriverManager.getConnection(URL, USER, PASSWORD);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL JDBC Driver not found", e);
+        return getConnection(QueryMetrics.isEnabled() ? QueryMetrics.callerTag() : null);
+    }
+
+    // Same, with the QueryMetrics tag given explicitly for callers whose stack doesn't name the screen
+    public static Connection getConnection(String tag) throws SQLException {
+        ConnectionPool p = getPool();
+        if (!QueryMetrics.isEnabled()) {
+            return p.getConnection();
+        }
+        long start = System.nanoTime();
+        Connection conn = p.getConnection();
+        QueryMetrics.recordConnectionWait(tag, System.nanoTime() - start);
+        return QueryMetrics.instrument(conn, tag);
+    }
+
+    // Lazily creates the shared pool the first time any controller needs the database
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DatabaseUtil.class) {
+                p = pool;
+                if (p == null) {
+                    try {
+                        // Load the JDBC driver once instead of on every call
+                        Class.forName("com.mysql.cj.jdbc.Driver");
+                    } catch (ClassNotFoundException e) {
+                        throw new SQLException("MySQL JDBC Driver not found", e);
+                    }
+                    p = new ConnectionPool(URL, USER, PASSWORD, MIN_POOL_SIZE, MAX_POOL_SIZE,
+                            BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS, LEAK_THRESHOLD_MS, STATEMENT_CACHE_SIZE);
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    // Current pool counters (wait times, active/idle connections, leaks)
+    public static PoolStats getPoolStats() throws SQLException {
+        return getPool().getStats();
+    }
+
+    // Closes the pool's idle connections, called when the application exits
+    public static void shutdown() {
+        ConnectionPool p = pool;
+        if (p != null) {
+            p.shutdown();
         }
     }
-}
\ No newline at end of file
+}
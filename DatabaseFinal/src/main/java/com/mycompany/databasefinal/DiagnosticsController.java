@@ -0,0 +1,106 @@
+package com.mycompany.databasefinal;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.Tooltip;
+
+// Shows what QueryMetrics has recorded: latency percentiles, rows and value bytes per statement and screen, how long
+// screens waited for a pooled connection, the pool's own counters and how long the last start took
+public class DiagnosticsController {
+
+    @FXML
+    private TableView<QueryMetrics.StatementSummary> statementTable;
+    @FXML
+    private TableColumn<QueryMetrics.StatementSummary, String> tagColumn;
+    @FXML
+    private TableColumn<QueryMetrics.StatementSummary, Long> countColumn;
+    @FXML
+    private TableColumn<QueryMetrics.StatementSummary, String> p50Column;
+    @FXML
+    private TableColumn<QueryMetrics.StatementSummary, String> p95Column;
+    @FXML
+    private TableColumn<QueryMetrics.StatementSummary, String> p99Column;
+    @FXML
+    private TableColumn<QueryMetrics.StatementSummary, String> maxColumn;
+    @FXML
+    private TableColumn<QueryMetrics.StatementSummary, Long> rowsColumn;
+    @FXML
+    private TableColumn<QueryMetrics.StatementSummary, Long> valueBytesColumn;
+    @FXML
+    private TableColumn<QueryMetrics.StatementSummary, Long> errorsColumn;
+    @FXML
+    private TableColumn<QueryMetrics.StatementSummary, String> sqlColumn;
+    @FXML
+    private Label poolStatsLabel;
+    @FXML
+    private Label slowQueryLabel;
+    @FXML
+    private Label startupLabel;
+    @FXML
+    private TextArea connectionWaitArea;
+
+    @FXML
+    public void initialize() {
+        tagColumn.setCellValueFactory(TableCells.value(QueryMetrics.StatementSummary::getTag));
+        countColumn.setCellValueFactory(TableCells.value(QueryMetrics.StatementSummary::getCount));
+        p50Column.setCellValueFactory(TableCells.value(s -> millis(s.getP50Millis())));
+        p95Column.setCellValueFactory(TableCells.value(s -> millis(s.getP95Millis())));
+        p99Column.setCellValueFactory(TableCells.value(s -> millis(s.getP99Millis())));
+        maxColumn.setCellValueFactory(TableCells.value(s -> millis(s.getMaxMillis())));
+        rowsColumn.setCellValueFactory(TableCells.value(QueryMetrics.StatementSummary::getRows));
+        valueBytesColumn.setCellValueFactory(TableCells.value(QueryMetrics.StatementSummary::getValueBytes));
+        // The header explains itself on hover; it isn't the network traffic
+        Label valueBytesHeader = new Label(valueBytesColumn.getText());
+        valueBytesHeader.setTooltip(new Tooltip("Size of the values the app read through ResultSet getters, "
+                + "not the bytes the driver fetched"));
+        valueBytesColumn.setText(null);
+        valueBytesColumn.setGraphic(valueBytesHeader);
+        errorsColumn.setCellValueFactory(TableCells.value(QueryMetrics.StatementSummary::getErrors));
+        sqlColumn.setCellValueFactory(TableCells.value(QueryMetrics.StatementSummary::getSql));
+        refresh();
+    }
+
+    // Re-reads the counters; nothing here touches the database
+    @FXML
+    private void refresh() {
+        statementTable.setItems(FXCollections.observableArrayList(QueryMetrics.getStatementSummaries()));
+        connectionWaitArea.setText(String.join("\n", QueryMetrics.getConnectionWaitReport()));
+        slowQueryLabel.setText(QueryMetrics.isEnabled()
+                ? "Slow query log: over " + QueryMetrics.getSlowQueryThresholdMs() + " ms"
+                : "Query metrics disabled (-Dgamevault.metrics.enabled=false)");
+        long interactive = StartupTimer.getInteractiveMillis();
+        startupLabel.setText(interactive >= 0 ? "Startup: hub interactive after " + interactive + " ms" : "Startup: in progress");
+        startupLabel.setTooltip(new Tooltip(String.join("\n", StartupTimer.getMilestones())));
+        try {
+            poolStatsLabel.setText("Pool: " + DatabaseUtil.getPoolStats());
+        } catch (SQLException e) {
+            poolStatsLabel.setText("Pool: unavailable (" + e.getMessage() + ")");
+        }
+    }
+
+    @FXML
+    private void reset() {
+        QueryMetrics.reset();
+        refresh();
+    }
+
+    private static String millis(double value) {
+        return String.format("%.2f", value);
+    }
+
+    @FXML
+    private void openHub() {
+        try {
+            App.setRoot("GameVaultHub");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -1,71 +1,60 @@
 package com.mycompany.databasefinal;
 
-import javafx.beans.property.*;
-
+// One game row. Immutable and free of JavaFX properties, so bulk loads, the search index and imports hold plain fields;
+// tables wrap a value only when a cell is rendered (see TableCells)
 public class Game {
-    private IntegerProperty gameId;
-    private StringProperty title;
-    private StringProperty genre;
-    private IntegerProperty year;
-    private StringProperty platform;
-    private IntegerProperty stockQuantity;
-    private DoubleProperty price;
-    private IntegerProperty sales;
-
-    // Default constructor
-    public Game() {
-        this.gameId = new SimpleIntegerProperty();
-        this.title = new SimpleStringProperty();
-        this.genre = new SimpleStringProperty();
-        this.year = new SimpleIntegerProperty();
-        this.platform = new SimpleStringProperty();
-        this.stockQuantity = new SimpleIntegerProperty();
-        this.price = new SimpleDoubleProperty();
-        this.sales = new SimpleIntegerProperty();
-    }
+    private final int gameId;
+    private final String title;
+    private final String genre;
+    private final int year;
+    private final String platform;
+    private final int stockQuantity;
+    private final long priceCents;
+    private final int sales;
 
     // Constructor with parameters
-    public Game(int gameId, String title, String genre, int year, String platform, int stockQuantity, double price, int sales) {
-        this.gameId = new SimpleIntegerProperty(gameId);
-        this.title = new SimpleStringProperty(title);
-        this.genre = new SimpleStringProperty(genre);
-        this.year = new SimpleIntegerProperty(year);
-        this.platform = new SimpleStringProperty(platform);
-        this.stockQuantity = new SimpleIntegerProperty(stockQuantity);
-        this.price = new SimpleDoubleProperty(price);
-        this.sales = new SimpleIntegerProperty(sales);
-    }
-
-    // Getters for Properties
-    public IntegerProperty getGameIdProperty() {
+    public Game(int gameId, String title, String genre, int year, String platform, int stockQuantity, long priceCents, int sales) {
+        this.gameId = gameId;
+        this.title = title;
+        this.genre = genre;
+        this.year = year;
+        this.platform = platform;
+        this.stockQuantity = stockQuantity;
+        this.priceCents = priceCents;
+        this.sales = sales;
+    }
+
+    // Getters
+    public int getGameId() {
         return gameId;
     }
 
-    public StringProperty getTitleProperty() {
+    public String getTitle() {
         return title;
     }
 
-    public StringProperty getGenreProperty() {
+    public String getGenre() {
         return genre;
     }
 
-    public IntegerProperty getYearProperty() {
+    public int getYear() {
         return year;
     }
 
-    public StringProperty getPlatformProperty() {
+    public String getPlatform() {
         return platform;
     }
 
-    public IntegerProperty getStockQuantityProperty() {
+    public int getStockQuantity() {
         return stockQuantity;
     }
 
-    public DoubleProperty getPriceProperty() {
-        return price;
+    // Price in cents, see Money
+    public long getPriceCents() {
+        return priceCents;
     }
 
-    public IntegerProperty getSalesProperty() {
+    public int getSales() {
         return sales;
     }
-}
\ No newline at end of file
+}
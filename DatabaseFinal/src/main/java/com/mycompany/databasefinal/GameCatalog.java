@@ -0,0 +1,37 @@
+package com.mycompany.databasefinal;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+
+// Catalog write operations shared by the inventory screen and the bulk importer
+public class GameCatalog {
+
+    private GameCatalog() {
+    }
+
+    // Adds a game together with its inventory row (quantity 0, no restock date) in one transaction and one round trip,
+    // using the AddGameWithInventory procedure. Returns the new game_id
+    public static int addGame(String title, int genreId, int platformId, int releaseYear, long priceCents) throws SQLException {
+        if (genreId == -1 || platformId == -1) {
+            throw new SQLException("Unknown genre or platform for \"" + title + "\"");
+        }
+        String sql = "{CALL AddGameWithInventory(?, ?, ?, ?, ?, ?)}";
+        try (Connection conn = DatabaseUtil.getConnection();
+             CallableStatement cs = conn.prepareCall(sql)) {
+            cs.setString(1, title);
+            cs.setInt(2, genreId);
+            cs.setInt(3, platformId);
+            cs.setInt(4, releaseYear);
+            Money.set(cs, 5, priceCents);
+            cs.registerOutParameter(6, Types.INTEGER);
+            cs.execute();
+            int gameId = cs.getInt(6);
+            if (cs.wasNull()) {
+                throw new SQLException("Creating game failed, no ID obtained.");
+            }
+            return gameId;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.mycompany.databasefinal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over the catalog's titles, genres and platforms, used by the games screen instead of the
+// LIKE '%...%' SearchGames procedure. Every query word must match a word of the field, either as a prefix
+// ("zel" -> "zelda") or with one typo ("zelad" -> "zelda"). Built from the GameDetails load and kept current as
+// games are added or restocked
+public class GameSearchIndex {
+
+    private static final GameSearchIndex SHARED = new GameSearchIndex();
+    // Words shorter than this only match by prefix, one edit away from a two letter word is almost anything
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Integer> docByGameId = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final FieldIndex titles = new FieldIndex();
+    private final FieldIndex genres = new FieldIndex();
+    private final FieldIndex platforms = new FieldIndex();
+    private Doc[] docs = new Doc[1024];
+    private int docCount;
+    private int deletedCount;
+    private volatile boolean ready;
+
+    // The index shared by every screen
+    public static GameSearchIndex shared() {
+        return SHARED;
+    }
+
+    // True once the index has been built from a full catalog load and hasn't been marked stale since
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Replaces the whole index with the given catalog
+    public void rebuild(Collection<Game> games) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Game game : games) {
+                append(Doc.of(game));
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds a game, or replaces the indexed copy of one already present
+    public void put(Game game) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByGameId.get(game.getGameId());
+            if (existing != null) {
+                deleted.set(existing);
+                deletedCount++;
+            }
+            append(Doc.of(game));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Updates the stock shown for a game without touching its words
+    public void updateStock(int gameId, int stockQuantity) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docByGameId.get(gameId);
+            if (doc != null) {
+                docs[doc] = docs[doc].withStock(stockQuantity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Call when the catalog changed in ways the index wasn't told about (e.g. a bulk import), searches fall back to the database until the next rebuild
+    public void markStale() {
+        ready = false;
+    }
+
+    // Runs a search for the games screen's filter types (ID, Title, Genre, Platform). Results are in catalog order, at most limit of them
+    public List<Game> search(String filterType, String text, int limit) {
+        lock.readLock().lock();
+        try {
+            if ("ID".equals(filterType)) {
+                return searchById(text);
+            }
+            FieldIndex field = fieldFor(filterType);
+            if (field == null) {
+                return Collections.emptyList();
+            }
+            String[] words = tokenize(text);
+            if (words.length == 0) {
+                return liveDocs(limit);
+            }
+            return searchField(field, words, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Answers a search from the rows of an earlier, complete (not cut off at the limit) search of the same type whose
+    // text it extends, by re-checking each earlier row against the new words with the same prefix-or-typo rule. Returns
+    // null when that could miss a game, so the caller searches as usual: some earlier word isn't narrowed by a new one,
+    // or a new word has a typo match the earlier word didn't ("zel" -> "zeld" also matches "zold")
+    public List<Game> narrow(String filterType, String previousText, List<Game> previous, String text) {
+        lock.readLock().lock();
+        try {
+            FieldIndex field = fieldFor(filterType);
+            String[] words = tokenize(text);
+            if (!ready || field == null || words.length == 0) {
+                return null;
+            }
+            List<Set<String>> fuzzy = new ArrayList<>(words.length);
+            for (String word : words) {
+                fuzzy.add(field.fuzzyTerms(word));
+            }
+            for (String previousWord : tokenize(previousText)) {
+                if (!narrowedBy(field, previousWord, words, fuzzy)) {
+                    return null;
+                }
+            }
+            int fieldNo = field == titles ? 0 : field == genres ? 1 : 2;
+            boolean[] checked = new boolean[words.length];
+            List<Game> results = new ArrayList<>();
+            for (Game game : previous) {
+                Integer doc = docByGameId.get(game.getGameId());
+                if (doc != null && !deleted.get(doc) && matchesAll(docs[doc].wordsFor(fieldNo), words, fuzzy, checked)) {
+                    results.add(docs[doc].toGame());
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // True if some new word only matches terms the earlier word matched too: it extends the earlier word, and each of
+    // its typo matches also starts with the earlier word or was one of the earlier word's typo matches
+    private static boolean narrowedBy(FieldIndex field, String previousWord, String[] words, List<Set<String>> fuzzy) {
+        Set<String> previousFuzzy = null;
+        for (int i = 0; i < words.length; i++) {
+            if (!words[i].startsWith(previousWord)) {
+                continue;
+            }
+            boolean covered = true;
+            for (String term : fuzzy.get(i)) {
+                if (!term.startsWith(previousWord)) {
+                    if (previousFuzzy == null) {
+                        previousFuzzy = field.fuzzyTerms(previousWord);
+                    }
+                    if (!previousFuzzy.contains(term)) {
+                        covered = false;
+                        break;
+                    }
+                }
+            }
+            if (covered) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Game> searchById(String text) {
+        int gameId;
+        try {
+            gameId = Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return Collections.emptyList();
+        }
+        Integer doc = docByGameId.get(gameId);
+        return doc == null ? Collections.emptyList() : Collections.singletonList(docs[doc].toGame());
+    }
+
+    private List<Game> liveDocs(int limit) {
+        List<Game> results = new ArrayList<>();
+        for (int doc = deleted.nextClearBit(0); doc < docCount && results.size() < limit; doc = deleted.nextClearBit(doc + 1)) {
+            results.add(docs[doc].toGame());
+        }
+        return results;
+    }
+
+    // Expands each query word to the matching dictionary terms and starts from the postings of the most selective word.
+    // Words with similarly sized postings are intersected as bitsets, the rest are checked against each candidate's own words
+    private List<Game> searchField(FieldIndex field, String[] words, int limit) {
+        List<Set<String>> fuzzy = new ArrayList<>(words.length);
+        long[] costs = new long[words.length];
+        int driver = 0;
+        for (int i = 0; i < words.length; i++) {
+            fuzzy.add(field.fuzzyTerms(words[i]));
+            costs[i] = field.cost(words[i], fuzzy.get(i));
+            if (costs[i] == 0) {
+                return Collections.emptyList(); // This word matches nothing, so neither does the query
+            }
+            if (costs[i] < costs[driver]) {
+                driver = i;
+            }
+        }
+        BitSet candidates = field.candidates(words[driver], fuzzy.get(driver));
+        boolean[] checked = new boolean[words.length];
+        checked[driver] = true;
+        for (int i = 0; i < words.length; i++) {
+            if (!checked[i] && costs[i] <= costs[driver] * 4) {
+                candidates.and(field.candidates(words[i], fuzzy.get(i)));
+                checked[i] = true;
+            }
+        }
+        candidates.andNot(deleted);
+        int fieldNo = field == titles ? 0 : field == genres ? 1 : 2;
+        List<Game> results = new ArrayList<>();
+        for (int doc = candidates.nextSetBit(0); doc >= 0 && results.size() < limit; doc = candidates.nextSetBit(doc + 1)) {
+            if (matchesAll(docs[doc].wordsFor(fieldNo), words, fuzzy, checked)) {
+                results.add(docs[doc].toGame());
+            }
+        }
+        return results;
+    }
+
+    private static boolean matchesAll(String[] docWords, String[] words, List<Set<String>> fuzzy, boolean[] checked) {
+        for (int i = 0; i < words.length; i++) {
+            if (!checked[i] && !matchesAny(docWords, words[i], fuzzy.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesAny(String[] docWords, String word, Set<String> fuzzy) {
+        for (String docWord : docWords) {
+            if (docWord.startsWith(word) || fuzzy.contains(docWord)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private FieldIndex fieldFor(String filterType) {
+        if ("Title".equals(filterType)) {
+            return titles;
+        } else if ("Genre".equals(filterType)) {
+            return genres;
+        } else if ("Platform".equals(filterType)) {
+            return platforms;
+        }
+        return null;
+    }
+
+    private void append(Doc doc) {
+        if (docCount == docs.length) {
+            docs = Arrays.copyOf(docs, docCount * 2);
+        }
+        int id = docCount++;
+        docs[id] = doc;
+        docByGameId.put(doc.gameId, id);
+        titles.add(id, doc.titleWords);
+        genres.add(id, doc.genreWords);
+        platforms.add(id, doc.platformWords);
+    }
+
+    private void clear() {
+        docs = new Doc[1024];
+        docCount = 0;
+        deletedCount = 0;
+        deleted.clear();
+        docByGameId.clear();
+        titles.clear();
+        genres.clear();
+        platforms.clear();
+    }
+
+    // Replaced games leave their old postings behind, rebuild once they make up half the index
+    private void compactIfNeeded() {
+        if (deletedCount < 1024 || deletedCount * 2 < docCount) {
+            return;
+        }
+        Doc[] live = new Doc[docCount - deletedCount];
+        int n = 0;
+        for (int doc = deleted.nextClearBit(0); doc < docCount; doc = deleted.nextClearBit(doc + 1)) {
+            live[n++] = docs[doc];
+        }
+        clear();
+        for (Doc doc : live) {
+            append(doc);
+        }
+    }
+
+    // Lower-cased words made of letters and digits, duplicates removed
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        List<String> words = new ArrayList<>(4);
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = lower.substring(start, i);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    // One indexed game. Immutable so searches can hand out copies without holding the lock
+    private static final class Doc {
+        private final int gameId;
+        private final String title;
+        private final String genre;
+        private final int year;
+        private final String platform;
+        private final int stock;
+        private final long priceCents;
+        private final String[] titleWords;
+        private final String[] genreWords;
+        private final String[] platformWords;
+
+        private Doc(int gameId, String title, String genre, int year, String platform, int stock, long priceCents,
+                    String[] titleWords, String[] genreWords, String[] platformWords) {
+            this.gameId = gameId;
+            this.title = title;
+            this.genre = genre;
+            this.year = year;
+            this.platform = platform;
+            this.stock = stock;
+            this.priceCents = priceCents;
+            this.titleWords = titleWords;
+            this.genreWords = genreWords;
+            this.platformWords = platformWords;
+        }
+
+        private static Doc of(Game game) {
+            String title = game.getTitle();
+            String genre = game.getGenre();
+            String platform = game.getPlatform();
+            return new Doc(game.getGameId(), title, genre, game.getYear(), platform,
+                    game.getStockQuantity(), game.getPriceCents(),
+                    tokenize(title), tokenize(genre), tokenize(platform));
+        }
+
+        private Doc withStock(int newStock) {
+            return new Doc(gameId, title, genre, year, platform, newStock, priceCents, titleWords, genreWords, platformWords);
+        }
+
+        private String[] wordsFor(int field) {
+            return field == 0 ? titleWords : field == 1 ? genreWords : platformWords;
+        }
+
+        private Game toGame() {
+            return new Game(gameId, title, genre, year, platform, stock, priceCents, 0);
+        }
+    }
+
+    // Term dictionary and postings for one field. The sorted dictionary answers prefix lookups; one-typo lookups
+    // probe it with every variant of the query word instead of indexing variants of every term
+    private static final class FieldIndex {
+        private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+        private final TreeMap<String, IntList> postings = new TreeMap<>();
+
+        private void add(int doc, String[] words) {
+            for (String word : words) {
+                IntList list = postings.get(word);
+                if (list == null) {
+                    list = new IntList();
+                    postings.put(word, list);
+                }
+                list.add(doc);
+            }
+        }
+
+        private void clear() {
+            postings.clear();
+        }
+
+        private SortedMap<String, IntList> withPrefix(String prefix) {
+            return postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        }
+
+        // Terms one insertion, deletion, substitution or transposition away from the word
+        private Set<String> fuzzyTerms(String word) {
+            if (word.length() < MIN_FUZZY_LENGTH) {
+                return Collections.emptySet();
+            }
+            Set<String> terms = new HashSet<>();
+            String alphabet = ALPHABET + word; // Covers letters outside a-z that appear in the word itself
+            StringBuilder sb = new StringBuilder(word.length() + 1);
+            for (int i = 0; i <= word.length(); i++) {
+                for (int c = 0; c < alphabet.length(); c++) {
+                    sb.setLength(0);
+                    sb.append(word, 0, i).append(alphabet.charAt(c)).append(word, i, word.length());
+                    probe(sb.toString(), word, terms);
+                }
+                if (i == word.length()) {
+                    break;
+                }
+                sb.setLength(0);
+                sb.append(word, 0, i).append(word, i + 1, word.length());
+                probe(sb.toString(), word, terms);
+                for (int c = 0; c < alphabet.length(); c++) {
+                    sb.setLength(0);
+                    sb.append(word, 0, i).append(alphabet.charAt(c)).append(word, i + 1, word.length());
+                    probe(sb.toString(), word, terms);
+                }
+                if (i + 1 < word.length()) {
+                    sb.setLength(0);
+                    sb.append(word, 0, i).append(word.charAt(i + 1)).append(word.charAt(i)).append(word, i + 2, word.length());
+                    probe(sb.toString(), word, terms);
+                }
+            }
+            return terms;
+        }
+
+        // Prefix matches are already covered, so only keep variants the prefix lookup wouldn't find
+        private void probe(String variant, String word, Set<String> terms) {
+            if (!variant.startsWith(word) && postings.containsKey(variant)) {
+                terms.add(variant);
+            }
+        }
+
+        // Number of postings a word expands to, used to pick the cheapest word to drive the search
+        private long cost(String word, Set<String> fuzzy) {
+            long cost = 0;
+            for (IntList list : withPrefix(word).values()) {
+                cost += list.size;
+            }
+            for (String term : fuzzy) {
+                cost += postings.get(term).size;
+            }
+            return cost;
+        }
+
+        private BitSet candidates(String word, Set<String> fuzzy) {
+            BitSet bits = new BitSet();
+            for (IntList list : withPrefix(word).values()) {
+                list.setAll(bits);
+            }
+            for (String term : fuzzy) {
+                postings.get(term).setAll(bits);
+            }
+            return bits;
+        }
+    }
+
+    // Growable int array, postings are appended in doc order so they stay sorted
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void setAll(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(values[i]);
+            }
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.mycompany.databasefinal;
 
+import java.time.LocalDate;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.HBox;
 
-public class GameVaultHubController {
+public class GameVaultHubController implements SceneLifecycle {
 
     @FXML private Button manageCustomersButton;
     @FXML private Button viewGamesButton;
@@ -14,8 +15,10 @@ public class GameVaultHubController {
     @FXML private Button manageOrdersButton;
     @FXML private Button manageRentalsButton;
     @FXML private Button viewPaymentsButton;
+    @FXML private Button diagnosticsButton;
     @FXML private Button logoutButton;
     @FXML private Label titleLabel;
+    @FXML private Label salesSummaryLabel;
     @FXML private HBox menuBox;
     
     // Begins by adding functionality to all of the buttons within the scene
@@ -27,7 +30,37 @@ public class GameVaultHubController {
         manageOrdersButton.setOnAction(e -> switchScene("OrderScene"));
         manageRentalsButton.setOnAction(e -> switchScene("RentalsScene"));
         viewPaymentsButton.setOnAction(e -> switchScene("PaymentsScene"));
+        diagnosticsButton.setOnAction(e -> switchScene("DiagnosticsScene"));
         logoutButton.setOnAction(e -> logout());
+        loadSalesSummary();
+    }
+
+    // The hub is cached, so the summary is re-read every time it comes back into view
+    @Override
+    public void onShow() {
+        loadSalesSummary();
+    }
+
+    // Takings, best seller and top employee for the last 7 days, from the daily rollups (a few dozen rows at most)
+    private void loadSalesSummary() {
+        LocalDate today = LocalDate.now();
+        DataLoader.load(this, () -> SalesRollups.summarize(today.minusDays(6), today), this::showSalesSummary, e -> {
+            salesSummaryLabel.setText("Last 7 days: sales summary unavailable");
+            e.printStackTrace();
+        });
+    }
+
+    private void showSalesSummary(SalesRollups.Summary summary) {
+        StringBuilder text = new StringBuilder(String.format("Last 7 days: %s from %,d payments",
+                Money.formatDollars(summary.getPaymentCents()), summary.getPaymentCount()));
+        if (summary.getTopGame() != null) {
+            text.append(String.format("  |  Best seller: %s (%,d)", summary.getTopGame(), summary.getTopGameUnits()));
+        }
+        if (summary.getTopEmployee() != null) {
+            text.append(String.format("  |  Top employee: %s (%s)", summary.getTopEmployee(),
+                    Money.formatDollars(summary.getTopEmployeeCents())));
+        }
+        salesSummaryLabel.setText(text.toString());
     }
     
     // Helper method used to switch between scenes
@@ -42,4 +75,4 @@ public class GameVaultHubController {
     private void logout() {
         Platform.exit(); 
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
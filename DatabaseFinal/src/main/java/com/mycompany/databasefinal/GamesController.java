@@ -2,12 +2,44 @@ package com.mycompany.databasefinal;
 
 import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.util.Duration;
 
-public class GamesController {
+public class GamesController implements SceneLifecycle {
+
+    // The whole catalog, loaded for the table and the search index
+    public static final String CATALOG_SQL = "SELECT * FROM GameDetails";
+    // Games whose stock changed since a watermark (new games included, they arrive with their inventory row), served
+    // by the index on Inventory.updated_at
+    public static final String CHANGED_GAMES_SQL = "SELECT d.* FROM Inventory i JOIN GameDetails d ON d.game_id = i.game_id "
+            + "WHERE i.updated_at >= ?";
+    // Walks idx_game_sales_total in order and stops after five rows, no aggregation or full sort
+    public static final String TOP_SELLERS_SQL = "SELECT g.game_id, g.title AS game_title, g.year_released, g.price AS game_price, gs.total_sales "
+            + "FROM GameSales gs JOIN Games g ON gs.game_id = g.game_id "
+            + "ORDER BY gs.total_sales DESC, gs.game_id LIMIT 5";
+
+    // Caps how many matches a search puts in the table, a one-letter query can match most of a large catalog
+    private static final int SEARCH_LIMIT = 5000;
+    // How long typing has to pause before a type-ahead search runs, and how many recent searches are kept
+    private static final Duration TYPE_AHEAD_DELAY = Duration.millis(250);
+    private static final int SEARCH_CACHE_SIZE = 64;
+    // Same idea as the rentals screen's margin: updated_at is stamped before its transaction commits, so each delta
+    // re-reads this much before the last one; override with -Dgamevault.games.watermarkMarginMs
+    private static final long WATERMARK_MARGIN_MS = Long.getLong("gamevault.games.watermarkMarginMs", 60_000);
 
     @FXML
     private TableView<Game> gameTable, topSellingGameTable;
@@ -16,116 +48,333 @@ public class GamesController {
     @FXML
     private TableColumn<Game, String> titleColumn, genreColumn, platformColumn, topSellingTitleColumn;
     @FXML
-    private TableColumn<Game, Double> priceColumn, topSellingPriceColumn;
+    private TableColumn<Game, Long> priceColumn, topSellingPriceColumn;
     @FXML
     private ComboBox<String> searchTypeComboBox;
     @FXML
     private TextField searchTextField;
     @FXML
     private Button searchButton, hubButton;
+    @FXML
+    private CheckBox typeAheadCheckBox;
     // Observable lists for holding game data
     private ObservableList<Game> gamesList = FXCollections.observableArrayList();
     private ObservableList<Game> topSellingGamesList = FXCollections.observableArrayList();
+    // Position of each game in gamesList, so a changed game is replaced in place
+    private final Map<Integer, Integer> gameRowById = new HashMap<>();
+    // Server time of the last catalog read minus WATERMARK_MARGIN_MS, null until a full load has completed
+    private Timestamp watermark;
+    // Recent search results keyed by filter type and lower-cased text, least recently used dropped first
+    private final Map<String, SearchResult> searchCache = new LinkedHashMap<String, SearchResult>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SearchResult> eldest) {
+            return size() > SEARCH_CACHE_SIZE;
+        }
+    };
+    private final PauseTransition typeAheadPause = new PauseTransition(TYPE_AHEAD_DELAY);
+    private Future<SearchResult> pendingSearch;
+    private int searchSequence;
 
     @FXML
     public void initialize() {
         // Initialize search type combo box
         searchTypeComboBox.setItems(FXCollections.observableArrayList("ID", "Title", "Genre", "Platform"));
         searchTypeComboBox.setValue("Title"); // Default search type
-        // Set up table columns with property value factories
+        // Set up table columns; cells read the plain getters
         setTableColumnBindings();
+        setUpTypeAhead();
         // Fetch and display data
         fetchGameData();
         fetchTopSellingGamesData();
     }
 
+    // Back from the cache: the five top sellers are re-read, and from the catalog only the games whose stock changed
+    // since the last visit, patched into the table and the search index in place and without the loading spinner. The
+    // whole catalog is only read again when the index isn't ready (never built, a load was cancelled, or an import
+    // marked it stale). Search results the user left up stay until they search again
+    @Override
+    public void onShow() {
+        DataLoader.load(this, this::queryTopSellingGamesData, games -> {
+            topSellingGamesList.setAll(games);
+            topSellingGameTable.setItems(topSellingGamesList);
+        }, Throwable::printStackTrace);
+        Timestamp since = watermark;
+        if (since == null || !GameSearchIndex.shared().isReady()) {
+            DataLoader.load(this, this::queryGameData, catalog -> {
+                showCatalog(catalog);
+                if (searchTextField.getText() == null || searchTextField.getText().trim().isEmpty()) {
+                    gameTable.setItems(gamesList);
+                }
+            }, Throwable::printStackTrace);
+            return;
+        }
+        DataLoader.load(this, () -> queryChangedGames(since), changes -> {
+            if (!changes.games.isEmpty()) {
+                searchCache.clear(); // Cached results may show stale stock
+            }
+            for (Game game : changes.games) {
+                applyGameChange(game);
+            }
+            watermark = changes.watermark;
+        }, Throwable::printStackTrace);
+    }
+
     // Helper method to bind the two table's columns
     private void setTableColumnBindings() {
-        IdColumn.setCellValueFactory(cellData -> cellData.getValue().getGameIdProperty().asObject());
-        titleColumn.setCellValueFactory(cellData -> cellData.getValue().getTitleProperty());
-        genreColumn.setCellValueFactory(cellData -> cellData.getValue().getGenreProperty());
-        yearColumn.setCellValueFactory(cellData -> cellData.getValue().getYearProperty().asObject());
-        platformColumn.setCellValueFactory(cellData -> cellData.getValue().getPlatformProperty());
-        stockColumn.setCellValueFactory(cellData -> cellData.getValue().getStockQuantityProperty().asObject());
-        priceColumn.setCellValueFactory(cellData -> cellData.getValue().getPriceProperty().asObject());
-        topSellingTitleColumn.setCellValueFactory(cellData -> cellData.getValue().getTitleProperty());
-        topSellingYearColumn.setCellValueFactory(cellData -> cellData.getValue().getYearProperty().asObject());
-        topSellingPriceColumn.setCellValueFactory(cellData -> cellData.getValue().getPriceProperty().asObject());
-        totalSalesColumn.setCellValueFactory(cellData -> cellData.getValue().getSalesProperty().asObject());
+        IdColumn.setCellValueFactory(TableCells.value(Game::getGameId));
+        titleColumn.setCellValueFactory(TableCells.value(Game::getTitle));
+        genreColumn.setCellValueFactory(TableCells.value(Game::getGenre));
+        yearColumn.setCellValueFactory(TableCells.value(Game::getYear));
+        platformColumn.setCellValueFactory(TableCells.value(Game::getPlatform));
+        stockColumn.setCellValueFactory(TableCells.value(Game::getStockQuantity));
+        priceColumn.setCellValueFactory(TableCells.value(Game::getPriceCents));
+        priceColumn.setCellFactory(TableCells.money());
+        topSellingTitleColumn.setCellValueFactory(TableCells.value(Game::getTitle));
+        topSellingYearColumn.setCellValueFactory(TableCells.value(Game::getYear));
+        topSellingPriceColumn.setCellValueFactory(TableCells.value(Game::getPriceCents));
+        topSellingPriceColumn.setCellFactory(TableCells.money());
+        totalSalesColumn.setCellValueFactory(TableCells.value(Game::getSales));
     }
 
     // Method to fetch all games in stock from the database using the GameDetails view
     @FXML
     private void fetchGameData() {
-        String sql = "SELECT * FROM GameDetails";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                Game game = mapResultSetToGame(rs);
-                gamesList.add(game);
+        DataLoader.load(this, gameTable, this::queryGameData, catalog -> {
+            showCatalog(catalog);
+            gameTable.setItems(gamesList);
+        }, Throwable::printStackTrace);
+    }
+
+    private void showCatalog(GameChanges catalog) {
+        searchCache.clear(); // Cached results may show stale stock
+        gamesList.setAll(catalog.games);
+        gameRowById.clear();
+        for (int i = 0; i < catalog.games.size(); i++) {
+            gameRowById.put(catalog.games.get(i).getGameId(), i);
+        }
+        watermark = catalog.watermark;
+    }
+
+    // Runs on a background worker, see fetchGameData. Also rebuilds the search index from the fresh catalog
+    private GameChanges queryGameData() throws SQLException {
+        List<Game> games = new ArrayList<>();
+        Timestamp now;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            // Read the watermark first so nothing changed during the load can be missed by the next delta
+            now = queryServerTime(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(CATALOG_SQL); ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    games.add(RowMappers.game(rs));
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
-        gameTable.setItems(gamesList);
+        GameSearchIndex.shared().rebuild(games);
+        return new GameChanges(games, now);
+    }
+
+    // Runs on a background worker, see onShow
+    private GameChanges queryChangedGames(Timestamp since) throws SQLException {
+        List<Game> games = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            Timestamp now = queryServerTime(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(CHANGED_GAMES_SQL)) {
+                stmt.setTimestamp(1, since);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        games.add(RowMappers.game(rs));
+                    }
+                }
+            }
+            return new GameChanges(games, now);
+        }
+    }
+
+    // The database clock less the margin, comparable with Inventory.updated_at
+    private Timestamp queryServerTime(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(DatabaseUtil.SERVER_TIME_SQL); ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return new Timestamp(rs.getTimestamp(1).getTime() - WATERMARK_MARGIN_MS);
+        }
     }
 
-    // Method to fetch top-selling games from the database using TopSellingGames view and then limiting it to the first 5
+    // Replaces one game's row in the table, or adds a new game at the end, and patches the search index: a stock
+    // change only updates the stock it shows, anything else re-indexes the game
+    private void applyGameChange(Game game) {
+        GameSearchIndex index = GameSearchIndex.shared();
+        Integer row = gameRowById.get(game.getGameId());
+        if (row == null) {
+            gameRowById.put(game.getGameId(), gamesList.size());
+            gamesList.add(game);
+            index.put(game);
+            return;
+        }
+        Game old = gamesList.set(row, game);
+        if (sameListing(old, game)) {
+            index.updateStock(game.getGameId(), game.getStockQuantity());
+        } else {
+            index.put(game);
+        }
+    }
+
+    private static boolean sameListing(Game a, Game b) {
+        return Objects.equals(a.getTitle(), b.getTitle()) && Objects.equals(a.getGenre(), b.getGenre())
+                && Objects.equals(a.getPlatform(), b.getPlatform()) && a.getYear() == b.getYear()
+                && a.getPriceCents() == b.getPriceCents();
+    }
+
+    // Method to fetch the top 5 selling games from the GameSales counters
     @FXML
     private void fetchTopSellingGamesData() {
-        String sql = "SELECT * FROM TopSellingGames LIMIT 5";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+        DataLoader.load(this, topSellingGameTable, this::queryTopSellingGamesData, games -> {
+            topSellingGamesList.setAll(games);
+            topSellingGameTable.setItems(topSellingGamesList);
+        }, Throwable::printStackTrace);
+    }
+
+    // Runs on a background worker, see fetchTopSellingGamesData
+    private List<Game> queryTopSellingGamesData() throws SQLException {
+        List<Game> games = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareStatement(TOP_SELLERS_SQL); ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                Game game = mapTopSellingResultSetToGame(rs);
-                topSellingGamesList.add(game);
+                games.add(RowMappers.topSellingGame(rs));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
-        topSellingGameTable.setItems(topSellingGamesList);
+        return games;
     }
 
-    // Method to map ResultSet to a Game objects
-    private Game mapResultSetToGame(ResultSet rs) throws SQLException {
-        int gameId = rs.getInt("game_id");
-        String title = rs.getString("title");
-        String genre = rs.getString("genre_name");
-        int year = rs.getInt("year_released");
-        String platform = rs.getString("platform_name");
-        int stockQuantity = rs.getInt("quantity_in_stock");
-        double price = rs.getDouble("price");
-        return new Game(gameId, title, genre, year, platform, stockQuantity, price, 0); // 0 for sales
-    }
-
-    // Method to map ResultSet to a Game object for top-selling gamess
-    private Game mapTopSellingResultSetToGame(ResultSet rs) throws SQLException {
-        int gameId = rs.getInt("game_id");
-        String title = rs.getString("game_title");
-        int year = rs.getInt("year_released");
-        double price = rs.getDouble("game_price");
-        int totalSales = rs.getInt("total_sales");
-        return new Game(gameId, title, "", year, "", 0, price, totalSales); // Missing details in top-selling data
+    // Searches as the user types: each keystroke restarts the pause, and the search runs once typing stops for TYPE_AHEAD_DELAY
+    private void setUpTypeAhead() {
+        typeAheadPause.setOnFinished(event -> runSearch(false));
+        searchTextField.textProperty().addListener((obs, oldText, newText) -> {
+            if (typeAheadCheckBox.isSelected()) {
+                typeAheadPause.playFromStart();
+            }
+        });
+        searchTypeComboBox.valueProperty().addListener((obs, oldType, newType) -> {
+            if (typeAheadCheckBox.isSelected() && !searchTextField.getText().isEmpty()) {
+                runSearch(false);
+            }
+        });
     }
 
-    // Method to handle functionality for the search button. Calls the SearchGames procedure from within the DB and passes the parameters (filter type and the text field's data)
+    // Method to handle functionality for the search button. Searches by filter type and the text field's data right away
     @FXML
     private void handleSearch() {
+        runSearch(true);
+    }
+
+    // Shows the results for the current filter type and text. Answers from the cache when it can, otherwise queries on a
+    // background worker, cancelling any search this one supersedes
+    private void runSearch(boolean showSpinner) {
+        typeAheadPause.stop();
         String filterType = searchTypeComboBox.getValue();
-        String searchValue = searchTextField.getText();
-        ObservableList<Game> filteredGames = FXCollections.observableArrayList();
+        String searchValue = searchTextField.getText() == null ? "" : searchTextField.getText();
+        int sequence = ++searchSequence;
+        if (pendingSearch != null) {
+            pendingSearch.cancel(true);
+            pendingSearch = null;
+            DataLoader.hideLoading(gameTable);
+        }
+        if (searchValue.trim().isEmpty()) {
+            gameTable.setItems(gamesList);
+            return;
+        }
+        String key = filterType + '\u0000' + searchValue.toLowerCase(Locale.ROOT);
+        SearchResult cached = searchCache.get(key);
+        if (cached == null) {
+            cached = narrowCachedResult(filterType, searchValue);
+            if (cached != null) {
+                searchCache.put(key, cached);
+            }
+        }
+        if (cached != null) {
+            gameTable.setItems(FXCollections.observableArrayList(cached.games));
+            return;
+        }
+        GameSearchIndex index = GameSearchIndex.shared();
+        Callable<SearchResult> query = () -> {
+            if (index.isReady()) {
+                List<Game> games = index.search(filterType, searchValue, SEARCH_LIMIT);
+                // A result cut off at the limit may be missing rows a longer text would match
+                return new SearchResult(games, !"ID".equals(filterType) && games.size() < SEARCH_LIMIT, true);
+            }
+            return new SearchResult(querySearchGames(filterType, searchValue), !"ID".equals(filterType), false);
+        };
+        Consumer<SearchResult> show = result -> {
+            if (sequence != searchSequence) {
+                return; // A newer search has started since
+            }
+            pendingSearch = null;
+            searchCache.put(key, result);
+            gameTable.setItems(FXCollections.observableArrayList(result.games));
+        };
+        Consumer<Throwable> failed = e -> {
+            if (sequence == searchSequence) {
+                pendingSearch = null;
+            }
+            e.printStackTrace();
+        };
+        // Type-ahead leaves the current rows up until the new ones arrive rather than flashing a spinner on every pause
+        pendingSearch = showSpinner
+                ? DataLoader.load(this, gameTable, query, show, failed)
+                : DataLoader.load(this, query, show, failed);
+    }
+
+    // When the text extends an earlier search of the same type, filters that search's rows instead of querying again.
+    // Database results use substring matching, so the longer text can only match a subset of them. Index results are
+    // re-checked by GameSearchIndex.narrow with the index's own prefix-or-typo rule; it declines (null) when a typo
+    // match could reach outside the earlier rows, and the search then runs as usual
+    private SearchResult narrowCachedResult(String filterType, String searchValue) {
+        String lower = searchValue.toLowerCase(Locale.ROOT);
+        String prefix = filterType + '\u0000';
+        SearchResult best = null;
+        String bestText = null;
+        int bestLength = -1;
+        for (Map.Entry<String, SearchResult> entry : searchCache.entrySet()) {
+            // Keys of other search types can be shorter than this prefix, so match the type before cutting it off
+            if (!entry.getValue().narrowable || !entry.getKey().startsWith(prefix)) {
+                continue;
+            }
+            String cachedText = entry.getKey().substring(prefix.length());
+            if (lower.startsWith(cachedText) && cachedText.length() > bestLength) {
+                best = entry.getValue();
+                bestText = cachedText;
+                bestLength = cachedText.length();
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        if (best.fromIndex) {
+            List<Game> narrowed = GameSearchIndex.shared().narrow(filterType, bestText, best.games, searchValue);
+            return narrowed == null ? null : new SearchResult(narrowed, true, true);
+        }
+        List<Game> narrowed = new ArrayList<>();
+        for (Game game : best.games) {
+            String value = "Title".equals(filterType) ? game.getTitle()
+                    : "Genre".equals(filterType) ? game.getGenre()
+                    : game.getPlatform();
+            if (value != null && value.toLowerCase(Locale.ROOT).contains(lower)) {
+                narrowed.add(game);
+            }
+        }
+        return new SearchResult(narrowed, true, false);
+    }
+
+    // Runs on a background worker, see runSearch. Fallback for when the search index isn't ready
+    private List<Game> querySearchGames(String filterType, String searchValue) throws SQLException {
+        List<Game> filteredGames = new ArrayList<>();
         String sql = "{CALL SearchGames(?, ?)}";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement stmt = conn.prepareCall(sql)) {
             stmt.setString(1, filterType);
             stmt.setString(2, searchValue);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Game game = mapResultSetToGame(rs);
-                    filteredGames.add(game);
+                    filteredGames.add(RowMappers.game(rs));
                 }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
-        gameTable.setItems(filteredGames);
+        return filteredGames;
     }
 
     // Method to open the Game Vault Hub scene
@@ -137,4 +386,30 @@ public class GamesController {
             e.printStackTrace();
         }
     }
+
+    // Catalog rows read in one query plus the server time taken just before it (less the margin), the watermark for
+    // the next delta
+    private static final class GameChanges {
+        private final List<Game> games;
+        private final Timestamp watermark;
+
+        private GameChanges(List<Game> games, Timestamp watermark) {
+            this.games = games;
+            this.watermark = watermark;
+        }
+    }
+
+    // Rows for one search, whether a longer search text may be answered by filtering them (see narrowCachedResult), and
+    // whether they came from the search index or the SearchGames fallback
+    private static final class SearchResult {
+        private final List<Game> games;
+        private final boolean narrowable;
+        private final boolean fromIndex;
+
+        private SearchResult(List<Game> games, boolean narrowable, boolean fromIndex) {
+            this.games = games;
+            this.narrowable = narrowable;
+            this.fromIndex = fromIndex;
+        }
+    }
 }
@@ -1,8 +1,13 @@
 package com.mycompany.databasefinal;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.*;
 import java.time.LocalDate;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -10,9 +15,13 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.stage.FileChooser;
 
-public class InventoryController {
+public class InventoryController implements SceneLifecycle {
+
+    public static final String UPDATE_STOCK_SQL = "UPDATE Inventory SET quantity_in_stock = ?, restock_date = ? WHERE game_id = ?";
 
     @FXML
     private TextField gameTitleField, priceField, gameIdField, stockQuantityField;
@@ -21,7 +30,9 @@ public class InventoryController {
     @FXML
     private DatePicker releaseYearField, restockDateField;
     @FXML
-    private Button updateBtn, addBtn, hubBtn;
+    private Button updateBtn, addBtn, hubBtn, importBtn;
+    @FXML
+    private Label importStatusLabel;
     private ObservableList<String> genres = FXCollections.observableArrayList();
     private ObservableList<String> platforms = FXCollections.observableArrayList();
 
@@ -31,36 +42,33 @@ public class InventoryController {
         loadPlatforms();
     }
 
-    // Loads all genres_names from the DB Genres table to fill the genreComboBox 
+    // Back from the cache: the shared Genres/Platforms cache only goes to the database once its entries have expired
+    @Override
+    public void onShow() {
+        loadGenres();
+        loadPlatforms();
+    }
+
+    // Loads all genres_names from the shared Genres cache to fill the genreComboBox 
     private void loadGenres() {
-        String query = "SELECT genre_name FROM Genres";
-        try (Connection connection = DatabaseUtil.getConnection();
-             Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            while (rs.next()) {
-                genres.add(rs.getString("genre_name"));
-            }
+        DataLoader.load(this, () -> ReferenceData.genres().getNames(), names -> {
+            genres.setAll(names);
             genreComboBox.setItems(genres);
-        } catch (SQLException e) {
+        }, e -> {
             showAlert("Error", "Failed to load genres.", Alert.AlertType.ERROR);
             e.printStackTrace();
-        }
+        });
     }
 
-    // Loads all platform_names from the DB Platforms table to fill the platformComboBox
+    // Loads all platform_names from the shared Platforms cache to fill the platformComboBox
     private void loadPlatforms() {
-        String query = "SELECT platform_name FROM Platforms";
-        try (Connection connection = DatabaseUtil.getConnection();
-             Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            while (rs.next()) {
-                platforms.add(rs.getString("platform_name"));
-            }
+        DataLoader.load(this, () -> ReferenceData.platforms().getNames(), names -> {
+            platforms.setAll(names);
             platformComboBox.setItems(platforms);
-        } catch (SQLException e) {
+        }, e -> {
             showAlert("Error", "Failed to load platforms.", Alert.AlertType.ERROR);
             e.printStackTrace();
-        }
+        });
     }
 
     // Add a new game to the database and inventory, validates user input and shows alerts if any data is missing or invalid
@@ -75,25 +83,28 @@ public class InventoryController {
             showAlert("Error", "Please fill in all fields.", Alert.AlertType.ERROR);
             return;
         }
+        int releaseYear = releaseDate.getYear();
+        long priceCents;
         try {
-            int releaseYear = releaseDate.getYear();
-            double price = Double.parseDouble(priceText);
-            int genreId = getGenreIdFromName(genre);
-            int platformId = getPlatformIdFromName(platform);
-            int gameId = addGameToDatabase(title, genreId, platformId, releaseYear, price);
-             // Adds entry to Inventory table with default stock
-            if (gameId != -1) {
-                addInventoryRecord(gameId);
-                showAlert("Success", "New game and inventory record added successfully.", Alert.AlertType.INFORMATION);
-            } else {
-                showAlert("Error", "Failed to retrieve game ID after insertion.", Alert.AlertType.ERROR);
+            priceCents = Money.parse(priceText);
+            if (priceCents < 0 || priceCents > Money.MAX_COLUMN_CENTS) {
+                throw new NumberFormatException(priceText);
             }
         } catch (NumberFormatException e) {
             showAlert("Error", "Invalid input for price.", Alert.AlertType.ERROR);
-        } catch (SQLException e) {
+            return;
+        }
+        DataLoader.run(() -> {
+            int genreId = getGenreIdFromName(genre);
+            int platformId = getPlatformIdFromName(platform);
+            // Inserts the game and its inventory row (default stock) atomically in one call
+            int gameId = GameCatalog.addGame(title, genreId, platformId, releaseYear, priceCents);
+            GameSearchIndex.shared().put(new Game(gameId, title, genre, releaseYear, platform, 0, priceCents, 0));
+            return gameId;
+        }, gameId -> showAlert("Success", "New game and inventory record added successfully.", Alert.AlertType.INFORMATION), e -> {
             showAlert("Error", "Error while adding the new game.", Alert.AlertType.ERROR);
             e.printStackTrace();
-        }
+        });
     }
 
     // Check if required fields are empty
@@ -101,68 +112,14 @@ public class InventoryController {
         return title.isEmpty() || genre == null || platform == null || releaseDate == null || priceText.isEmpty();
     }
 
-    // Get genre ID by quering for any genre_ids in the DB Genres table that matches genre names
+    // Get genre ID from the shared Genres cache (no database round trip)
     private int getGenreIdFromName(String genreName) throws SQLException {
-        String sql = "SELECT genre_id FROM Genres WHERE genre_name = ?";
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, genreName);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("genre_id");
-            }
-            return -1;
-        }
+        return ReferenceData.genres().idOf(genreName);
     }
 
-    // Get platform ID by quering for any platform_ids in the DB Genres table that matches platform names
+    // Get platform ID from the shared Platforms cache (no database round trip)
     private int getPlatformIdFromName(String platformName) throws SQLException {
-        String sql = "SELECT platform_id FROM Platforms WHERE platform_name = ?";
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, platformName);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("platform_id");
-            }
-            return -1;
-        }
-    }
-
-    // Inserts a new game record into the Games table and returns the generated game_id.
-    private int addGameToDatabase(String title, int genreId, int platformId, int releaseYear, double price) throws SQLException {
-        String sql = "INSERT INTO Games (title, genre_id, platform_id, year_released, price) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, title);
-            stmt.setInt(2, genreId);
-            stmt.setInt(3, platformId);
-            stmt.setInt(4, releaseYear);
-            stmt.setDouble(5, price);
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating game failed, no rows affected.");
-            }
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating game failed, no ID obtained.");
-                }
-            }
-        }
-    }
-
-    // Creates an inventory entry for the new game with quantity = 0 and restock_date = NULL
-    private void addInventoryRecord(int gameId) throws SQLException {
-        String sql = "INSERT INTO Inventory (game_id, quantity_in_stock, restock_date) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, gameId);
-            stmt.setInt(2, 0); // Default quantity = 0
-            stmt.setDate(3, null); // Default restock date = NULL
-            stmt.executeUpdate();
-        }
+        return ReferenceData.platforms().idOf(platformName);
     }
 
     // Handles the event of updating the stock quantity and restock date of an existing game
@@ -174,30 +131,78 @@ public class InventoryController {
             showAlert("Error", "Please enter a stock quantity and choose a restock date.", Alert.AlertType.ERROR);
             return;
         }
+        int stockQuantity;
+        int gameId;
         try {
-            int stockQuantity = Integer.parseInt(stockQuantityText);
-            updateInventory(stockQuantity, restockDate);
-            showAlert("Success", "Stock updated successfully.", Alert.AlertType.INFORMATION);
+            stockQuantity = Integer.parseInt(stockQuantityText);
+            gameId = Integer.parseInt(gameIdField.getText());
         } catch (NumberFormatException e) {
             showAlert("Error", "Invalid stock quantity. Please enter a valid number.", Alert.AlertType.ERROR);
-        } catch (SQLException e) {
+            return;
+        }
+        DataLoader.run(() -> {
+            updateInventory(gameId, stockQuantity, restockDate);
+            GameSearchIndex.shared().updateStock(gameId, stockQuantity);
+            return null;
+        }, ignored -> showAlert("Success", "Stock updated successfully.", Alert.AlertType.INFORMATION), e -> {
             showAlert("Error", "An error occurred while updating the stock.", Alert.AlertType.ERROR);
             e.printStackTrace();
-        }
+        });
     }
 
     // Update the inventory record in the database
-    private void updateInventory(int stockQuantity, LocalDate restockDate) throws SQLException {
-        String updateStockSql = "UPDATE Inventory SET quantity_in_stock = ?, restock_date = ? WHERE game_id = ?";
+    private void updateInventory(int gameId, int stockQuantity, LocalDate restockDate) throws SQLException {
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement updateStmt = conn.prepareStatement(updateStockSql)) {
+             PreparedStatement updateStmt = conn.prepareStatement(UPDATE_STOCK_SQL)) {
             updateStmt.setInt(1, stockQuantity);
             updateStmt.setDate(2, Date.valueOf(restockDate));
-            updateStmt.setInt(3, Integer.parseInt(gameIdField.getText())); 
+            updateStmt.setInt(3, gameId);
             updateStmt.executeUpdate();
         }
     }
 
+    // Imports a distributor CSV (new games, or game_id restocks) in the background, reporting progress under the form
+    @FXML
+    private void importCatalog() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Catalog CSV");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(importBtn.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        importBtn.setDisable(true);
+        importStatusLabel.setText("Importing " + file.getName() + "...");
+        CatalogImporter importer = new CatalogImporter(CatalogImporter.DEFAULT_CHUNK_SIZE, (read, imported, failed) ->
+                Platform.runLater(() -> importStatusLabel.setText(
+                        String.format("Read %d rows, imported %d, failed %d", read, imported, failed))));
+        DataLoader.run(() -> {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                return importer.importCsv(reader);
+            } finally {
+                // Too many rows to patch in one by one, the games screen rebuilds the index on its next load
+                GameSearchIndex.shared().markStale();
+            }
+        }, result -> {
+            importBtn.setDisable(false);
+            importStatusLabel.setText(String.format("Imported %d of %d rows, %d failed",
+                    result.getRowsImported(), result.getRowsRead(), result.getRowsFailed()));
+            if (result.getRowsFailed() > 0) {
+                StringBuilder details = new StringBuilder();
+                result.getErrors().stream().limit(20).forEach(error -> details.append(error).append('\n'));
+                if (result.getRowsFailed() > 20) {
+                    details.append("... and ").append(result.getRowsFailed() - 20).append(" more");
+                }
+                showAlert("Import Finished With Errors", details.toString(), Alert.AlertType.WARNING);
+            }
+        }, e -> {
+            importBtn.setDisable(false);
+            importStatusLabel.setText("Import failed.");
+            showAlert("Error", "Error while importing the catalog: " + e.getMessage(), Alert.AlertType.ERROR);
+            e.printStackTrace();
+        });
+    }
+
     // Show an alert with a message
     private void showAlert(String title, String message, Alert.AlertType alertType) {
         Alert alert = new Alert(alertType);
@@ -215,4 +220,4 @@ public class InventoryController {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
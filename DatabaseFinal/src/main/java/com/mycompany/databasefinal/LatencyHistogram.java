@@ -0,0 +1,86 @@
+package com.mycompany.databasefinal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free histogram of durations in nanoseconds. Buckets are log-linear, eight per power of two, so any percentile
+// is within about 12% of the true value from 1 microsecond to several minutes, in a fixed 3 KB per histogram
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below 2^10 ns (about a microsecond) share the first buckets; the last bucket holds everything from 2^50 ns
+    private static final int MIN_EXPONENT = 10;
+    private static final int MAX_EXPONENT = 50;
+    // One group of sub-buckets below 2^MIN_EXPONENT, then one per exponent up to MAX_EXPONENT
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - MIN_EXPONENT + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public long getMeanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : sum.get() / n;
+    }
+
+    // Upper edge of the bucket holding the given percentile (0..100), capped at the largest value seen
+    public long getPercentileNanos(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperEdge(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int bucketOf(long value) {
+        int exponent = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (exponent < MIN_EXPONENT) {
+            return (int) (value >>> (MIN_EXPONENT - SUB_BUCKET_BITS));
+        }
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperEdge(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return (long) (bucket + 1) << (MIN_EXPONENT - SUB_BUCKET_BITS);
+        }
+        int exponent = bucket / SUB_BUCKETS + MIN_EXPONENT - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return (1L << exponent) + ((long) (sub + 1) << (exponent - SUB_BUCKET_BITS));
+    }
+}
@@ -0,0 +1,47 @@
+package com.mycompany.databasefinal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable snapshot of a small id/name lookup table (Genres, Platforms) with O(1) lookups in both directions
+public class LookupTable {
+
+    private final Map<String, Integer> idsByName;
+    private final Map<Integer, String> namesById;
+    private final List<String> names;
+    private final long loadedAtMillis;
+
+    public LookupTable(Map<Integer, String> namesById, long loadedAtMillis) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (Map.Entry<Integer, String> entry : namesById.entrySet()) {
+            ids.put(entry.getValue(), entry.getKey());
+        }
+        this.idsByName = Collections.unmodifiableMap(ids);
+        this.namesById = Collections.unmodifiableMap(new HashMap<>(namesById));
+        this.names = Collections.unmodifiableList(new ArrayList<>(namesById.values()));
+        this.loadedAtMillis = loadedAtMillis;
+    }
+
+    // Returns the id for a name, or -1 if the name is unknown
+    public int idOf(String name) {
+        Integer id = idsByName.get(name);
+        return id != null ? id : -1;
+    }
+
+    // Returns the name for an id, or null if the id is unknown
+    public String nameOf(int id) {
+        return namesById.get(id);
+    }
+
+    // All names in the table's id order, for filling combo boxes
+    public List<String> getNames() {
+        return names;
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+}
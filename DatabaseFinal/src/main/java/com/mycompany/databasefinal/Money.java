@@ -0,0 +1,148 @@
+package com.mycompany.databasefinal;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Money as a long count of cents, matching the schema's DECIMAL(10,2) columns exactly. Sums of longs never drift the
+// way doubles do, and nothing here allocates except format. BigDecimal only appears when a value is bound to SQL
+public class Money {
+
+    // Largest DECIMAL(10,2) value, 99,999,999.99
+    public static final long MAX_COLUMN_CENTS = 9_999_999_999L;
+
+    private Money() {
+    }
+
+    // A DECIMAL(10,2) (or a SUM of them) read as cents. The driver's double is the nearest one to the exact value, and
+    // the *100 and round give back the exact cents for any amount below 2^51 cents (about $22 trillion): past that the
+    // error in the double and in the multiply can add up to half a cent. So this is exact without a BigDecimal per row
+    // for every column value and for sums of up to about 225,000 maximum-value rows. MoneyCheck tests the edges
+    public static long cents(ResultSet rs, String column) throws SQLException {
+        return Math.round(rs.getDouble(column) * 100);
+    }
+
+    public static long cents(ResultSet rs, int column) throws SQLException {
+        return Math.round(rs.getDouble(column) * 100);
+    }
+
+    // Binds cents to a DECIMAL parameter
+    public static void set(PreparedStatement stmt, int index, long cents) throws SQLException {
+        stmt.setBigDecimal(index, toBigDecimal(cents));
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // Price times quantity, failing rather than wrapping on overflow
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    // Sum of cents[from..to), a plain long loop the JIT unrolls
+    public static long sum(long[] cents, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += cents[i];
+        }
+        return total;
+    }
+
+    // Parses user or CSV input such as "12", "12.5", "$1,299.99" or "-3.10". More than two decimals is an error
+    // rather than a silent rounding
+    public static long parse(String text) {
+        String s = text.trim();
+        int i = 0;
+        boolean negative = false;
+        if (i < s.length() && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        if (i < s.length() && s.charAt(i) == '$') {
+            i++;
+        }
+        long whole = 0;
+        int digits = 0;
+        for (; i < s.length() && s.charAt(i) != '.'; i++) {
+            char c = s.charAt(i);
+            if (c == ',') {
+                continue;
+            }
+            if (c < '0' || c > '9' || whole > Long.MAX_VALUE / 1000) {
+                throw new NumberFormatException("Invalid amount \"" + text + "\"");
+            }
+            whole = whole * 10 + (c - '0');
+            digits++;
+        }
+        long fraction = 0;
+        int decimals = 0;
+        if (i < s.length()) {
+            for (i++; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9' || decimals == 2) {
+                    throw new NumberFormatException("Invalid amount \"" + text + "\"");
+                }
+                fraction = fraction * 10 + (c - '0');
+                decimals++;
+            }
+        }
+        if (digits == 0 && decimals == 0) {
+            throw new NumberFormatException("Invalid amount \"" + text + "\"");
+        }
+        long cents = whole * 100 + (decimals == 1 ? fraction * 10 : fraction);
+        return negative ? -cents : cents;
+    }
+
+    // "1234.50" style, as a DECIMAL(10,2) prints
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(24), cents, false).toString();
+    }
+
+    // "$1,234.50" style for labels and table cells
+    public static String formatDollars(long cents) {
+        return appendTo(new StringBuilder(24), cents, true).toString();
+    }
+
+    // Appends the amount without going through String.format or BigDecimal
+    public static StringBuilder appendTo(StringBuilder sb, long cents, boolean dollars) {
+        if (cents < 0) {
+            sb.append('-');
+        }
+        if (dollars) {
+            sb.append('$');
+        }
+        // Work in negatives so Long.MIN_VALUE has a representation
+        long negative = cents < 0 ? cents : -cents;
+        long whole = -(negative / 100);
+        int fraction = (int) -(negative % 100);
+        if (dollars) {
+            appendGrouped(sb, whole);
+        } else {
+            sb.append(whole);
+        }
+        sb.append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+
+    private static void appendGrouped(StringBuilder sb, long whole) {
+        if (whole < 1000) {
+            sb.append(whole);
+            return;
+        }
+        appendGrouped(sb, whole / 1000);
+        int group = (int) (whole % 1000);
+        sb.append(',');
+        if (group < 100) {
+            sb.append('0');
+        }
+        if (group < 10) {
+            sb.append('0');
+        }
+        sb.append(group);
+    }
+}
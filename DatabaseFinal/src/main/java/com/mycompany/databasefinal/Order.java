@@ -1,54 +1,55 @@
 package com.mycompany.databasefinal;
 
 import java.time.LocalDate;
-import javafx.beans.property.*;
 
+// One OrderInformation row, immutable and without JavaFX properties
 public class Order {
 
-    private final IntegerProperty orderId;
-    private final StringProperty customerName;
-    private final ObjectProperty<LocalDate> orderDate;
-    private final StringProperty employeeName;
-    private final StringProperty orderType;
-    private final StringProperty gameTitle;
-    private final DoubleProperty totalAmount;
-
-    public Order(int orderId, String customerName, LocalDate orderDate, String employeeName, String orderType, String gameTitle, double totalAmount) {
-        this.orderId = new SimpleIntegerProperty(orderId);
-        this.customerName = new SimpleStringProperty(customerName);
-        this.orderDate = new SimpleObjectProperty<>(orderDate);
-        this.employeeName = new SimpleStringProperty(employeeName);
-        this.orderType = new SimpleStringProperty(orderType);
-        this.gameTitle = new SimpleStringProperty(gameTitle);
-        this.totalAmount = new SimpleDoubleProperty(totalAmount);
-    }
-
-    // Property Getters
-    public IntegerProperty orderIdProperty() {
+    private final int orderId;
+    private final String customerName;
+    private final LocalDate orderDate;
+    private final String employeeName;
+    private final String orderType;
+    private final String gameTitle;
+    private final long totalCents;
+
+    public Order(int orderId, String customerName, LocalDate orderDate, String employeeName, String orderType, String gameTitle, long totalCents) {
+        this.orderId = orderId;
+        this.customerName = customerName;
+        this.orderDate = orderDate;
+        this.employeeName = employeeName;
+        this.orderType = orderType;
+        this.gameTitle = gameTitle;
+        this.totalCents = totalCents;
+    }
+
+    // Getters
+    public int getOrderId() {
         return orderId;
     }
 
-    public StringProperty customerNameProperty() {
+    public String getCustomerName() {
         return customerName;
     }
 
-    public ObjectProperty<LocalDate> orderDateProperty() {
+    public LocalDate getOrderDate() {
         return orderDate;
     }
 
-    public StringProperty employeeNameProperty() {
+    public String getEmployeeName() {
         return employeeName;
     }
 
-    public StringProperty orderTypeProperty() {
+    public String getOrderType() {
         return orderType;
     }
 
-    public StringProperty gameTitleProperty() {
+    public String getGameTitle() {
         return gameTitle;
     }
 
-    public DoubleProperty totalAmountProperty() {
-        return totalAmount;
+    // Total in cents, see Money
+    public long getTotalCents() {
+        return totalCents;
     }
 }
@@ -0,0 +1,337 @@
+package com.mycompany.databasefinal;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Places orders through the InsertOrderWithDetails procedure, which claims stock with a conditional UPDATE inside its
+// own transaction (see game_vault_functions.sql). When InnoDB picks the call as a deadlock victim, or it gives up
+// waiting for a row lock, the procedure has already rolled everything back, so the whole call is run again after a
+// short randomized pause, up to -Dgamevault.orders.maxAttempts times (5 by default). Business errors such as
+// "Not enough stock" (SQLSTATE 45000) are never retried.
+//
+// placeCartOrder is the multi-game version: one Orders row, one OrderDetails row per game, one Payments row and every
+// stock change in a single transaction run from here with batched statements, so a five-game checkout is a handful of
+// round trips instead of five procedure calls, five orders and five payments. It follows the same rules as the procedure,
+// including the amount paid: the order's total after CheckOrderBeforeInsert's member discount (OrderPathCheck in the
+// benchmarks module compares the two paths)
+public class OrderService {
+
+    private static final int MAX_ATTEMPTS = Math.max(1, Integer.getInteger("gamevault.orders.maxAttempts", 5));
+    private static final String SQL = "{CALL InsertOrderWithDetails(?, ?, ?, ?, ?, ?, ?)}";
+    // Largest cart accepted, keeps the IN lists and batches to a sensible size
+    public static final int MAX_CART_LINES = 100;
+    // Rentals have a fixed fee per game, as in InsertOrderWithDetails
+    private static final long RENTAL_FEE_CENTS = 665;
+    public static final String CLAIM_STOCK_SQL =
+            "UPDATE Inventory SET quantity_in_stock = quantity_in_stock - ? WHERE game_id = ? AND quantity_in_stock >= ?";
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO Orders (customer_id, order_date, order_type, total_amount) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_DETAIL_SQL =
+            "INSERT INTO OrderDetails (order_id, game_id, employee_id, quantity, unit_price) VALUES (?, ?, ?, ?, ?)";
+    // Pays the order's total as stored, after CheckOrderBeforeInsert applied any member discount. The order_date lets a
+    // month-partitioned Orders table look in one partition only
+    public static final String INSERT_PAYMENT_SQL = "INSERT INTO Payments (order_id, payment_date, payment_method, amount_paid) "
+            + "SELECT order_id, ?, ?, total_amount FROM Orders WHERE order_id = ? AND order_date = ?";
+    private static final String INSERT_RENTAL_SQL =
+            "INSERT INTO Rentals (customer_id, game_id, employee_id, received_date, rental_fee) VALUES (?, ?, ?, ?, ?)";
+    // MySQL error codes for a deadlock and a lock wait timeout
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+
+    private static final AtomicLong RETRIES = new AtomicLong();
+
+    private OrderService() {
+    }
+
+    // Places one order on a pooled connection
+    public static void placeOrder(int customerId, int employeeId, String orderType, String paymentMethod,
+                                  LocalDate orderDate, int gameId, int quantity) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            placeOrder(conn, customerId, employeeId, orderType, paymentMethod, orderDate, gameId, quantity);
+        }
+    }
+
+    // Places one order on the given connection, which must be in auto-commit mode (the procedure commits itself)
+    public static void placeOrder(Connection conn, int customerId, int employeeId, String orderType, String paymentMethod,
+                                  LocalDate orderDate, int gameId, int quantity) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try (CallableStatement cs = conn.prepareCall(SQL)) {
+                cs.setInt(1, customerId);
+                cs.setInt(2, employeeId);
+                cs.setString(3, orderType);
+                cs.setString(4, paymentMethod);
+                cs.setDate(5, Date.valueOf(orderDate));
+                cs.setInt(6, gameId);
+                cs.setInt(7, quantity);
+                cs.execute();
+                return;
+            } catch (SQLException e) {
+                if (attempt >= MAX_ATTEMPTS || !isRetryable(e)) {
+                    throw e;
+                }
+                RETRIES.incrementAndGet();
+                backOff(attempt);
+            }
+        }
+    }
+
+    // Places a cart on a pooled connection and returns the new order_id
+    public static int placeCartOrder(int customerId, int employeeId, String orderType, String paymentMethod,
+                                     LocalDate orderDate, List<LineItem> items) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection("OrderService.cart")) {
+            return placeCartOrder(conn, customerId, employeeId, orderType, paymentMethod, orderDate, items);
+        }
+    }
+
+    // Places a cart as one order on the given connection and returns the new order_id. Lines for the same game are
+    // merged. The connection is left in auto-commit mode whatever happens
+    public static int placeCartOrder(Connection conn, int customerId, int employeeId, String orderType, String paymentMethod,
+                                     LocalDate orderDate, List<LineItem> items) throws SQLException {
+        Map<Integer, Integer> lines = mergeLines(items);
+        for (int attempt = 1; ; attempt++) {
+            conn.setAutoCommit(false);
+            try {
+                int orderId = insertCart(conn, customerId, employeeId, orderType, paymentMethod, orderDate, lines);
+                conn.commit();
+                return orderId;
+            } catch (SQLException e) {
+                rollbackQuietly(conn);
+                if (attempt >= MAX_ATTEMPTS || !isRetryable(e)) {
+                    throw e;
+                }
+                RETRIES.incrementAndGet();
+                backOff(attempt);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Game id to total quantity, sorted by game id: every cart claims its Inventory (and GameSales) rows in the same
+    // order, so two carts sharing games queue behind each other instead of deadlocking
+    private static Map<Integer, Integer> mergeLines(List<LineItem> items) throws SQLException {
+        if (items == null || items.isEmpty()) {
+            throw new SQLException("The cart is empty.", "45000");
+        }
+        Map<Integer, Integer> lines = new TreeMap<>();
+        for (LineItem item : items) {
+            if (item.getQuantity() < 1) {
+                throw new SQLException("Quantity must be at least 1.", "45000");
+            }
+            lines.merge(item.getGameId(), item.getQuantity(), Math::addExact);
+        }
+        if (lines.size() > MAX_CART_LINES) {
+            throw new SQLException("A cart can hold at most " + MAX_CART_LINES + " different games.", "45000");
+        }
+        return lines;
+    }
+
+    // One attempt at the whole cart, inside the caller's transaction
+    private static int insertCart(Connection conn, int customerId, int employeeId, String orderType, String paymentMethod,
+                                  LocalDate orderDate, Map<Integer, Integer> lines) throws SQLException {
+        boolean rental = "Rental".equals(orderType);
+        // Prices are read before any row is locked, keeping the lock hold time down to the writes below
+        Map<Integer, Long> prices = readPrices(conn, lines.keySet());
+        if (rental) {
+            checkStockShared(conn, lines);
+        } else {
+            claimStock(conn, lines);
+        }
+        long total = 0;
+        for (Map.Entry<Integer, Integer> line : lines.entrySet()) {
+            total = Math.addExact(total, rental ? RENTAL_FEE_CENTS : Money.times(prices.get(line.getKey()), line.getValue()));
+        }
+        Date date = Date.valueOf(orderDate);
+        int orderId;
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_ORDER_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, customerId);
+            stmt.setDate(2, date);
+            stmt.setString(3, orderType);
+            Money.set(stmt, 4, total);
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                keys.next();
+                orderId = keys.getInt(1);
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_DETAIL_SQL)) {
+            for (Map.Entry<Integer, Integer> line : lines.entrySet()) {
+                stmt.setInt(1, orderId);
+                stmt.setInt(2, line.getKey());
+                stmt.setInt(3, employeeId);
+                stmt.setInt(4, line.getValue());
+                Money.set(stmt, 5, prices.get(line.getKey()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_PAYMENT_SQL)) {
+            stmt.setDate(1, date);
+            stmt.setString(2, paymentMethod);
+            stmt.setInt(3, orderId);
+            stmt.setDate(4, date);
+            stmt.executeUpdate();
+        }
+        if (rental) {
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_RENTAL_SQL)) {
+                for (Map.Entry<Integer, Integer> line : lines.entrySet()) {
+                    stmt.setInt(1, customerId);
+                    stmt.setInt(2, line.getKey());
+                    stmt.setInt(3, employeeId);
+                    stmt.setDate(4, date);
+                    Money.set(stmt, 5, prices.get(line.getKey()));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+        return orderId;
+    }
+
+    // The price lookup and rental stock check for a cart of that many different games, also EXPLAINed by QueryPlanCheck
+    public static String pricesSql(int games) {
+        return "SELECT game_id, price FROM Games WHERE game_id IN " + placeholders(games);
+    }
+
+    public static String rentalStockSql(int games) {
+        return "SELECT game_id, quantity_in_stock FROM Inventory WHERE game_id IN " + placeholders(games) + " ORDER BY game_id FOR SHARE";
+    }
+
+    // All the cart's prices in one query
+    private static Map<Integer, Long> readPrices(Connection conn, Iterable<Integer> gameIds) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        gameIds.forEach(ids::add);
+        Map<Integer, Long> prices = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(pricesSql(ids.size()))) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    prices.put(rs.getInt("game_id"), Money.cents(rs, "price"));
+                }
+            }
+        }
+        for (int id : ids) {
+            if (!prices.containsKey(id)) {
+                throw new SQLException("Game " + id + " does not exist.", "45000");
+            }
+        }
+        return prices;
+    }
+
+    // Takes the purchased units off the shelf with one batch of conditional UPDATEs; a line that matched nothing means
+    // the game ran out (or has no inventory row) and the whole cart is rolled back
+    private static void claimStock(Connection conn, Map<Integer, Integer> lines) throws SQLException {
+        List<Integer> ids = new ArrayList<>(lines.keySet());
+        int[] counts;
+        try (PreparedStatement stmt = conn.prepareStatement(CLAIM_STOCK_SQL)) {
+            for (int id : ids) {
+                int quantity = lines.get(id);
+                stmt.setInt(1, quantity);
+                stmt.setInt(2, id);
+                stmt.setInt(3, quantity);
+                stmt.addBatch();
+            }
+            counts = stmt.executeBatch();
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new SQLException("Not enough stock available for game " + ids.get(i) + ".", "45000");
+            }
+        }
+    }
+
+    // Rentals don't take stock, they only need some on the shelf: a shared lock keeps it there until the commit
+    private static void checkStockShared(Connection conn, Map<Integer, Integer> lines) throws SQLException {
+        List<Integer> ids = new ArrayList<>(lines.keySet());
+        Map<Integer, Integer> stock = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(rentalStockSql(ids.size()))) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    stock.put(rs.getInt("game_id"), rs.getInt("quantity_in_stock"));
+                }
+            }
+        }
+        for (int id : ids) {
+            if (stock.getOrDefault(id, 0) < lines.get(id)) {
+                throw new SQLException("Not enough stock available for game " + id + ".", "45000");
+            }
+        }
+    }
+
+    private static String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            // The original error is the one worth reporting; a broken connection is dropped by the pool
+        }
+    }
+
+    // Deadlocks and lock wait timeouts are transient: the transaction was rolled back and can simply run again
+    public static boolean isRetryable(SQLException e) {
+        return e instanceof SQLTransactionRollbackException || "40001".equals(e.getSQLState())
+                || e.getErrorCode() == ER_LOCK_DEADLOCK || e.getErrorCode() == ER_LOCK_WAIT_TIMEOUT;
+    }
+
+    // Times an order was run again after a deadlock or lock wait timeout, since startup
+    public static long getRetryCount() {
+        return RETRIES.get();
+    }
+
+    // Randomized so the transactions that just collided don't collide again in lock step
+    private static void backOff(int attempt) throws SQLException {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 10L << Math.min(attempt, 5)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while retrying an order", e);
+        }
+    }
+
+    // One game and how many copies of it go in a cart
+    public static class LineItem {
+        private final int gameId;
+        private final int quantity;
+
+        public LineItem(int gameId, int quantity) {
+            this.gameId = gameId;
+            this.quantity = quantity;
+        }
+
+        public int getGameId() {
+            return gameId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public String toString() {
+            return "Game " + gameId + " x " + quantity;
+        }
+    }
+}
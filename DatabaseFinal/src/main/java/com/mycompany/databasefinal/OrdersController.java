@@ -3,14 +3,14 @@ package com.mycompany.databasefinal;
 import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
-import javafx.beans.property.*;
+import java.util.ArrayList;
+import java.util.List;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.Region;
 
-public class OrdersController {
+public class OrdersController implements SceneLifecycle {
 
     @FXML private TextField gameIdField;
     @FXML private TextField customerIdField;
@@ -28,15 +28,23 @@ public class OrdersController {
     @FXML private TableColumn<Order, String> employeeNameCol;
     @FXML private TableColumn<Order, String> orderTypeCol;
     @FXML private TableColumn<Order, String> gameTitleCol;
-    @FXML private TableColumn<Order, Double> totalAmountCol;
-    private ObservableList<Order> orderList = FXCollections.observableArrayList();
+    @FXML private TableColumn<Order, Long> totalAmountCol;
+    @FXML private ListView<OrderService.LineItem> cartList;
+    private PagedTableLoader<Order> orderPager;
 
     public void initialize() {
         setupComboBoxes();
         setupTableColumns();
+        setupPaging();
         fetchOrders();
     }
 
+    // Back from the cache: fetches orders placed since the last visit if the window already reached the end
+    @Override
+    public void onShow() {
+        orderPager.refresh();
+    }
+
     // Set up the order and payment ComboBoxes
     private void setupComboBoxes() {
         orderTypeCombo.setItems(FXCollections.observableArrayList("Purchase", "Rental"));
@@ -45,38 +53,31 @@ public class OrdersController {
 
     // Set up the TableView columns
     private void setupTableColumns() {
-        orderIdCol.setCellValueFactory(data -> data.getValue().orderIdProperty().asObject());
-        customerNameCol.setCellValueFactory(data -> data.getValue().customerNameProperty());
-        orderDateCol.setCellValueFactory(data -> data.getValue().orderDateProperty());
-        employeeNameCol.setCellValueFactory(data -> data.getValue().employeeNameProperty());
-        orderTypeCol.setCellValueFactory(data -> data.getValue().orderTypeProperty());
-        gameTitleCol.setCellValueFactory(data -> data.getValue().gameTitleProperty());
-        totalAmountCol.setCellValueFactory(data -> data.getValue().totalAmountProperty().asObject());
+        orderIdCol.setCellValueFactory(TableCells.value(Order::getOrderId));
+        customerNameCol.setCellValueFactory(TableCells.value(Order::getCustomerName));
+        orderDateCol.setCellValueFactory(TableCells.value(Order::getOrderDate));
+        employeeNameCol.setCellValueFactory(TableCells.value(Order::getEmployeeName));
+        orderTypeCol.setCellValueFactory(TableCells.value(Order::getOrderType));
+        gameTitleCol.setCellValueFactory(TableCells.value(Order::getGameTitle));
+        totalAmountCol.setCellValueFactory(TableCells.value(Order::getTotalCents));
+        totalAmountCol.setCellFactory(TableCells.money());
     }
 
-    // Queries the OrderInformation view to supply the ordersTable with all order records and their information
+    // Pages the OrderInformation view into the ordersTable by order_id, the server sorts when a column header is clicked
+    private void setupPaging() {
+        orderPager = new PagedTableLoader<>(this, ordersTable, "OrderInformation", "order_id", RowMappers::order, Order::getOrderId)
+                .sortable(orderIdCol, "order_id", Order::getOrderId)
+                .sortable(customerNameCol, "customer_name", Order::getCustomerName)
+                .sortable(orderDateCol, "order_date", Order::getOrderDate)
+                .sortable(employeeNameCol, "employee_name", Order::getEmployeeName)
+                .sortable(orderTypeCol, "order_type", Order::getOrderType)
+                .sortable(gameTitleCol, "game_title", Order::getGameTitle)
+                .sortable(totalAmountCol, "total_amount", order -> Money.toBigDecimal(order.getTotalCents()));
+    }
+
+    // Queries the OrderInformation view to supply the ordersTable with its first page of order records
     private void fetchOrders() {
-        orderList.clear();
-        String sql = "SELECT * FROM OrderInformation";  // Using the OrderInformation view
-        try (Connection conn = DatabaseUtil.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                Order order = new Order(
-                        rs.getInt("order_id"),
-                        rs.getString("customer_name"),
-                        rs.getDate("order_date").toLocalDate(),
-                        rs.getString("employee_name"),
-                        rs.getString("order_type"),
-                        rs.getString("game_title"),
-                        rs.getDouble("total_amount")
-                );
-                orderList.add(order);
-            }
-            ordersTable.setItems(orderList);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        orderPager.reload();
     }
 
     @FXML
@@ -88,31 +89,67 @@ public class OrdersController {
         }
     }
 
-    // Calls the InsertOrderWithDetails stored procedure within the database to insert a new order and update the database's tables accordingly
+    // Puts the game and quantity from the fields in the cart, so several games can go through as one order
+    @FXML
+    private void addToCart() {
+        try {
+            int gameId = Integer.parseInt(gameIdField.getText());
+            int quantity = Integer.parseInt(quantityField.getText());
+            if (quantity < 1) {
+                throw new NumberFormatException("quantity");
+            }
+            cartList.getItems().add(new OrderService.LineItem(gameId, quantity));
+        } catch (NumberFormatException e) {
+            showErrorDialog("Please enter a game ID and a quantity of at least 1.");
+            return;
+        }
+        gameIdField.clear();
+        quantityField.clear();
+    }
+
+    @FXML
+    private void clearCart() {
+        cartList.getItems().clear();
+    }
+
+    // Places the cart as one order (OrderService.placeCartOrder, one transaction), or with an empty cart the single game
+    // in the fields through the InsertOrderWithDetails procedure. Both are retried on deadlock; the table is refreshed after
     @FXML
     private void insertOrder() {
-        String sql = "{CALL InsertOrderWithDetails(?, ?, ?, ?, ?, ?, ?)}";
-        try (Connection conn = DatabaseUtil.getConnection(); 
-             CallableStatement cs = conn.prepareCall(sql)) {
-            cs.setInt(1, Integer.parseInt(customerIdField.getText()));
-            cs.setInt(2, Integer.parseInt(employeeIdField.getText()));
-            cs.setString(3, orderTypeCombo.getValue());
-            cs.setString(4, paymentMethodCombo.getValue());
-            cs.setDate(5, Date.valueOf(orderDatePicker.getValue()));
-            cs.setInt(6, Integer.parseInt(gameIdField.getText()));
-            cs.setInt(7, Integer.parseInt(quantityField.getText()));
-            cs.execute();
-            fetchOrders(); // Refresh the TableView with the new data
-        } catch (SQLException e) {
-            handleDatabaseError(e);
+        int customerId, employeeId, gameId, quantity;
+        String orderType = orderTypeCombo.getValue();
+        String paymentMethod = paymentMethodCombo.getValue();
+        LocalDate orderDate = orderDatePicker.getValue();
+        List<OrderService.LineItem> cart = new ArrayList<>(cartList.getItems());
+        try {
+            customerId = Integer.parseInt(customerIdField.getText());
+            employeeId = Integer.parseInt(employeeIdField.getText());
+            gameId = cart.isEmpty() ? Integer.parseInt(gameIdField.getText()) : 0;
+            quantity = cart.isEmpty() ? Integer.parseInt(quantityField.getText()) : 0;
+            if (orderDate == null) {
+                throw new NullPointerException("orderDate");
+            }
         } catch (NumberFormatException | NullPointerException e) {
             showErrorDialog("Please ensure all fields are filled out correctly.");
+            return;
+        }
+        if (cart.isEmpty()) {
+            DataLoader.run(() -> {
+                OrderService.placeOrder(customerId, employeeId, orderType, paymentMethod, orderDate, gameId, quantity);
+                return null;
+            }, ignored -> fetchOrders(), this::handleDatabaseError); // Refresh the TableView with the new data
+            return;
         }
+        DataLoader.run(() -> OrderService.placeCartOrder(customerId, employeeId, orderType, paymentMethod, orderDate, cart),
+                orderId -> {
+                    cartList.getItems().clear();
+                    fetchOrders();
+                }, this::handleDatabaseError);
     }
 
     // Handles errors that have been sent directly from the database
-    private void handleDatabaseError(SQLException e) {
-        if ("45000".equals(e.getSQLState())) {
+    private void handleDatabaseError(Throwable e) {
+        if (e instanceof SQLException && "45000".equals(((SQLException) e).getSQLState())) {
             showErrorDialog(e.getMessage());
         } else {
             e.printStackTrace();
@@ -130,4 +167,4 @@ public class OrdersController {
         alert.getDialogPane().setMinHeight(Region.USE_PREF_SIZE); 
         alert.showAndWait();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
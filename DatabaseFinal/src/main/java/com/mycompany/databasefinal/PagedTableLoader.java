@@ -0,0 +1,364 @@
+package com.mycompany.databasefinal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+// Feeds a TableView from a table or view one page at a time using keyset paging (WHERE key > last key ORDER BY key LIMIT n).
+// Pages are fetched as the user scrolls toward either end, and only maxRows rows are kept in memory at once
+public class PagedTableLoader<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_MAX_ROWS = 1000;
+    // How close to either end of the scroll range (0..1) the user must get before the next page is fetched
+    private static final double FETCH_THRESHOLD = 0.05;
+
+    private final Object owner;
+    private final TableView<T> table;
+    private final String source;
+    private final String keyColumn;
+    private final RowMapper<T> mapper;
+    private final Function<T, Object> keyOf;
+    private final int pageSize;
+    private final int maxRows;
+    private final Map<TableColumn<T, ?>, SortKey<T>> sortKeys = new HashMap<>();
+    private final ObservableList<T> rows = FXCollections.observableArrayList();
+
+    private String filterSql;
+    private List<Object> filterParams = Collections.emptyList();
+    private SortKey<T> sortKey;
+    private boolean ascending = true;
+    private boolean hasMoreBefore;
+    private boolean hasMoreAfter;
+    private boolean loading;
+    // Set when a reload was cancelled (the user left the screen), so the window doesn't reflect the current sort/filter
+    private boolean incomplete;
+    private int generation;
+    private Runnable onReloaded;
+    private VirtualFlow<?> flow;
+
+    public PagedTableLoader(Object owner, TableView<T> table, String source, String keyColumn,
+                            RowMapper<T> mapper, Function<T, Object> keyOf) {
+        this(owner, table, source, keyColumn, mapper, keyOf, DEFAULT_PAGE_SIZE, DEFAULT_MAX_ROWS);
+    }
+
+    public PagedTableLoader(Object owner, TableView<T> table, String source, String keyColumn,
+                            RowMapper<T> mapper, Function<T, Object> keyOf, int pageSize, int maxRows) {
+        if (maxRows < pageSize * 2) {
+            throw new IllegalArgumentException("maxRows must hold at least two pages");
+        }
+        this.owner = owner;
+        this.table = table;
+        this.source = source;
+        this.keyColumn = keyColumn;
+        this.mapper = mapper;
+        this.keyOf = keyOf;
+        this.pageSize = pageSize;
+        this.maxRows = maxRows;
+        // Columns are only sortable once registered with sortable(), the database does the sorting
+        for (TableColumn<T, ?> column : table.getColumns()) {
+            column.setSortable(false);
+        }
+        table.setSortPolicy(t -> {
+            applyTableSortOrder();
+            return true;
+        });
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> attachScrollListener());
+        attachScrollListener();
+    }
+
+    // Lets the user sort on a column; the SQL column must be NOT NULL so keyset comparisons stay well defined
+    public <V> PagedTableLoader<T> sortable(TableColumn<T, V> column, String sqlColumn, Function<T, Object> valueOf) {
+        sortKeys.put(column, new SortKey<>(sqlColumn, valueOf));
+        column.setSortable(true);
+        return this;
+    }
+
+    // Restricts the rows to a WHERE condition (without the WHERE keyword), e.g. "payment_date BETWEEN ? AND ?"
+    public void setFilter(String condition, List<Object> params) {
+        this.filterSql = condition;
+        this.filterParams = params == null ? Collections.emptyList() : new ArrayList<>(params);
+    }
+
+    // Runs after every full reload, e.g. to update a row count label
+    public void setOnReloaded(Runnable onReloaded) {
+        this.onReloaded = onReloaded;
+    }
+
+    // Rows currently held in memory (the visible window), in display order
+    public ObservableList<T> getRows() {
+        return rows;
+    }
+
+    // Applies a single changed row without re-querying: replaces the row with the same key if it is in the window.
+    // A row that isn't loaded is appended only when the window already shows the end of the default key order
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void upsert(T row) {
+        Object key = keyOf.apply(row);
+        for (int i = 0; i < rows.size(); i++) {
+            if (key.equals(keyOf.apply(rows.get(i)))) {
+                rows.set(i, row);
+                return;
+            }
+        }
+        if (loading || hasMoreAfter || sortKey != null || !ascending) {
+            return; // It will show up when the user pages or sorts to it
+        }
+        if (!rows.isEmpty() && ((Comparable) key).compareTo(keyOf.apply(rows.get(rows.size() - 1))) < 0) {
+            return;
+        }
+        rows.add(row);
+        if (rows.size() > maxRows) {
+            rows.remove(0, rows.size() - maxRows);
+            hasMoreBefore = true;
+        }
+    }
+
+    // Drops the row with this key from the window if it is loaded, for a row deleted from the database
+    public void remove(Object key) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (key.equals(keyOf.apply(rows.get(i)))) {
+                rows.remove(i);
+                return;
+            }
+        }
+    }
+
+    // Brings the window up to date when a cached screen is shown again. A window left incomplete by a cancelled load is
+    // reloaded; one that already reaches the end of the sort order fetches only the rows that now follow its last row.
+    // Anywhere else nothing is queried, new rows show up as the user scrolls to them
+    public void refresh() {
+        if (loading) {
+            return;
+        }
+        if (incomplete || rows.isEmpty()) {
+            reload();
+        } else if (!hasMoreAfter) {
+            hasMoreAfter = true;
+            loadNext();
+        }
+    }
+
+    // Drops the current window and loads the first page for the current sort and filter
+    public void reload() {
+        int gen = ++generation;
+        loading = true;
+        DataLoader.load(owner, table, () -> fetch(null, true), page -> {
+            if (gen != generation) {
+                return;
+            }
+            loading = false;
+            incomplete = false;
+            rows.setAll(page);
+            hasMoreBefore = false;
+            hasMoreAfter = page.size() == pageSize;
+            table.setItems(rows);
+            table.scrollTo(0);
+            if (onReloaded != null) {
+                onReloaded.run();
+            }
+        }, e -> {
+            if (gen == generation) {
+                loading = false;
+                table.setItems(rows);
+            }
+            e.printStackTrace();
+        }, () -> {
+            if (gen == generation) {
+                loading = false;
+                incomplete = true;
+                table.setItems(rows);
+            }
+        });
+    }
+
+    // Appends the page after the last row in memory, trimming the oldest rows once the window is full
+    private void loadNext() {
+        if (loading || !hasMoreAfter || rows.isEmpty()) {
+            return;
+        }
+        int gen = generation;
+        T last = rows.get(rows.size() - 1);
+        loading = true;
+        DataLoader.load(owner, () -> fetch(last, true), page -> {
+            if (gen != generation) {
+                return;
+            }
+            loading = false;
+            hasMoreAfter = page.size() == pageSize;
+            int firstVisible = firstVisibleIndex();
+            rows.addAll(page);
+            int overflow = rows.size() - maxRows;
+            if (overflow > 0) {
+                rows.remove(0, overflow);
+                hasMoreBefore = true;
+                table.scrollTo(Math.max(0, firstVisible - overflow));
+            }
+        }, this::pageFailed, () -> pageCancelled(gen));
+    }
+
+    // Prepends the page before the first row in memory, trimming the newest rows once the window is full
+    private void loadPrevious() {
+        if (loading || !hasMoreBefore || rows.isEmpty()) {
+            return;
+        }
+        int gen = generation;
+        T first = rows.get(0);
+        loading = true;
+        DataLoader.load(owner, () -> fetch(first, false), page -> {
+            if (gen != generation) {
+                return;
+            }
+            loading = false;
+            hasMoreBefore = page.size() == pageSize;
+            int firstVisible = firstVisibleIndex();
+            rows.addAll(0, page);
+            int overflow = rows.size() - maxRows;
+            if (overflow > 0) {
+                rows.remove(rows.size() - overflow, rows.size());
+                hasMoreAfter = true;
+            }
+            table.scrollTo(firstVisible + page.size());
+        }, this::pageFailed, () -> pageCancelled(gen));
+    }
+
+    private void pageFailed(Throwable e) {
+        loading = false;
+        e.printStackTrace();
+    }
+
+    // Without this a page cancelled by navigation would leave loading set and block paging once the screen is back
+    private void pageCancelled(int gen) {
+        if (gen == generation) {
+            loading = false;
+        }
+    }
+
+    // Runs on a background worker. Fetches the page after (forward) or before (backward) the anchor row, or the first page when anchor is null
+    private List<T> fetch(T anchor, boolean forward) throws SQLException {
+        SortKey<T> sort = sortKey;
+        boolean asc = ascending == forward; // Walking backwards flips the comparison and the ORDER BY
+        String sql = pageSql(source, keyColumn, filterSql, sort != null ? sort.sqlColumn : null, asc, anchor != null);
+        List<Object> params = new ArrayList<>(filterParams);
+        if (anchor != null) {
+            Object key = keyOf.apply(anchor);
+            if (sort != null) {
+                Object value = sort.valueOf.apply(anchor);
+                params.add(value);
+                params.add(value);
+            }
+            params.add(key);
+        }
+        params.add(pageSize);
+
+        List<T> page = new ArrayList<>(pageSize);
+        try (Connection conn = DatabaseUtil.getConnection(owner.getClass().getSimpleName() + ".page " + source);
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapper.map(rs));
+                }
+            }
+        }
+        if (!forward) {
+            Collections.reverse(page);
+        }
+        return page;
+    }
+
+    // The page query for source: optional filter, then for a page after an anchor row the keyset condition on
+    // (sortColumn, keyColumn), or keyColumn alone when sortColumn is null. Parameters are the filter's, then the anchor's
+    // sort value twice and key (just the key when unsorted), then the page size. Public so QueryPlanCheck can EXPLAIN
+    // exactly what the screens send
+    public static String pageSql(String source, String keyColumn, String filterSql, String sortColumn, boolean ascending,
+                                 boolean afterAnchor) {
+        String cmp = ascending ? ">" : "<";
+        String dir = ascending ? "ASC" : "DESC";
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(source);
+        List<String> conditions = new ArrayList<>();
+        if (filterSql != null) {
+            conditions.add("(" + filterSql + ")");
+        }
+        if (afterAnchor) {
+            conditions.add(sortColumn == null
+                    ? keyColumn + " " + cmp + " ?"
+                    : "(" + sortColumn + " " + cmp + " ? OR (" + sortColumn + " = ? AND " + keyColumn + " " + cmp + " ?))");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ");
+        if (sortColumn != null) {
+            sql.append(sortColumn).append(' ').append(dir).append(", ");
+        }
+        return sql.append(keyColumn).append(' ').append(dir).append(" LIMIT ?").toString();
+    }
+
+    // Called by the TableView when the user clicks a column header
+    private void applyTableSortOrder() {
+        SortKey<T> requested = null;
+        boolean requestedAscending = true;
+        if (!table.getSortOrder().isEmpty()) {
+            TableColumn<T, ?> column = table.getSortOrder().get(0);
+            requested = sortKeys.get(column);
+            requestedAscending = column.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+        if (requested == sortKey && requestedAscending == ascending) {
+            return; // Nothing changed, e.g. the items list was just replaced
+        }
+        sortKey = requested;
+        ascending = requestedAscending;
+        reload();
+    }
+
+    private void attachScrollListener() {
+        VirtualFlow<?> found = (VirtualFlow<?>) table.lookup(".virtual-flow");
+        if (found == null || found == flow) {
+            return;
+        }
+        flow = found;
+        flow.positionProperty().addListener((obs, oldPos, newPos) -> {
+            double pos = newPos.doubleValue();
+            if (pos >= 1 - FETCH_THRESHOLD && pos > oldPos.doubleValue()) {
+                loadNext();
+            } else if (pos <= FETCH_THRESHOLD && pos < oldPos.doubleValue()) {
+                loadPrevious();
+            }
+        });
+    }
+
+    private int firstVisibleIndex() {
+        if (flow == null) {
+            return 0;
+        }
+        IndexedCell<?> cell = flow.getFirstVisibleCell();
+        return cell == null ? 0 : cell.getIndex();
+    }
+
+    // A sortable column: its SQL name and how to read the same value from a loaded row for the keyset condition
+    private static final class SortKey<T> {
+        private final String sqlColumn;
+        private final Function<T, Object> valueOf;
+
+        private SortKey(String sqlColumn, Function<T, Object> valueOf) {
+            this.sqlColumn = sqlColumn;
+            this.valueOf = valueOf;
+        }
+    }
+}
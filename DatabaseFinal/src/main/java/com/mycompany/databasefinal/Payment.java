@@ -1,63 +1,44 @@
 package com.mycompany.databasefinal;
 
-import javafx.beans.property.*;
 import java.time.LocalDate;
 
+// One Payments row, immutable and without JavaFX properties
 public class Payment {
 
-    private final IntegerProperty paymentId = new SimpleIntegerProperty();
-    private final ObjectProperty<LocalDate> paymentDate = new SimpleObjectProperty<>();
-    private final StringProperty paymentMethod = new SimpleStringProperty();
-    private final DoubleProperty amountPaid = new SimpleDoubleProperty();
-    private final IntegerProperty orderId = new SimpleIntegerProperty();
+    private final int paymentId;
+    private final LocalDate paymentDate;
+    private final String paymentMethod;
+    private final long amountCents;
+    private final int orderId;
 
     // Constructor
-    public Payment(int paymentId, LocalDate paymentDate, String paymentMethod, double amountPaid, int orderId) {
-        setPaymentId(paymentId);
-        setPaymentDate(paymentDate);
-        setPaymentMethod(paymentMethod);
-        setAmountPaid(amountPaid);
-        setOrderId(orderId);
+    public Payment(int paymentId, LocalDate paymentDate, String paymentMethod, long amountCents, int orderId) {
+        this.paymentId = paymentId;
+        this.paymentDate = paymentDate;
+        this.paymentMethod = paymentMethod;
+        this.amountCents = amountCents;
+        this.orderId = orderId;
     }
 
-    // Payment ID
+    // Getters
     public int getPaymentId() {
-        return paymentId.get();
-    }
-
-    public void setPaymentId(int value) {
-        paymentId.set(value);
+        return paymentId;
     }
 
     public LocalDate getPaymentDate() {
-        return paymentDate.get();
-    }
-
-    public void setPaymentDate(LocalDate value) {
-        paymentDate.set(value);
+        return paymentDate;
     }
 
     public String getPaymentMethod() {
-        return paymentMethod.get();
-    }
-
-    public void setPaymentMethod(String value) {
-        paymentMethod.set(value);
-    }
-
-    public double getAmountPaid() {
-        return amountPaid.get();
+        return paymentMethod;
     }
 
-    public void setAmountPaid(double value) {
-        amountPaid.set(value);
+    // Amount in cents, see Money
+    public long getAmountCents() {
+        return amountCents;
     }
 
     public int getOrderId() {
-        return orderId.get();
-    }
-
-    public void setOrderId(int value) {
-        orderId.set(value);
+        return orderId;
     }
 }
@@ -0,0 +1,133 @@
+package com.mycompany.databasefinal;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Payment totals read from the DailyPaymentTotals rollup (migrations/V5), which triggers keep current as payments are
+// written. A date range reads one row per day, method and slot instead of every payment in it, so the chart costs the
+// same for a busy month as for a quiet one; the client receives one row per payment method. Groupings the rollup doesn't
+// keep are computed from the in-memory columns in AnalyticsStore instead
+public class PaymentAnalytics {
+
+    public static final String ALL_PAYMENTS_SQL =
+            "SELECT payment_method, SUM(payment_count) AS payment_count, SUM(amount_total) AS amount_total "
+            + "FROM DailyPaymentTotals GROUP BY payment_method HAVING SUM(payment_count) > 0 ORDER BY payment_method";
+    public static final String DATE_RANGE_SQL =
+            "SELECT payment_method, SUM(payment_count) AS payment_count, SUM(amount_total) AS amount_total "
+            + "FROM DailyPaymentTotals WHERE payment_date BETWEEN ? AND ? "
+            + "GROUP BY payment_method HAVING SUM(payment_count) > 0 ORDER BY payment_method";
+
+    private PaymentAnalytics() {
+    }
+
+    // Totals per payment method between startDate and endDate inclusive, or over all payments when either date is null
+    public static Summary summarize(LocalDate startDate, LocalDate endDate) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            return summarize(conn, startDate, endDate);
+        }
+    }
+
+    // Same as above on a connection the caller owns (e.g. the benchmark module's embedded database)
+    public static Summary summarize(Connection conn, LocalDate startDate, LocalDate endDate) throws SQLException {
+        boolean ranged = startDate != null && endDate != null;
+        Map<String, MethodTotal> byMethod = new LinkedHashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(ranged ? DATE_RANGE_SQL : ALL_PAYMENTS_SQL)) {
+            if (ranged) {
+                stmt.setDate(1, Date.valueOf(startDate));
+                stmt.setDate(2, Date.valueOf(endDate));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String method = rs.getString("payment_method");
+                    byMethod.put(method, new MethodTotal(method, rs.getLong("payment_count"), Money.cents(rs, "amount_total")));
+                }
+            }
+        }
+        return new Summary(byMethod);
+    }
+
+    // Totals per order type between startDate and endDate inclusive (all payments when either date is null), from the
+    // in-memory columns: each payment's order type comes through its order_id. Catches the columns up first
+    public static Summary summarizeByOrderType(LocalDate startDate, LocalDate endDate) throws SQLException {
+        AnalyticsStore store = AnalyticsStore.shared();
+        store.refresh();
+        return summarize(store.payments().groupByRefCategory(startDate, endDate, store.orders()));
+    }
+
+    // Totals computed from the in-memory columns instead of the database, categories in the same order as the SQL
+    public static Summary summarize(TransactionColumns.Totals totals) {
+        Map<String, MethodTotal> byMethod = new TreeMap<>();
+        for (int i = 0; i < totals.size(); i++) {
+            if (totals.getCount(i) > 0) {
+                String method = totals.getCategory(i);
+                byMethod.put(method, new MethodTotal(method, totals.getCount(i), totals.getCents(i)));
+            }
+        }
+        return new Summary(new LinkedHashMap<>(byMethod));
+    }
+
+    // Count and amount for one payment method (or order type, see summarizeByOrderType)
+    public static class MethodTotal {
+        private final String method;
+        private final long count;
+        private final long cents;
+
+        public MethodTotal(String method, long count, long cents) {
+            this.method = method;
+            this.count = count;
+            this.cents = cents;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        // Amount in cents, see Money
+        public long getCents() {
+            return cents;
+        }
+    }
+
+    // All method totals for one query, plus the grand totals the labels show
+    public static class Summary {
+        private final Map<String, MethodTotal> byMethod;
+        private final long totalCount;
+        private final long totalCents;
+
+        public Summary(Map<String, MethodTotal> byMethod) {
+            this.byMethod = Collections.unmodifiableMap(byMethod);
+            long count = 0;
+            long cents = 0;
+            for (MethodTotal total : byMethod.values()) {
+                count += total.getCount();
+                cents += total.getCents();
+            }
+            this.totalCount = count;
+            this.totalCents = cents;
+        }
+
+        public Map<String, MethodTotal> getByMethod() {
+            return byMethod;
+        }
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        public long getTotalCents() {
+            return totalCents;
+        }
+    }
+}
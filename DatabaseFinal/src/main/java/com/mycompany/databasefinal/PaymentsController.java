@@ -3,17 +3,21 @@ package com.mycompany.databasefinal;
 import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.chart.PieChart;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 
-public class PaymentsController {
+public class PaymentsController implements SceneLifecycle {
+
+    // The table's filter for the date range pickers, the same range the chart totals use
+    public static final String DATE_FILTER_SQL = "payment_date BETWEEN ? AND ?";
+    // Chart groupings; payment method reads the daily rollup, order type the in-memory columns (see PaymentAnalytics)
+    private static final String BY_PAYMENT_METHOD = "Payment method";
+    private static final String BY_ORDER_TYPE = "Order type";
 
     @FXML
     private TableView<Payment> paymentTable;
@@ -24,12 +28,14 @@ public class PaymentsController {
     @FXML
     private TableColumn<Payment, String> methodColumn;
     @FXML
-    private TableColumn<Payment, Double> amountColumn;
+    private TableColumn<Payment, Long> amountColumn;
     @FXML
     private TableColumn<Payment, Integer> orderIdColumn;
     @FXML
     private PieChart paymentPieChart;
     @FXML
+    private ChoiceBox<String> groupByChoice;
+    @FXML
     private DatePicker startDatePicker;
     @FXML
     private DatePicker endDatePicker;
@@ -40,43 +46,51 @@ public class PaymentsController {
     @FXML
     private Label totalCountLabel;
 
-    private final ObservableList<Payment> paymentList = FXCollections.observableArrayList();
+    private PagedTableLoader<Payment> paymentPager;
+    // The range the chart currently shows, null for all payments
+    private LocalDate chartStart;
+    private LocalDate chartEnd;
 
     @FXML
     public void initialize() {
         setupTableColumns();
+        groupByChoice.getItems().setAll(BY_PAYMENT_METHOD, BY_ORDER_TYPE);
+        groupByChoice.setValue(BY_PAYMENT_METHOD);
+        groupByChoice.setOnAction(e -> loadPaymentTotals(chartStart, chartEnd));
+        // Pages the Payments table by payment_id, the server sorts when a column header is clicked
+        paymentPager = new PagedTableLoader<>(this, paymentTable, "Payments", "payment_id", RowMappers::payment, Payment::getPaymentId)
+                .sortable(paymentIdColumn, "payment_id", Payment::getPaymentId)
+                .sortable(dateColumn, "payment_date", Payment::getPaymentDate)
+                .sortable(methodColumn, "payment_method", Payment::getPaymentMethod)
+                .sortable(amountColumn, "amount_paid", payment -> Money.toBigDecimal(payment.getAmountCents()))
+                .sortable(orderIdColumn, "order_id", Payment::getOrderId);
         loadPaymentsFromDatabase();
     }
 
+    // Back from the cache: only payments added since the last visit are read for the table, and the chart's totals are
+    // re-read for the range and grouping it shows
+    @Override
+    public void onShow() {
+        paymentPager.refresh();
+        loadPaymentTotals(chartStart, chartEnd);
+    }
+
     private void setupTableColumns() {
-        paymentIdColumn.setCellValueFactory(new PropertyValueFactory<>("paymentId"));
-        dateColumn.setCellValueFactory(new PropertyValueFactory<>("paymentDate"));
-        methodColumn.setCellValueFactory(new PropertyValueFactory<>("paymentMethod"));
-        amountColumn.setCellValueFactory(new PropertyValueFactory<>("amountPaid"));
-        orderIdColumn.setCellValueFactory(new PropertyValueFactory<>("orderId"));
+        paymentIdColumn.setCellValueFactory(TableCells.value(Payment::getPaymentId));
+        dateColumn.setCellValueFactory(TableCells.value(Payment::getPaymentDate));
+        methodColumn.setCellValueFactory(TableCells.value(Payment::getPaymentMethod));
+        amountColumn.setCellValueFactory(TableCells.value(Payment::getAmountCents));
+        amountColumn.setCellFactory(TableCells.money());
+        orderIdColumn.setCellValueFactory(TableCells.value(Payment::getOrderId));
     }
 
-    // Loads all payments from the database and populates the TableView and PieChart. Displays an error alert if the database connection or query fails
+    // Loads the first page of payments into the TableView and the totals for the PieChart. Displays an error alert if the database connection or query fails
     private void loadPaymentsFromDatabase() {
-        String query = "SELECT payment_id, payment_date, payment_method, amount_paid, order_id FROM payments";
-        try (Connection conn = DatabaseUtil.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
-            paymentList.clear();
-            while (rs.next()) {
-                paymentList.add(new Payment(
-                        rs.getInt("payment_id"),
-                        rs.getDate("payment_date").toLocalDate(),
-                        rs.getString("payment_method"),
-                        rs.getDouble("amount_paid"),
-                        rs.getInt("order_id")
-                ));
-            }
-            paymentTable.setItems(paymentList);
-            updatePieChart(paymentList);
-        } catch (SQLException e) {
-            showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load payments from database.");
-        }
+        paymentPager.setFilter(null, null);
+        paymentPager.reload();
+        loadPaymentTotals(null, null);
     }
-    
+
     // Filters the payment data based on the selected date range from the DatePickers. After validating the input dates, updates the TableView and PieChart with the filtered results.
     @FXML
     private void applyDateFilter() {
@@ -90,37 +104,35 @@ public class PaymentsController {
             showAlert(Alert.AlertType.WARNING, "Invalid Date Range", "End date must be after or equal to start date.");
             return;
         }
-        // Steaming the results of the filter into a ObservableList 
-        ObservableList<Payment> filtered = paymentList.stream()
-                .filter(payment -> !payment.getPaymentDate().isBefore(startDate) && !payment.getPaymentDate().isAfter(endDate))
-                .collect(Collectors.toCollection(FXCollections::observableArrayList));
-        paymentTable.setItems(filtered);
-        updatePieChart(filtered);
+        paymentPager.setFilter(DATE_FILTER_SQL, Arrays.asList(Date.valueOf(startDate), Date.valueOf(endDate)));
+        paymentPager.reload();
+        loadPaymentTotals(startDate, endDate);
     }
-    
-    //Updates the PieChart to show distribution of payment methods. Also calculates and displays the total payment amount and number of transactions.
-    private void updatePieChart(ObservableList<Payment> data) {
-        // Streams by payment method and count occurrences (frequency of use)
-        Map<String, Long> methodCounts = data.stream()
-                .collect(Collectors.groupingBy(Payment::getPaymentMethod, Collectors.counting()));
-        // Streams by payment method and sums the amounts (for the total spent)
-        Map<String, Double> methodSums = data.stream()
-                .collect(Collectors.groupingBy(Payment::getPaymentMethod, Collectors.summingDouble(Payment::getAmountPaid)));
+
+    // Counts and sums for the PieChart (null dates mean all payments). Per method they are read from DailyPaymentTotals,
+    // so the query touches one row per day and method however many payments the range holds. The rollup has no order
+    // type, so that grouping runs over the in-memory columns, which only read the rows added since the last refresh
+    private void loadPaymentTotals(LocalDate startDate, LocalDate endDate) {
+        chartStart = startDate;
+        chartEnd = endDate;
+        boolean byOrderType = BY_ORDER_TYPE.equals(groupByChoice.getValue());
+        DataLoader.load(this, () -> byOrderType
+                ? PaymentAnalytics.summarizeByOrderType(startDate, endDate)
+                : PaymentAnalytics.summarize(startDate, endDate), this::updatePieChart,
+                e -> showAlert(Alert.AlertType.ERROR, "Database Error", "Failed to load payments from database."));
+    }
+
+    //Updates the PieChart to show distribution of payment methods (or order types). Also displays the total payment amount and number of transactions.
+    private void updatePieChart(PaymentAnalytics.Summary summary) {
         ObservableList<PieChart.Data> chartData = FXCollections.observableArrayList();
-        double totalAmount = 0; // For total amount spent
-        long totalCount = 0;    // For total count of payments
-        // Loop through each payment method, adding all payment methods and the number of times they have been used into the piechart
-        for (Map.Entry<String, Long> entry : methodCounts.entrySet()) {
-            String method = entry.getKey();
-            long count = entry.getValue();
-            double totalSpent = methodSums.get(method);
-            chartData.add(new PieChart.Data(method, count)); 
-            totalAmount += totalSpent; // Sum of total amount spent across all methods
+        // Loop through each payment method (or order type), adding all payment methods and the number of times they have been used into the piechart
+        for (PaymentAnalytics.MethodTotal total : summary.getByMethod().values()) {
+            chartData.add(new PieChart.Data(total.getMethod(), total.getCount()));
         }
         paymentPieChart.setData(chartData);
         // Updates the labels above the pie chart
-        totalPaymentsLabel.setText(String.format("Total Payments: $%.2f", totalAmount));
-        totalCountLabel.setText(String.format("Number of Payments: %d", data.size()));
+        totalPaymentsLabel.setText("Total Payments: " + Money.formatDollars(summary.getTotalCents()));
+        totalCountLabel.setText(String.format("Number of Payments: %d", summary.getTotalCount()));
     }
     
     // Displays a pop up alert with the issued type, title, and content
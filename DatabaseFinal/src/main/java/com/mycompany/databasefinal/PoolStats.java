@@ -0,0 +1,111 @@
+package com.mycompany.databasefinal;
+
+// Snapshot of the connection pool's counters, taken under the pool lock so the numbers agree with each other
+public class PoolStats {
+
+    private final int activeCount;
+    private final int idleCount;
+    private final int totalCount;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long averageWaitNanos;
+    private final long maxWaitNanos;
+    private final long timeoutCount;
+    private final long leakCount;
+    private final long evictedCount;
+    private final long invalidCount;
+    private final long statementHits;
+    private final long statementMisses;
+    private final long statementEvictions;
+
+    public PoolStats(int activeCount, int idleCount, int totalCount, int maxSize, long borrowCount,
+                     long averageWaitNanos, long maxWaitNanos, long timeoutCount, long leakCount,
+                     long evictedCount, long invalidCount, long statementHits, long statementMisses,
+                     long statementEvictions) {
+        this.activeCount = activeCount;
+        this.idleCount = idleCount;
+        this.totalCount = totalCount;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.averageWaitNanos = averageWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.timeoutCount = timeoutCount;
+        this.leakCount = leakCount;
+        this.evictedCount = evictedCount;
+        this.invalidCount = invalidCount;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+        this.statementEvictions = statementEvictions;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getAverageWaitNanos() {
+        return averageWaitNanos;
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    public long getInvalidCount() {
+        return invalidCount;
+    }
+
+    // Prepares served from a connection's StatementCache without going to the driver
+    public long getStatementHits() {
+        return statementHits;
+    }
+
+    public long getStatementMisses() {
+        return statementMisses;
+    }
+
+    public long getStatementEvictions() {
+        return statementEvictions;
+    }
+
+    public double getStatementHitRate() {
+        long total = statementHits + statementMisses;
+        return total == 0 ? 0 : (double) statementHits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d idle=%d total=%d/%d borrows=%d avgWait=%.2fms maxWait=%.2fms timeouts=%d leaks=%d evicted=%d invalid=%d"
+                        + " stmtHits=%d stmtMisses=%d stmtHitRate=%.0f%% stmtEvicted=%d",
+                activeCount, idleCount, totalCount, maxSize, borrowCount, averageWaitNanos / 1e6, maxWaitNanos / 1e6,
+                timeoutCount, leakCount, evictedCount, invalidCount, statementHits, statementMisses,
+                getStatementHitRate() * 100, statementEvictions);
+    }
+}
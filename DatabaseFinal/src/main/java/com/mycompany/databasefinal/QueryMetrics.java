@@ -0,0 +1,542 @@
+package com.mycompany.databasefinal;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+// Timing for every statement run on a connection from DatabaseUtil. Each connection is tagged with the screen method
+// that borrowed it (e.g. "RentalsController.refreshRentalsTable"), and every statement it runs records latency,
+// rows, value bytes and errors under (tag, SQL). Statements slower than -Dgamevault.metrics.slowQueryMs
+// (500 by default) are logged to the "com.mycompany.databasefinal.slowquery" logger. The numbers are shown on the
+// Diagnostics screen and published over JMX as com.mycompany.databasefinal:type=QueryMetrics.
+// -Dgamevault.metrics.enabled=false hands out the pool's connections untouched
+public class QueryMetrics {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("gamevault.metrics.enabled", "true"));
+    private static final Logger SLOW_QUERY_LOG = Logger.getLogger("com.mycompany.databasefinal.slowquery");
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final String PACKAGE = QueryMetrics.class.getPackageName();
+    // Framework classes that open connections on behalf of a screen; the tag skips past them to the caller
+    private static final List<Class<?>> INFRASTRUCTURE = List.of(QueryMetrics.class, DatabaseUtil.class,
+            ConnectionPool.class, DataLoader.class, RowMappers.class, PagedTableLoader.class);
+
+    private static final Map<StatementKey, StatementStats> STATEMENTS = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> CONNECTION_WAITS = new ConcurrentHashMap<>();
+    private static volatile long slowQueryNanos = Long.getLong("gamevault.metrics.slowQueryMs", 500) * 1_000_000;
+
+    static {
+        if (ENABLED) {
+            registerMBean();
+        }
+    }
+
+    private QueryMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // "Class.method" of the code asking for a connection. Prefers the controller on the stack, so a helper such as
+    // GameCatalog.addGame is charged to the screen action that called it. Lambdas are named after their enclosing method
+    public static String callerTag() {
+        return WALKER.walk(frames -> {
+            StackWalker.StackFrame first = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> type = frame.getDeclaringClass();
+                if (!type.getPackageName().equals(PACKAGE) || INFRASTRUCTURE.contains(type)) {
+                    continue;
+                }
+                if (type.getSimpleName().endsWith("Controller")) {
+                    return tagOf(frame);
+                }
+                if (first == null) {
+                    first = frame;
+                }
+            }
+            return first != null ? tagOf(first) : "unknown";
+        });
+    }
+
+    private static String tagOf(StackWalker.StackFrame frame) {
+        String method = frame.getMethodName();
+        // lambda$refreshRentalsTable$3 -> refreshRentalsTable
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', 7);
+            method = end > 7 ? method.substring(7, end) : method.substring(7);
+        }
+        String type = frame.getDeclaringClass().getSimpleName();
+        int nested = type.indexOf('$');
+        return (nested > 0 ? type.substring(0, nested) : type) + "." + method;
+    }
+
+    // Time spent waiting for the pool to hand out a connection
+    public static void recordConnectionWait(String tag, long nanos) {
+        CONNECTION_WAITS.computeIfAbsent(tag, t -> new LatencyHistogram()).record(nanos);
+    }
+
+    // Wraps a borrowed connection so every statement it creates is measured under the given tag
+    public static Connection instrument(Connection conn, String tag) {
+        return (Connection) Proxy.newProxyInstance(QueryMetrics.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(conn, tag));
+    }
+
+    public static long getSlowQueryThresholdMs() {
+        return slowQueryNanos / 1_000_000;
+    }
+
+    public static void setSlowQueryThresholdMs(long millis) {
+        slowQueryNanos = millis * 1_000_000;
+    }
+
+    // Forgets everything recorded so far
+    public static void reset() {
+        STATEMENTS.clear();
+        CONNECTION_WAITS.clear();
+    }
+
+    // Every statement seen so far, slowest total time first
+    public static List<StatementSummary> getStatementSummaries() {
+        List<StatementSummary> summaries = new ArrayList<>();
+        for (Map.Entry<StatementKey, StatementStats> entry : STATEMENTS.entrySet()) {
+            summaries.add(new StatementSummary(entry.getKey().tag, entry.getKey().sql, entry.getValue()));
+        }
+        summaries.sort(Comparator.comparingLong(StatementSummary::getTotalMillis).reversed());
+        return summaries;
+    }
+
+    // Connection wait per tag: count, p50, p99 and max in milliseconds
+    public static List<String> getConnectionWaitReport() {
+        List<String> lines = new ArrayList<>();
+        CONNECTION_WAITS.forEach((tag, h) -> lines.add(String.format("%s count=%d p50=%.2fms p99=%.2fms max=%.2fms", tag,
+                h.getCount(), h.getPercentileNanos(50) / 1e6, h.getPercentileNanos(99) / 1e6, h.getMaxNanos() / 1e6)));
+        lines.sort(null);
+        return lines;
+    }
+
+    private static StatementStats statsFor(String tag, String sql) {
+        return STATEMENTS.computeIfAbsent(new StatementKey(tag, sql), k -> new StatementStats());
+    }
+
+    private static void finish(StatementStats stats, String tag, String sql, long nanos, long rows) {
+        stats.latency.record(nanos);
+        if (nanos >= slowQueryNanos) {
+            SLOW_QUERY_LOG.warning(String.format("%.1f ms, %d rows [%s] %s", nanos / 1e6, rows, tag, oneLine(sql)));
+        }
+    }
+
+    private static String oneLine(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+
+    // Rough size of a value the caller read from a ResultSet. Only values read through a getter count, so "value bytes"
+    // is what the app used, not what the driver fetched (columns selected but never read don't show up)
+    private static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof Boolean || value instanceof Byte) {
+            return 1;
+        }
+        if (value instanceof Short || value instanceof Integer || value instanceof Float) {
+            return 4;
+        }
+        return 8;
+    }
+
+    private static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(new Jmx(), QueryMetricsMBean.class),
+                    new ObjectName("com.mycompany.databasefinal:type=QueryMetrics"));
+        } catch (JMException | RuntimeException e) {
+            // Already registered (a second class loader) or no management support, the in-app screen still works
+        }
+    }
+
+    // Counters for one (tag, SQL) pair
+    private static final class StatementStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder valueBytes = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private volatile String lastError;
+    }
+
+    private static final class StatementKey {
+        private final String tag;
+        private final String sql;
+
+        private StatementKey(String tag, String sql) {
+            this.tag = tag;
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StatementKey)) {
+                return false;
+            }
+            StatementKey other = (StatementKey) o;
+            return tag.equals(other.tag) && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tag, sql);
+        }
+    }
+
+    // Point-in-time view of one statement's numbers, as shown on the Diagnostics screen
+    public static class StatementSummary {
+        private final String tag;
+        private final String sql;
+        private final long count;
+        private final long totalMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+        private final long rows;
+        private final long valueBytes;
+        private final long errors;
+        private final String lastError;
+
+        private StatementSummary(String tag, String sql, StatementStats stats) {
+            LatencyHistogram h = stats.latency;
+            this.tag = tag;
+            this.sql = oneLine(sql);
+            this.count = h.getCount();
+            this.totalMillis = h.getMeanNanos() * h.getCount() / 1_000_000;
+            this.p50Millis = h.getPercentileNanos(50) / 1e6;
+            this.p95Millis = h.getPercentileNanos(95) / 1e6;
+            this.p99Millis = h.getPercentileNanos(99) / 1e6;
+            this.maxMillis = h.getMaxNanos() / 1e6;
+            this.rows = stats.rows.sum();
+            this.valueBytes = stats.valueBytes.sum();
+            this.errors = stats.errors.sum();
+            this.lastError = stats.lastError;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP95Millis() {
+            return p95Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getValueBytes() {
+            return valueBytes;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s count=%d p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms rows=%d valueBytes=%d errors=%d %s",
+                    tag, count, p50Millis, p95Millis, p99Millis, maxMillis, rows, valueBytes, errors, sql);
+        }
+    }
+
+    // Management interface published over JMX (jconsole, VisualVM)
+    public interface QueryMetricsMBean {
+        String[] getStatements();
+
+        String[] getConnectionWaits();
+
+        long getSlowQueryThresholdMs();
+
+        void setSlowQueryThresholdMs(long millis);
+
+        void reset();
+    }
+
+    private static final class Jmx implements QueryMetricsMBean {
+        @Override
+        public String[] getStatements() {
+            return getStatementSummaries().stream().map(StatementSummary::toString).toArray(String[]::new);
+        }
+
+        @Override
+        public String[] getConnectionWaits() {
+            return getConnectionWaitReport().toArray(new String[0]);
+        }
+
+        @Override
+        public long getSlowQueryThresholdMs() {
+            return QueryMetrics.getSlowQueryThresholdMs();
+        }
+
+        @Override
+        public void setSlowQueryThresholdMs(long millis) {
+            QueryMetrics.setSlowQueryThresholdMs(millis);
+        }
+
+        @Override
+        public void reset() {
+            QueryMetrics.reset();
+        }
+    }
+
+    // Hands out measured statements; everything else goes straight to the pooled connection
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final String tag;
+
+        private ConnectionHandler(Connection target, String tag) {
+            this.target = target;
+            this.tag = tag;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("unwrap".equals(name) && args[0] == Connection.class) {
+                return proxy;
+            }
+            Object result = forward(target, method, args);
+            if (result instanceof Statement) {
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                // prepareStatement/prepareCall carry their SQL up front, a plain Statement gets it per execute
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return Proxy.newProxyInstance(QueryMetrics.class.getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler((Statement) result, proxy, tag, sql));
+            }
+            return result;
+        }
+    }
+
+    // Times execute* calls. Queries are finished when their ResultSet is closed or read to the end, so the sample
+    // covers fetching the rows and the row count is known; updates and batches are finished when they return
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final Object connectionProxy;
+        private final String tag;
+        private final String preparedSql;
+        private ResultHandler openResult;
+        // The last execute call's SQL and counters, which getResultSet()'s rows are charged to
+        private String lastSql;
+        private StatementStats lastStats;
+
+        private StatementHandler(Statement target, Object connectionProxy, String tag, String preparedSql) {
+            this.target = target;
+            this.connectionProxy = connectionProxy;
+            this.tag = tag;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "getConnection":
+                    return connectionProxy;
+                case "close":
+                    finishOpenResult();
+                    return forward(target, method, args);
+                case "getResultSet":
+                    // Not timed again, the execute call that produced it already was
+                    return lastStats == null ? (ResultSet) forward(target, method, args)
+                            : wrapResult(proxy, (ResultSet) forward(target, method, args), lastStats, lastSql, -1);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                return forward(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            if (sql == null) {
+                sql = "(batch)";
+            }
+            StatementStats stats = statsFor(tag, sql);
+            lastSql = sql;
+            lastStats = stats;
+            finishOpenResult();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = forward(target, method, args);
+            } catch (SQLException e) {
+                stats.errors.increment();
+                stats.lastError = e.getMessage();
+                finish(stats, tag, sql, System.nanoTime() - start, 0);
+                throw e;
+            }
+            if (result instanceof ResultSet) {
+                return wrapResult(proxy, (ResultSet) result, stats, sql, start);
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof Number) {
+                rows = Math.max(0, ((Number) result).longValue());
+            }
+            stats.rows.add(rows);
+            finish(stats, tag, sql, System.nanoTime() - start, rows);
+            return result;
+        }
+
+        // sql is the statement actually executed, a plain Statement's own text included; start is -1 for an untimed result
+        private ResultSet wrapResult(Object statementProxy, ResultSet rs, StatementStats stats, String sql, long start) {
+            if (rs == null) {
+                return null;
+            }
+            ResultHandler handler = new ResultHandler(rs, statementProxy, stats, tag, sql, start);
+            openResult = handler;
+            return (ResultSet) Proxy.newProxyInstance(QueryMetrics.class.getClassLoader(), new Class<?>[]{ResultSet.class}, handler);
+        }
+
+        private void finishOpenResult() {
+            if (openResult != null) {
+                openResult.finish();
+                openResult = null;
+            }
+        }
+    }
+
+    // Counts rows and the size of the values read; finishes the query's sample once
+    private static final class ResultHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final Object statementProxy;
+        private final StatementStats stats;
+        private final String tag;
+        private final String sql;
+        private final long start;
+        private long rows;
+        private long valueBytes;
+        private boolean finished;
+
+        private ResultHandler(ResultSet target, Object statementProxy, StatementStats stats, String tag, String sql, long start) {
+            this.target = target;
+            this.statementProxy = statementProxy;
+            this.stats = stats;
+            this.tag = tag;
+            this.sql = sql;
+            this.start = start;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getStatement".equals(name)) {
+                return statementProxy;
+            }
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            Object result = forward(target, method, args);
+            if ("next".equals(name)) {
+                if ((Boolean) result) {
+                    rows++;
+                } else {
+                    finish();
+                }
+            } else if ("close".equals(name)) {
+                finish();
+            } else if (name.startsWith("get") && args != null && args.length >= 1) {
+                valueBytes += sizeOf(result);
+            }
+            return result;
+        }
+
+        private void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            stats.rows.add(rows);
+            stats.valueBytes.add(valueBytes);
+            // Result sets from getResultSet() add rows and value bytes to the call that produced them but are not timed again
+            if (start >= 0) {
+                QueryMetrics.finish(stats, tag, sql, System.nanoTime() - start, rows);
+            }
+        }
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.mycompany.databasefinal;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// App-wide cache of the Genres and Platforms lookup tables. Loaded once, shared by every controller, and reloaded
+// after the TTL (-Dgamevault.referenceData.ttlMs) expires or when invalidate() is called
+public class ReferenceData {
+
+    private static final long TTL_MS = Long.getLong("gamevault.referenceData.ttlMs", 15 * 60 * 1000L);
+
+    public static final String GENRES_SQL = "SELECT genre_id, genre_name FROM Genres ORDER BY genre_id";
+    public static final String PLATFORMS_SQL = "SELECT platform_id, platform_name FROM Platforms ORDER BY platform_id";
+
+    private static volatile LookupTable genres;
+    private static volatile LookupTable platforms;
+
+    private ReferenceData() {
+    }
+
+    // Genres keyed both ways (genre_id <-> genre_name)
+    public static LookupTable genres() throws SQLException {
+        LookupTable table = genres;
+        if (isStale(table)) {
+            synchronized (ReferenceData.class) {
+                table = genres;
+                if (isStale(table)) {
+                    table = loadTable(GENRES_SQL);
+                    genres = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    // Platforms keyed both ways (platform_id <-> platform_name)
+    public static LookupTable platforms() throws SQLException {
+        LookupTable table = platforms;
+        if (isStale(table)) {
+            synchronized (ReferenceData.class) {
+                table = platforms;
+                if (isStale(table)) {
+                    table = loadTable(PLATFORMS_SQL);
+                    platforms = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    // Loads both tables up front, e.g. during startup so the first screen that needs them doesn't wait
+    public static void preload() throws SQLException {
+        genres();
+        platforms();
+    }
+
+    // Forces the next lookup to reload from the database, call after Genres or Platforms change
+    public static void invalidate() {
+        genres = null;
+        platforms = null;
+    }
+
+    private static boolean isStale(LookupTable table) {
+        return table == null || System.currentTimeMillis() - table.getLoadedAtMillis() > TTL_MS;
+    }
+
+    private static LookupTable loadTable(String sql) throws SQLException {
+        Map<Integer, String> namesById = new LinkedHashMap<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                namesById.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        return new LookupTable(namesById, System.currentTimeMillis());
+    }
+}
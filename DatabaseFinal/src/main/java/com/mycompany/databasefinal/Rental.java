@@ -2,31 +2,57 @@ package com.mycompany.databasefinal;
 
 import java.time.LocalDate;
 
+// One rental row, immutable. Which fields are filled depends on the screen that read it
 public class Rental {
-    private int rentalId;
-    private int customerId;
-    private String customerName;
-    private int gameId;
-    private String gameName;
-    private LocalDate receivedDate;
-    private LocalDate returnedDate;
+    private final int rentalId;
+    private final int customerId;
+    private final String customerName;
+    private final int gameId;
+    private final String gameName;
+    private final LocalDate receivedDate;
+    private final LocalDate returnedDate;
+    // Due date and overdue flag as worked out by the database, only filled for rows shown in the active rentals table
+    private final LocalDate dueDate;
+    private final boolean overdue;
 
     // Constructor for Active Rentals
-    public Rental(int rentalId, int customerId, int gameId, LocalDate receivedDate) {
+    public Rental(int rentalId, int customerId, int gameId, LocalDate receivedDate, LocalDate dueDate, boolean overdue) {
         this.rentalId = rentalId;
         this.customerId = customerId;
+        this.customerName = null;
         this.gameId = gameId;
+        this.gameName = null;
         this.receivedDate = receivedDate;
         this.returnedDate = null;  // Default for active rentals
+        this.dueDate = dueDate;
+        this.overdue = overdue;
     }
 
     // Constructor for Rental History
     public Rental(int rentalId, String customerName, String gameName, LocalDate receivedDate, LocalDate returnedDate) {
         this.rentalId = rentalId;
+        this.customerId = 0;
         this.customerName = customerName;
+        this.gameId = 0;
         this.gameName = gameName;
         this.receivedDate = receivedDate;
         this.returnedDate = returnedDate;
+        this.dueDate = null;
+        this.overdue = false;
+    }
+
+    // Constructor for rows read from the RentalHistory view, which carries both the ids and the display names
+    public Rental(int rentalId, int customerId, String customerName, int gameId, String gameName, LocalDate receivedDate,
+                  LocalDate returnedDate, LocalDate dueDate, boolean overdue) {
+        this.rentalId = rentalId;
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.gameId = gameId;
+        this.gameName = gameName;
+        this.receivedDate = receivedDate;
+        this.returnedDate = returnedDate;
+        this.dueDate = dueDate;
+        this.overdue = overdue;
     }
 
     // Getters
@@ -58,8 +84,16 @@ public class Rental {
         return returnedDate;
     }
 
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public boolean isOverdue() {
+        return overdue;
+    }
+
     // Additional helper method to convert SQL Date to LocalDate 
     public static LocalDate convertSqlDateToLocalDate(java.sql.Date date) {
         return date != null ? date.toLocalDate() : null;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -3,7 +3,10 @@ package com.mycompany.databasefinal;
 import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -11,9 +14,8 @@ import javafx.scene.control.*;
 import javafx.scene.input.MouseEvent;
 import javafx.util.Duration;
 import javafx.scene.control.TableRow;
-import javafx.scene.control.cell.PropertyValueFactory;
 
-public class RentalsController {
+public class RentalsController implements SceneLifecycle {
 
     @FXML
     private TableView<Rental> allRentalsTable;
@@ -41,32 +43,68 @@ public class RentalsController {
     private TableColumn<Rental, LocalDate> rentDateCol2;
     @FXML
     private TableColumn<Rental, LocalDate> returnDateCol;
+    @FXML
+    private TableColumn<Rental, LocalDate> dueDateCol;
 
     private ObservableList<Rental> activeRentalList = FXCollections.observableArrayList();
-    private ObservableList<Rental> rentalList = FXCollections.observableArrayList();
+    private PagedTableLoader<Rental> rentalHistoryPager;
+    // Server time of the last refresh minus WATERMARK_MARGIN_MS; only rentals with updated_at at or after it are re-read
+    private Timestamp watermark;
+    // updated_at is stamped when a row is written, not when its transaction commits, so a write that commits just after a
+    // refresh can carry an earlier time than that refresh. Each delta re-reads this much before the last one to catch
+    // those (rows read twice are simply applied twice); override with -Dgamevault.rentals.watermarkMarginMs
+    private static final long WATERMARK_MARGIN_MS = Long.getLong("gamevault.rentals.watermarkMarginMs", 60_000);
+    // Open rentals, read in idx_rentals_open_due order so no sort is needed
+    public static final String ACTIVE_RENTALS_SQL = "SELECT rental_id, customer_id, game_id, received_date, due_date, "
+            + "returned_date IS NULL AND due_date < CURDATE() AS is_overdue FROM Rentals WHERE returned_date IS NULL "
+            + "ORDER BY due_date, rental_id";
+    // Rentals changed since a watermark, served by the index on Rentals.updated_at
+    public static final String CHANGED_RENTALS_SQL = "SELECT rental_id, customer_id, customer_name, game_id, game_title, "
+            + "received_date, returned_date, due_date, is_overdue FROM RentalHistory WHERE updated_at >= ?";
+    // Rentals deleted since a watermark (a customer removed on the customer screen takes theirs with them), recorded by
+    // the UncountRentedGame trigger
+    public static final String DELETED_RENTALS_SQL = "SELECT rental_id FROM DeletedRentals WHERE deleted_at >= ?";
+    public static final String MARK_RETURNED_SQL = "UPDATE Rentals SET returned_date = CURDATE() WHERE rental_id = ?";
+    // The active table's order, the same as ACTIVE_RENTALS_SQL's ORDER BY
+    private static final Comparator<Rental> ACTIVE_ORDER =
+            Comparator.comparing(Rental::getDueDate).thenComparingInt(Rental::getRentalId);
 
     @FXML
     public void initialize() {
         setupTables();
         setupRowColorCoding();
+        setupPaging();
         refreshRentalsTable();
         refreshActiveRentalsTable();
     }
 
+    // Back from the cache: re-reads only the rentals changed since the last visit. A load cancelled before it finished
+    // leaves no watermark (or an incomplete history window), and those are loaded again. Overdue flags only change when
+    // the date does, so the first visit on a new day re-reads the active rentals in full
+    @Override
+    public void onShow() {
+        if (watermark == null || watermark.toLocalDateTime().toLocalDate().isBefore(LocalDate.now())) {
+            refreshActiveRentalsTable();
+        } else {
+            refreshChangedRentals();
+        }
+        rentalHistoryPager.refresh();
+    }
+
     private void setupTables() {
         // Configure columns for allRentalsTable
-        rentalIdCol.setCellValueFactory(new PropertyValueFactory<>("rentalId"));
-        rentalIdCol2.setCellValueFactory(new PropertyValueFactory<>("rentalId"));
-        customerIdCol.setCellValueFactory(new PropertyValueFactory<>("customerId"));
-        customerNameCol.setCellValueFactory(new PropertyValueFactory<>("customerName"));
-        gameIdCol.setCellValueFactory(new PropertyValueFactory<>("gameId"));
-        gameNameCol.setCellValueFactory(new PropertyValueFactory<>("gameName"));
-        rentDateCol.setCellValueFactory(new PropertyValueFactory<>("receivedDate"));
-        rentDateCol2.setCellValueFactory(new PropertyValueFactory<>("receivedDate"));
-        returnDateCol.setCellValueFactory(new PropertyValueFactory<>("returnedDate"));
-        // Add columns to the tables
-        activeRentalsTable.getColumns().addAll(rentalIdCol, customerIdCol, rentDateCol, returnDateCol);
-        allRentalsTable.getColumns().addAll(rentalIdCol2, customerNameCol, gameNameCol, rentDateCol2, returnDateCol);
+        rentalIdCol.setCellValueFactory(TableCells.value(Rental::getRentalId));
+        rentalIdCol2.setCellValueFactory(TableCells.value(Rental::getRentalId));
+        customerIdCol.setCellValueFactory(TableCells.value(Rental::getCustomerId));
+        customerNameCol.setCellValueFactory(TableCells.value(Rental::getCustomerName));
+        gameIdCol.setCellValueFactory(TableCells.value(Rental::getGameId));
+        gameNameCol.setCellValueFactory(TableCells.value(Rental::getGameName));
+        rentDateCol.setCellValueFactory(TableCells.value(Rental::getReceivedDate));
+        rentDateCol2.setCellValueFactory(TableCells.value(Rental::getReceivedDate));
+        returnDateCol.setCellValueFactory(TableCells.value(Rental::getReturnedDate));
+        dueDateCol.setCellValueFactory(TableCells.value(Rental::getDueDate));
+        // Each table already holds its own columns from RentalsScene.fxml (Due on the active table, Returned on the
+        // history), so nothing is added here
     }
 
     private void setupRowColorCoding() {
@@ -75,11 +113,8 @@ public class RentalsController {
             protected void updateItem(Rental rental, boolean empty) {
                 super.updateItem(rental, empty);
                 if (rental != null && !empty) {
-                    LocalDate rentDate = rental.getReceivedDate();
-                    // Using java.time ChronoUnit.DAYS (enumeration value for days) to find out the days between rentDate, and the current date
-                    long daysElapsed = ChronoUnit.DAYS.between(rentDate, LocalDate.now());
-                    // Updates row colors accordingly based on whether it is over 14 days or less than
-                    setStyle(daysElapsed > 14 ? "-fx-background-color: #ffcccc;" : "-fx-background-color: #ccffcc;");
+                    // The overdue flag comes from the database (due_date < CURDATE()), the same rule the late-fee job uses
+                    setStyle(rental.isOverdue() ? "-fx-background-color: #ffcccc;" : "-fx-background-color: #ccffcc;");
                 } else {
                     setStyle(""); // Reset style if row is empty or rental is null
                 }
@@ -87,72 +122,183 @@ public class RentalsController {
         });
     }
 
-    // Pulling any rentals from Rentals Table where the rental_date is NULL (aka the rental hasn't been returned yet) to put in the ActiveRentalsTable
+    // Pulling any rentals from Rentals Table where the returned_date is NULL (aka the rental hasn't been returned yet) to put in the
+    // ActiveRentalsTable, most overdue first
     private void refreshActiveRentalsTable() {
-        activeRentalList.clear();
+        DataLoader.load(this, activeRentalsTable, this::queryActiveRentals, snapshot -> {
+            watermark = snapshot.watermark;
+            activeRentalList.setAll(snapshot.rentals);
+            activeRentalsTable.setItems(activeRentalList);
+            updateActiveRentalCount();
+        }, Throwable::printStackTrace);
+    }
+
+    // Runs on a background worker, see refreshActiveRentalsTable
+    private RentalChanges queryActiveRentals() throws SQLException {
+        List<Rental> rentals = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection()) {
-            String sql = "SELECT rental_id, customer_id, game_id, received_date, returned_date FROM Rentals WHERE returned_date IS NULL";
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-            while (rs.next()) {
-                Rental rental = new Rental(
-                        rs.getInt("rental_id"),
-                        rs.getInt("customer_id"),
-                        rs.getInt("game_id"),
-                        Rental.convertSqlDateToLocalDate(rs.getDate("received_date"))
-                );
-                activeRentalList.add(rental);
+            // Read the watermark first so nothing changed during the load can be missed by the next delta
+            Timestamp now = queryServerTime(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(ACTIVE_RENTALS_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rentals.add(RowMappers.activeRental(rs));
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            return new RentalChanges(rentals, List.of(), now);
         }
-        activeRentalsTable.getItems().setAll(activeRentalList);
-        activeRentalCountLabel.setText("Active Rentals: " + activeRentalList.size());
     }
 
-    // refreshRentalsTable queries RentalHistory, a view from the database that provides the columns with its needed components
-    private void refreshRentalsTable() {
-        rentalList.clear();
+    // Re-reads only the rentals whose updated_at moved, and the ids of those deleted, since the last refresh and
+    // applies them to both tables in place
+    private void refreshChangedRentals() {
+        Timestamp since = watermark;
+        if (since == null) {
+            // No full load has completed yet, nothing to diff against
+            refreshActiveRentalsTable();
+            refreshRentalsTable();
+            return;
+        }
+        DataLoader.load(this, () -> queryChangedRentals(since), changes -> {
+            for (Rental rental : changes.rentals) {
+                applyRentalChange(rental);
+            }
+            for (int rentalId : changes.deletedIds) {
+                removeRental(rentalId);
+            }
+            watermark = changes.watermark;
+            updateActiveRentalCount();
+        }, Throwable::printStackTrace);
+    }
+
+    // Runs on a background worker, see refreshChangedRentals. Served by the indexes on Rentals.updated_at and
+    // DeletedRentals.deleted_at
+    private RentalChanges queryChangedRentals(Timestamp since) throws SQLException {
+        List<Rental> rentals = new ArrayList<>();
+        List<Integer> deletedIds = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection()) {
-            String sql = "SELECT * FROM RentalHistory";
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery(sql);
-            while (rs.next()) {
-                Rental rental = new Rental(
-                        rs.getInt("rental_id"),
-                        rs.getString("customer_name"),
-                        rs.getString("game_title"),
-                        Rental.convertSqlDateToLocalDate(rs.getDate("received_date")),
-                        Rental.convertSqlDateToLocalDate(rs.getDate("returned_date"))
-                );
-                rentalList.add(rental);
+            Timestamp now = queryServerTime(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(CHANGED_RENTALS_SQL)) {
+                stmt.setTimestamp(1, since);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rentals.add(RowMappers.rentalChange(rs));
+                    }
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            try (PreparedStatement stmt = conn.prepareStatement(DELETED_RENTALS_SQL)) {
+                stmt.setTimestamp(1, since);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        deletedIds.add(rs.getInt(1));
+                    }
+                }
+            }
+            return new RentalChanges(rentals, deletedIds, now);
         }
-        allRentalsTable.getItems().setAll(rentalList);
     }
-    
+
+    // Uses the database clock for watermarks so they compare correctly with updated_at, less the safety margin
+    private Timestamp queryServerTime(Connection conn) throws SQLException {
+        // Prepared rather than a plain Statement so the pool's statement cache serves it on every refresh
+        try (PreparedStatement stmt = conn.prepareStatement(DatabaseUtil.SERVER_TIME_SQL); ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return new Timestamp(rs.getTimestamp(1).getTime() - WATERMARK_MARGIN_MS);
+        }
+    }
+
+    // Adds, moves or removes one rental in the active list, keeping it in due date order, and updates its history row
+    // if it is loaded
+    private void applyRentalChange(Rental rental) {
+        int index = indexOfActiveRental(rental.getRentalId());
+        if (index >= 0) {
+            activeRentalList.remove(index);
+        }
+        if (rental.getReturnedDate() == null) {
+            int position = Collections.binarySearch(activeRentalList, rental, ACTIVE_ORDER);
+            activeRentalList.add(position >= 0 ? position : -position - 1, rental);
+        }
+        rentalHistoryPager.upsert(rental);
+    }
+
+    // Drops a deleted rental from both tables if they hold it
+    private void removeRental(int rentalId) {
+        int index = indexOfActiveRental(rentalId);
+        if (index >= 0) {
+            activeRentalList.remove(index);
+        }
+        rentalHistoryPager.remove(rentalId);
+    }
+
+    private int indexOfActiveRental(int rentalId) {
+        for (int i = 0; i < activeRentalList.size(); i++) {
+            if (activeRentalList.get(i).getRentalId() == rentalId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void updateActiveRentalCount() {
+        activeRentalCountLabel.setText("Active Rentals: " + activeRentalList.size());
+    }
+
+    // Pages the RentalHistory view into allRentalsTable by rental_id. returned_date is nullable so that column stays unsorted
+    private void setupPaging() {
+        rentalHistoryPager = new PagedTableLoader<>(this, allRentalsTable, "RentalHistory", "rental_id", RowMappers::rentalHistory, Rental::getRentalId)
+                .sortable(rentalIdCol2, "rental_id", Rental::getRentalId)
+                .sortable(customerNameCol, "customer_name", Rental::getCustomerName)
+                .sortable(gameNameCol, "game_title", Rental::getGameName)
+                .sortable(rentDateCol2, "received_date", Rental::getReceivedDate);
+    }
+
+    // refreshRentalsTable queries RentalHistory, a view from the database that provides the columns with its needed components
+    private void refreshRentalsTable() {
+        rentalHistoryPager.reload();
+    }
+
     // Upon pressing the markAsReturned button, the returned_date within the Rentals DB table is updated so that the selected record's returned date is updated to today's date
     @FXML
     private void handleMarkAsReturned() {
         Rental selectedRental = activeRentalsTable.getSelectionModel().getSelectedItem();
         if (selectedRental != null) {
-            try (Connection conn = DatabaseUtil.getConnection()) {
-                String sql = "UPDATE Rentals SET returned_date = CURDATE() WHERE rental_id = ?";
-                PreparedStatement pstmt = conn.prepareStatement(sql);
-                pstmt.setInt(1, selectedRental.getRentalId());
-                pstmt.executeUpdate();
-            } catch (SQLException e) {
+            DataLoader.run(() -> {
+                try (Connection conn = DatabaseUtil.getConnection();
+                     PreparedStatement pstmt = conn.prepareStatement(MARK_RETURNED_SQL)) {
+                    pstmt.setInt(1, selectedRental.getRentalId());
+                    pstmt.executeUpdate();
+                }
+                return null;
+            }, ignored -> {
+                // Reflect the return straight away, then pick up the server's version of it (and anything else that changed)
+                applyRentalChange(new Rental(selectedRental.getRentalId(), selectedRental.getCustomerId(), selectedRental.getCustomerName(),
+                        selectedRental.getGameId(), selectedRental.getGameName(), selectedRental.getReceivedDate(), LocalDate.now(),
+                        selectedRental.getDueDate(), false));
+                updateActiveRentalCount();
+                refreshChangedRentals();
+            }, e -> {
                 e.printStackTrace();
-            }
-            refreshActiveRentalsTable();
-            refreshRentalsTable();
+                refreshChangedRentals();
+            });
         } else {
             showAlert("No rental selected", "Please select a rental to mark as returned.");
         }
     }
     
+    // Rentals read in one query (and the ids of deleted ones) plus the server time taken just before it (less the
+    // margin), the watermark for the next delta
+    private static final class RentalChanges {
+        private final List<Rental> rentals;
+        private final List<Integer> deletedIds;
+        private final Timestamp watermark;
+
+        private RentalChanges(List<Rental> rentals, List<Integer> deletedIds, Timestamp watermark) {
+            this.rentals = rentals;
+            this.deletedIds = deletedIds;
+            this.watermark = watermark;
+        }
+    }
+    
     // Handles potential errors such as an invalid rental being selected and instead visually shows a pop up that alerts what the error is
     private void showAlert(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
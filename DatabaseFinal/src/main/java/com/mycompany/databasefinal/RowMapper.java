@@ -0,0 +1,10 @@
+package com.mycompany.databasefinal;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Turns the current row of a ResultSet into a model object
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,106 @@
+package com.mycompany.databasefinal;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Turns one ResultSet row into a model object. Shared by the controllers and the benchmark module, so both measure the same code
+public class RowMappers {
+
+    private RowMappers() {
+    }
+
+    // One GameDetails row (or a SearchGames result)
+    public static Game game(ResultSet rs) throws SQLException {
+        int gameId = rs.getInt("game_id");
+        String title = rs.getString("title");
+        String genre = rs.getString("genre_name");
+        int year = rs.getInt("year_released");
+        String platform = rs.getString("platform_name");
+        int stockQuantity = rs.getInt("quantity_in_stock");
+        long priceCents = Money.cents(rs, "price");
+        return new Game(gameId, title, genre, year, platform, stockQuantity, priceCents, 0); // 0 for sales
+    }
+
+    // One top-selling row (game_id, game_title, year_released, game_price, total_sales)
+    public static Game topSellingGame(ResultSet rs) throws SQLException {
+        int gameId = rs.getInt("game_id");
+        String title = rs.getString("game_title");
+        int year = rs.getInt("year_released");
+        long priceCents = Money.cents(rs, "game_price");
+        int totalSales = rs.getInt("total_sales");
+        return new Game(gameId, title, "", year, "", 0, priceCents, totalSales); // Missing details in top-selling data
+    }
+
+    // One OrderInformation row
+    public static Order order(ResultSet rs) throws SQLException {
+        return new Order(
+                rs.getInt("order_id"),
+                rs.getString("customer_name"),
+                rs.getDate("order_date").toLocalDate(),
+                rs.getString("employee_name"),
+                rs.getString("order_type"),
+                rs.getString("game_title"),
+                Money.cents(rs, "total_amount")
+        );
+    }
+
+    // One Payments row
+    public static Payment payment(ResultSet rs) throws SQLException {
+        return new Payment(
+                rs.getInt("payment_id"),
+                rs.getDate("payment_date").toLocalDate(),
+                rs.getString("payment_method"),
+                Money.cents(rs, "amount_paid"),
+                rs.getInt("order_id")
+        );
+    }
+
+    // One Customers row
+    public static Customer customer(ResultSet rs) throws SQLException {
+        return new Customer(
+                rs.getInt("customer_id"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getString("email"),
+                rs.getBoolean("is_member")
+        );
+    }
+
+    // One RentalHistory row as shown in the history table
+    public static Rental rentalHistory(ResultSet rs) throws SQLException {
+        return new Rental(
+                rs.getInt("rental_id"),
+                rs.getString("customer_name"),
+                rs.getString("game_title"),
+                Rental.convertSqlDateToLocalDate(rs.getDate("received_date")),
+                Rental.convertSqlDateToLocalDate(rs.getDate("returned_date"))
+        );
+    }
+
+    // One RentalHistory row with the ids too, used when patching both rental tables in place
+    public static Rental rentalChange(ResultSet rs) throws SQLException {
+        return new Rental(
+                rs.getInt("rental_id"),
+                rs.getInt("customer_id"),
+                rs.getString("customer_name"),
+                rs.getInt("game_id"),
+                rs.getString("game_title"),
+                Rental.convertSqlDateToLocalDate(rs.getDate("received_date")),
+                Rental.convertSqlDateToLocalDate(rs.getDate("returned_date")),
+                Rental.convertSqlDateToLocalDate(rs.getDate("due_date")),
+                rs.getBoolean("is_overdue")
+        );
+    }
+
+    // One Rentals row for the active rentals table (ids only, no names)
+    public static Rental activeRental(ResultSet rs) throws SQLException {
+        return new Rental(
+                rs.getInt("rental_id"),
+                rs.getInt("customer_id"),
+                rs.getInt("game_id"),
+                Rental.convertSqlDateToLocalDate(rs.getDate("received_date")),
+                Rental.convertSqlDateToLocalDate(rs.getDate("due_date")),
+                rs.getBoolean("is_overdue")
+        );
+    }
+}
@@ -0,0 +1,113 @@
+package com.mycompany.databasefinal;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Maintenance for the GameSales counters behind the top-selling list. The counters are kept current by triggers;
+// these wrap the RebuildGameSales and CheckGameSales procedures. Can also be run on its own:
+//   java ... com.mycompany.databasefinal.SalesLeaderboard check|rebuild
+public class SalesLeaderboard {
+
+    private SalesLeaderboard() {
+    }
+
+    // Recomputes every counter from OrderDetails and Rentals in one transaction
+    public static void rebuild() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             CallableStatement cs = conn.prepareCall("{CALL RebuildGameSales()}")) {
+            cs.execute();
+        }
+    }
+
+    // Returns the games whose stored counters disagree with the raw tables, empty when GameSales is consistent
+    public static List<Drift> check() throws SQLException {
+        List<Drift> drift = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             CallableStatement cs = conn.prepareCall("{CALL CheckGameSales()}");
+             ResultSet rs = cs.executeQuery()) {
+            while (rs.next()) {
+                drift.add(new Drift(
+                        rs.getInt("game_id"),
+                        rs.getInt("stored_units_ordered"),
+                        rs.getInt("actual_units_ordered"),
+                        rs.getInt("stored_rentals_count"),
+                        rs.getInt("actual_rentals_count")));
+            }
+        }
+        return drift;
+    }
+
+    public static void main(String[] args) {
+        String command = args.length > 0 ? args[0] : "check";
+        try {
+            if ("rebuild".equals(command)) {
+                rebuild();
+                System.out.println("GameSales rebuilt from OrderDetails and Rentals.");
+            } else if ("check".equals(command)) {
+                List<Drift> drift = check();
+                for (Drift d : drift) {
+                    System.out.println(d);
+                }
+                System.out.println(drift.isEmpty() ? "GameSales is consistent." : drift.size() + " game(s) out of step, run with 'rebuild' to fix.");
+                if (!drift.isEmpty()) {
+                    System.exit(1);
+                }
+            } else {
+                System.err.println("Usage: SalesLeaderboard check|rebuild");
+                System.exit(2);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(3);
+        } finally {
+            DatabaseUtil.shutdown();
+        }
+    }
+
+    // One game whose stored counters don't match the raw tables
+    public static class Drift {
+        private final int gameId;
+        private final int storedUnitsOrdered;
+        private final int actualUnitsOrdered;
+        private final int storedRentals;
+        private final int actualRentals;
+
+        public Drift(int gameId, int storedUnitsOrdered, int actualUnitsOrdered, int storedRentals, int actualRentals) {
+            this.gameId = gameId;
+            this.storedUnitsOrdered = storedUnitsOrdered;
+            this.actualUnitsOrdered = actualUnitsOrdered;
+            this.storedRentals = storedRentals;
+            this.actualRentals = actualRentals;
+        }
+
+        public int getGameId() {
+            return gameId;
+        }
+
+        public int getStoredUnitsOrdered() {
+            return storedUnitsOrdered;
+        }
+
+        public int getActualUnitsOrdered() {
+            return actualUnitsOrdered;
+        }
+
+        public int getStoredRentals() {
+            return storedRentals;
+        }
+
+        public int getActualRentals() {
+            return actualRentals;
+        }
+
+        @Override
+        public String toString() {
+            return "game " + gameId + ": units ordered " + storedUnitsOrdered + " (actual " + actualUnitsOrdered
+                    + "), rentals " + storedRentals + " (actual " + actualRentals + ")";
+        }
+    }
+}
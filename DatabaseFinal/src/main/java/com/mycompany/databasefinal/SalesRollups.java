@@ -0,0 +1,161 @@
+package com.mycompany.databasefinal;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+// Dashboard figures read from the daily rollup tables (migrations/V5): takings, best seller and top employee for a
+// range of days. Each query reads one row per day (and game or employee), never the orders themselves. Also wraps
+// the RebuildDailyRollups backfill, which can be run on its own:
+//   java ... com.mycompany.databasefinal.SalesRollups backfill [from-date [to-date]]
+public class SalesRollups {
+
+    public static final String PAYMENT_TOTALS_SQL =
+            "SELECT COALESCE(SUM(payment_count), 0) AS payment_count, COALESCE(SUM(amount_total), 0) AS amount_total "
+            + "FROM DailyPaymentTotals WHERE payment_date BETWEEN ? AND ?";
+    public static final String TOP_GAME_SQL =
+            "SELECT g.title, SUM(d.units_sold) AS units_sold, SUM(d.rentals_count) AS rentals_count "
+            + "FROM DailyGameSales d JOIN Games g ON d.game_id = g.game_id "
+            + "WHERE d.sales_date BETWEEN ? AND ? "
+            + "GROUP BY d.game_id, g.title "
+            + "HAVING SUM(d.units_sold + d.rentals_count) > 0 "
+            + "ORDER BY SUM(d.units_sold + d.rentals_count) DESC, d.game_id LIMIT 1";
+    public static final String TOP_EMPLOYEE_SQL =
+            "SELECT CONCAT(e.first_name, ' ', e.last_name) AS employee_name, SUM(d.revenue) AS revenue "
+            + "FROM DailyEmployeeSales d JOIN Employees e ON d.employee_id = e.employee_id "
+            + "WHERE d.sales_date BETWEEN ? AND ? "
+            + "GROUP BY d.employee_id, e.first_name, e.last_name "
+            + "HAVING SUM(d.revenue) > 0 "
+            + "ORDER BY SUM(d.revenue) DESC, d.employee_id LIMIT 1";
+
+    private SalesRollups() {
+    }
+
+    // Figures for startDate to endDate inclusive
+    public static Summary summarize(LocalDate startDate, LocalDate endDate) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection("SalesRollups")) {
+            return summarize(conn, startDate, endDate);
+        }
+    }
+
+    // Same as above on a connection the caller owns
+    public static Summary summarize(Connection conn, LocalDate startDate, LocalDate endDate) throws SQLException {
+        Summary summary = new Summary(startDate, endDate);
+        try (PreparedStatement stmt = prepare(conn, PAYMENT_TOTALS_SQL, startDate, endDate);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                summary.paymentCount = rs.getLong("payment_count");
+                summary.paymentCents = Money.cents(rs, "amount_total");
+            }
+        }
+        try (PreparedStatement stmt = prepare(conn, TOP_GAME_SQL, startDate, endDate);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                summary.topGame = rs.getString("title");
+                summary.topGameUnits = rs.getLong("units_sold") + rs.getLong("rentals_count");
+            }
+        }
+        try (PreparedStatement stmt = prepare(conn, TOP_EMPLOYEE_SQL, startDate, endDate);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                summary.topEmployee = rs.getString("employee_name");
+                summary.topEmployeeCents = Money.cents(rs, "revenue");
+            }
+        }
+        return summary;
+    }
+
+    // Recomputes the rollups for fromDate to toDate from the raw tables, a month per transaction. Null for either
+    // end means from the first or through the last day with data
+    public static void backfill(LocalDate fromDate, LocalDate toDate) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection("SalesRollups.backfill");
+             CallableStatement cs = conn.prepareCall("{CALL RebuildDailyRollups(?, ?)}")) {
+            cs.setDate(1, fromDate != null ? Date.valueOf(fromDate) : null);
+            cs.setDate(2, toDate != null ? Date.valueOf(toDate) : null);
+            cs.execute();
+        }
+    }
+
+    private static PreparedStatement prepare(Connection conn, String sql, LocalDate startDate, LocalDate endDate) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        stmt.setDate(1, Date.valueOf(startDate));
+        stmt.setDate(2, Date.valueOf(endDate));
+        return stmt;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0 || !"backfill".equals(args[0])) {
+            System.err.println("Usage: SalesRollups backfill [from-date [to-date]]");
+            System.exit(2);
+        }
+        LocalDate from = args.length > 1 ? LocalDate.parse(args[1]) : null;
+        LocalDate to = args.length > 2 ? LocalDate.parse(args[2]) : null;
+        try {
+            long start = System.nanoTime();
+            backfill(from, to);
+            System.out.printf("Daily rollups rebuilt for %s to %s in %.1f s%n", from != null ? from : "the first day",
+                    to != null ? to : "the last day", (System.nanoTime() - start) / 1e9);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(3);
+        } finally {
+            DatabaseUtil.shutdown();
+        }
+    }
+
+    // Totals for one range of days. The top game and employee are null when nothing sold in the range
+    public static class Summary {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private long paymentCount;
+        private long paymentCents;
+        private String topGame;
+        private long topGameUnits;
+        private String topEmployee;
+        private long topEmployeeCents;
+
+        Summary(LocalDate startDate, LocalDate endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        public LocalDate getStartDate() {
+            return startDate;
+        }
+
+        public LocalDate getEndDate() {
+            return endDate;
+        }
+
+        public long getPaymentCount() {
+            return paymentCount;
+        }
+
+        // Amount taken in cents, see Money
+        public long getPaymentCents() {
+            return paymentCents;
+        }
+
+        public String getTopGame() {
+            return topGame;
+        }
+
+        // Copies sold plus rentals
+        public long getTopGameUnits() {
+            return topGameUnits;
+        }
+
+        public String getTopEmployee() {
+            return topEmployee;
+        }
+
+        // List-price revenue of the employee's purchase lines, in cents
+        public long getTopEmployeeCents() {
+            return topEmployeeCents;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.mycompany.databasefinal;
+
+// Optional hooks for screen controllers kept in SceneManager's cache. initialize() still runs once when the FXML is
+// loaded; after that a cached screen is shown and hidden many times without being rebuilt
+public interface SceneLifecycle {
+
+    // The cached screen is shown again. Bring its data up to date incrementally rather than reloading everything
+    default void onShow() {
+    }
+
+    // The screen is being replaced. Its pending DataLoader loads have already been cancelled
+    default void onHide() {
+    }
+}
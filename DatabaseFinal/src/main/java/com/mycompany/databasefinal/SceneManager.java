@@ -0,0 +1,172 @@
+package com.mycompany.databasefinal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+// Swaps screens in the main window and keeps their parsed FXML and controllers, so going back to a screen is a root
+// swap plus the controller's SceneLifecycle.onShow instead of a re-parse and a full initialize() reload.
+// Each screen has a policy, overridable with -Dgamevault.scenes.<fxml name>=pinned|cached|none:
+//   PINNED  never evicted (the hub)
+//   CACHED  kept, least recently shown first out once more than -Dgamevault.scenes.maxCached (default 8) are held
+//   NONE    rebuilt on every visit
+// Screens listed in -Dgamevault.scenes.preload are parsed on a background thread at startup
+public class SceneManager {
+
+    public enum Policy {
+        PINNED, CACHED, NONE
+    }
+
+    private static final int MAX_CACHED = Integer.getInteger("gamevault.scenes.maxCached", 8);
+    private static final String DEFAULT_PRELOAD = "GamesScene,RentalsScene,OrderScene,PaymentsScene,CustomerManagement,InventoryScene";
+
+    private final Scene scene;
+    private final Map<String, Policy> policies = new HashMap<>();
+    // Access-ordered, so iteration starts at the screen shown longest ago. Only touched on the JavaFX thread
+    private final LinkedHashMap<String, Screen> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private Screen current;
+
+    public SceneManager(Scene scene) {
+        this.scene = scene;
+        policies.put("GameVaultHub", Policy.PINNED);
+    }
+
+    // Overrides the default policy (CACHED) for one screen; system properties still win
+    public SceneManager policy(String fxml, Policy policy) {
+        policies.put(fxml, policy);
+        return this;
+    }
+
+    // Shows a screen, from the cache when it is there. Must run on the JavaFX thread
+    public void show(String fxml) throws IOException {
+        Screen next = cache.get(fxml);
+        boolean reused = next != null && next.shown;
+        if (next == null) {
+            next = load(fxml);
+            if (policyOf(fxml) != Policy.NONE) {
+                cache.put(fxml, next);
+            }
+        }
+        hideCurrent();
+        current = next;
+        next.shown = true;
+        scene.setRoot(next.root);
+        // A screen shown for the first time (built just now or preloaded) has only just run initialize()
+        if (reused && next.controller instanceof SceneLifecycle) {
+            ((SceneLifecycle) next.controller).onShow();
+        }
+        evictOverflow();
+    }
+
+    // Parses the given screens one after another on a low-priority daemon thread. Each is handed to the JavaFX thread
+    // when ready and is skipped if the user already opened it. The controllers' initialize() loads start right away.
+    // whenDone runs on the JavaFX thread after the last one
+    public void preload(List<String> fxmlNames, Runnable whenDone) {
+        Thread thread = new Thread(() -> {
+            for (String fxml : fxmlNames) {
+                if (policyOf(fxml) == Policy.NONE) {
+                    continue;
+                }
+                try {
+                    Screen screen = load(fxml);
+                    Platform.runLater(() -> {
+                        if (cache.containsKey(fxml) || (current != null && current.fxml.equals(fxml))) {
+                            DataLoader.cancelAll(screen.controller);
+                            return;
+                        }
+                        cache.put(fxml, screen);
+                        evictOverflow();
+                    });
+                } catch (IOException | UncheckedIOException | IllegalStateException e) {
+                    // It will be built normally on first visit
+                    e.printStackTrace();
+                }
+            }
+            Platform.runLater(whenDone);
+        }, "scene-preload");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    // Screens to preload at startup, from -Dgamevault.scenes.preload (comma separated, empty to disable)
+    public static List<String> defaultPreloadList() {
+        String value = System.getProperty("gamevault.scenes.preload", DEFAULT_PRELOAD).trim();
+        List<String> names = new ArrayList<>();
+        for (String name : Arrays.asList(value.split(","))) {
+            if (!name.trim().isEmpty()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+
+    private void hideCurrent() {
+        if (current == null) {
+            return;
+        }
+        // Any query still running for the screen we are leaving is now stale
+        DataLoader.cancelAll(current.controller);
+        if (current.controller instanceof SceneLifecycle) {
+            ((SceneLifecycle) current.controller).onHide();
+        }
+    }
+
+    // Least recently shown CACHED screens go first; the current and pinned screens don't count toward the limit
+    private void evictOverflow() {
+        int cached = 0;
+        for (Screen screen : cache.values()) {
+            if (screen != current && policyOf(screen.fxml) == Policy.CACHED) {
+                cached++;
+            }
+        }
+        Iterator<Screen> it = cache.values().iterator();
+        while (cached > MAX_CACHED && it.hasNext()) {
+            Screen screen = it.next();
+            if (screen != current && policyOf(screen.fxml) == Policy.CACHED) {
+                DataLoader.cancelAll(screen.controller);
+                it.remove();
+                cached--;
+            }
+        }
+    }
+
+    private Policy policyOf(String fxml) {
+        String override = System.getProperty("gamevault.scenes." + fxml);
+        if (override != null) {
+            return Policy.valueOf(override.trim().toUpperCase(Locale.ROOT));
+        }
+        return policies.getOrDefault(fxml, Policy.CACHED);
+    }
+
+    // Parses the FXML and runs its controller's initialize(). Safe off the JavaFX thread while the nodes are detached
+    private static Screen load(String fxml) throws IOException {
+        FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource(fxml + ".fxml"));
+        Parent root = fxmlLoader.load();
+        return new Screen(fxml, root, fxmlLoader.getController());
+    }
+
+    private static final class Screen {
+        private final String fxml;
+        private final Parent root;
+        private final Object controller;
+        private boolean shown;
+
+        private Screen(String fxml, Parent root, Object controller) {
+            this.fxml = fxml;
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.mycompany.databasefinal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Brings a game_vault_db schema up to date with the numbered scripts in migrations/
+// (V2__counters_and_rental_tracking.sql, ...). The schema's version is the highest row in SchemaVersion, which
+// create_game_db.sql starts at 1. Every script with a higher number, up to --target if given, runs in order and is
+// recorded as soon as it succeeds. MySQL commits each DDL statement on its own, so a script that fails halfway stays
+// half applied: fix the cause, finish or undo that script by hand, then run this again. Scripts are plain SQL;
+// DELIMITER lines work as in the mysql client. Ships with the app (it only needs the MySQL driver the app already
+// depends on):
+//
+//   java -cp DatabaseFinal/target/DatabaseFinal-1.0-SNAPSHOT.jar:mysql-connector-java-8.0.30.jar \
+//        com.mycompany.databasefinal.SchemaMigrator \
+//        --url jdbc:mysql://localhost:3306/game_vault_db --user root --password secret --dir migrations
+public class SchemaMigrator {
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private SchemaMigrator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "jdbc:mysql://localhost:3306/game_vault_db";
+        String user = "root";
+        String password = "";
+        String dir = "migrations";
+        int target = Integer.MAX_VALUE;
+        boolean dryRun = false;
+        for (int i = 0; i < args.length; i++) {
+            if ("--dry-run".equals(args[i])) {
+                dryRun = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--url": url = args[++i]; break;
+                case "--user": user = args[++i]; break;
+                case "--password": password = args[++i]; break;
+                case "--dir": dir = args[++i]; break;
+                case "--target": target = Integer.parseInt(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        Map<Integer, Path> scripts = findScripts(Paths.get(dir));
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            int current = currentVersion(conn);
+            System.out.printf("Schema at version %d, %d script(s) in %s%n", current, scripts.size(), dir);
+            for (Map.Entry<Integer, Path> script : scripts.entrySet()) {
+                int version = script.getKey();
+                if (version <= current || version > target) {
+                    continue;
+                }
+                String description = describe(script.getValue());
+                if (dryRun) {
+                    System.out.printf("  would apply V%d %s%n", version, description);
+                    continue;
+                }
+                System.out.printf("  applying V%d %s ... ", version, description);
+                long start = System.nanoTime();
+                apply(conn, script.getValue());
+                record(conn, version, description);
+                System.out.printf("done in %.1f s%n", (System.nanoTime() - start) / 1e9);
+            }
+            System.out.printf("Schema at version %d%n", currentVersion(conn));
+        }
+    }
+
+    // Version number to script, in order. Two scripts with the same number are an error
+    private static Map<Integer, Path> findScripts(Path dir) throws IOException {
+        Map<Integer, Path> scripts = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher m = SCRIPT_NAME.matcher(file.getFileName().toString());
+                if (m.matches()) {
+                    Path previous = scripts.put(Integer.parseInt(m.group(1)), file);
+                    if (previous != null) {
+                        throw new IllegalStateException("Two migrations numbered " + m.group(1) + ": " + previous + " and " + file);
+                    }
+                }
+            }
+        }
+        return scripts;
+    }
+
+    private static String describe(Path script) {
+        Matcher m = SCRIPT_NAME.matcher(script.getFileName().toString());
+        m.matches();
+        return m.group(2).replace('_', ' ');
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM SchemaVersion")) {
+            rs.next();
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            throw new SQLException("No SchemaVersion table, create the schema with create_game_db.sql first", e);
+        }
+    }
+
+    private static void apply(Connection conn, Path script) throws IOException, SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : split(Files.readString(script))) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    throw new SQLException("Failed in " + script.getFileName() + ":\n" + sql, e.getSQLState(), e.getErrorCode(), e);
+                }
+            }
+        }
+    }
+
+    private static void record(Connection conn, int version, String description) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO SchemaVersion (version, description) VALUES (?, ?)")) {
+            stmt.setInt(1, version);
+            stmt.setString(2, description);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Splits a script into statements the way the mysql client does: on the current delimiter (";" until a DELIMITER
+    // line changes it), ignoring delimiters inside quotes and comments. Statements that are only comments are dropped
+    static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        String delimiter = ";";
+        StringBuilder current = new StringBuilder();
+        boolean hasCode = false;
+        char quote = 0;
+        int i = 0;
+        int n = script.length();
+        while (i < n) {
+            char c = script.charAt(i);
+            if (quote == 0 && !hasCode && atLineStart(script, i) && script.regionMatches(true, i, "DELIMITER ", 0, 10)) {
+                int end = script.indexOf('\n', i);
+                end = end < 0 ? n : end;
+                delimiter = script.substring(i + 10, end).trim();
+                current.setLength(0);
+                i = end + 1;
+                continue;
+            }
+            if (quote != 0) {
+                current.append(c);
+                if (c == '\\' && quote != '`' && i + 1 < n) {
+                    current.append(script.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                }
+                i++;
+                continue;
+            }
+            if (c == '-' && script.startsWith("-- ", i) || c == '#') {
+                int end = script.indexOf('\n', i);
+                end = end < 0 ? n : end;
+                current.append(script, i, end);
+                i = end;
+                continue;
+            }
+            if (c == '/' && script.startsWith("/*", i)) {
+                int end = script.indexOf("*/", i + 2);
+                end = end < 0 ? n : end + 2;
+                current.append(script, i, end);
+                i = end;
+                continue;
+            }
+            if (script.startsWith(delimiter, i)) {
+                if (hasCode) {
+                    statements.add(current.toString().trim());
+                }
+                current.setLength(0);
+                hasCode = false;
+                i += delimiter.length();
+                continue;
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            }
+            if (!Character.isWhitespace(c)) {
+                hasCode = true;
+            }
+            current.append(c);
+            i++;
+        }
+        if (hasCode) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static boolean atLineStart(String script, int i) {
+        int j = i - 1;
+        while (j >= 0 && (script.charAt(j) == ' ' || script.charAt(j) == '\t')) {
+            j--;
+        }
+        return j < 0 || script.charAt(j) == '\n';
+    }
+}
@@ -0,0 +1,56 @@
+package com.mycompany.databasefinal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+// Milestones of a cold start, in milliseconds since the JVM process started. The report goes to the
+// "com.mycompany.databasefinal.startup" logger once the hub is interactive, as a warning when that took longer than
+// -Dgamevault.startup.targetMs (1000 by default), and is also shown on the Diagnostics screen
+public class StartupTimer {
+
+    private static final long TARGET_MS = Long.getLong("gamevault.startup.targetMs", 1000);
+    private static final Logger LOG = Logger.getLogger("com.mycompany.databasefinal.startup");
+    private static final long START_MILLIS = ProcessHandle.current().info().startInstant()
+            .map(instant -> instant.toEpochMilli()).orElse(System.currentTimeMillis());
+    private static final List<String> MILESTONES = new CopyOnWriteArrayList<>();
+    private static volatile long interactiveMillis = -1;
+
+    private StartupTimer() {
+    }
+
+    // Records a milestone, safe from any thread
+    public static void mark(String milestone) {
+        MILESTONES.add(String.format("%6d ms  %s (%s)", sinceStart(), milestone, Thread.currentThread().getName()));
+    }
+
+    // Records the moment the hub has been drawn and accepts input, then logs the milestones so far
+    public static void markInteractive() {
+        if (interactiveMillis >= 0) {
+            return;
+        }
+        interactiveMillis = sinceStart();
+        mark("hub interactive");
+        String report = "Startup, hub interactive after " + interactiveMillis + " ms (target " + TARGET_MS + " ms)\n"
+                + String.join("\n", MILESTONES);
+        if (interactiveMillis > TARGET_MS) {
+            LOG.warning(report);
+        } else {
+            LOG.info(report);
+        }
+    }
+
+    // Milliseconds from process start to the interactive hub, or -1 while still starting
+    public static long getInteractiveMillis() {
+        return interactiveMillis;
+    }
+
+    public static List<String> getMilestones() {
+        return new ArrayList<>(MILESTONES);
+    }
+
+    private static long sinceStart() {
+        return System.currentTimeMillis() - START_MILLIS;
+    }
+}
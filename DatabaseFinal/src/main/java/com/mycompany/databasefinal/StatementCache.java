@@ -0,0 +1,225 @@
+package com.mycompany.databasefinal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps one physical connection's prepared and callable statements open between borrows, keyed by their SQL, so the
+// same query from the same screen skips the prepare round trip (and with useServerPrepStmts, the server-side parse).
+// Callers still close their statements as usual; close() resets the statement and puts it back here. Holds at most
+// maxSize idle statements, least recently used closed first. Statements whose fetch size, max rows, timeout or other
+// settings were changed are closed instead of reused so the next caller never inherits them
+public class StatementCache {
+
+    // Statement settings that outlive a single execution; a statement that had any of them changed isn't reused
+    private static final Set<String> STICKY_SETTINGS = Set.of("setFetchSize", "setFetchDirection", "setMaxRows",
+            "setLargeMaxRows", "setMaxFieldSize", "setQueryTimeout", "setEscapeProcessing", "setPoolable", "setCursorName");
+
+    private final Connection physical;
+    private final int maxSize;
+    private final Counters counters;
+    // Access-ordered: iteration starts at the statement used longest ago
+    private final LinkedHashMap<String, PreparedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<CachedStatement> checkedOut = new ArrayList<>();
+
+    public StatementCache(Connection physical, int maxSize, Counters counters) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.counters = counters;
+    }
+
+    // True for the prepare calls this cache can serve: prepareStatement(sql), prepareStatement(sql, autoGeneratedKeys)
+    // and prepareCall(sql). Anything with result set type or holdability arguments goes straight to the driver
+    public static boolean isCacheable(Method method, Object[] args) {
+        String name = method.getName();
+        if (args == null || args.length == 0 || !(args[0] instanceof String)) {
+            return false;
+        }
+        if ("prepareStatement".equals(name)) {
+            return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+        }
+        return "prepareCall".equals(name) && args.length == 1;
+    }
+
+    // Returns a cached statement for the same call if one is idle, otherwise prepares a new one on the physical connection
+    public synchronized PreparedStatement prepare(Method method, Object[] args, Object connectionProxy) throws SQLException {
+        String key = method.getName() + (args.length == 2 ? "/" + args[1] : "") + '\u0000' + args[0];
+        PreparedStatement target = idle.remove(key);
+        if (target != null) {
+            counters.hits.incrementAndGet();
+        } else {
+            counters.misses.incrementAndGet();
+            try {
+                target = (PreparedStatement) method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException) {
+                    throw (SQLException) e.getCause();
+                }
+                throw new SQLException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new SQLException(e);
+            }
+        }
+        CachedStatement handler = new CachedStatement(key, target, connectionProxy);
+        checkedOut.add(handler);
+        Class<?> type = target instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+        return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    // Called when the borrower closes its connection: statements it forgot to close go back (or are closed) now
+    public synchronized void reclaim() {
+        for (CachedStatement handler : new ArrayList<>(checkedOut)) {
+            handler.release();
+        }
+    }
+
+    // Closes every idle statement, used when the physical connection is about to be closed or discarded
+    public synchronized void clear() {
+        for (PreparedStatement stmt : idle.values()) {
+            closeQuietly(stmt);
+        }
+        idle.clear();
+        checkedOut.clear();
+    }
+
+    private synchronized void giveBack(CachedStatement handler) {
+        checkedOut.remove(handler);
+        PreparedStatement target = handler.target;
+        if (maxSize <= 0 || handler.sticky || !reset(handler)) {
+            closeQuietly(target);
+            return;
+        }
+        PreparedStatement existing = idle.put(handler.key, target);
+        if (existing != null) {
+            // The same SQL was open twice at once; keep one
+            closeQuietly(existing);
+        }
+        Iterator<PreparedStatement> it = idle.values().iterator();
+        while (idle.size() > maxSize && it.hasNext()) {
+            closeQuietly(it.next());
+            it.remove();
+            counters.evictions.incrementAndGet();
+        }
+    }
+
+    // Closes the result sets the caller left open and clears parameters and batches
+    private boolean reset(CachedStatement handler) {
+        try {
+            for (ResultSet rs : handler.results) {
+                rs.close();
+            }
+            PreparedStatement target = handler.target;
+            if (target.isClosed()) {
+                return false;
+            }
+            target.clearParameters();
+            target.clearBatch();
+            target.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            // The connection is probably broken, the pool will find out on its next validation
+        }
+    }
+
+    // Hit/miss counters shared by every connection of a pool
+    public static class Counters {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        public long getEvictions() {
+            return evictions.get();
+        }
+    }
+
+    // The caller's handle on a cached statement. close() hands the statement back instead of closing it
+    private final class CachedStatement implements InvocationHandler {
+        private final String key;
+        private final PreparedStatement target;
+        private final Object connectionProxy;
+        private final List<ResultSet> results = new ArrayList<>(1);
+        private boolean released;
+        private boolean sticky;
+
+        private CachedStatement(String key, PreparedStatement target, Object connectionProxy) {
+            this.key = key;
+            this.target = target;
+            this.connectionProxy = connectionProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    release();
+                    return null;
+                case "isClosed":
+                    return released || target.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("Statement has already been closed");
+            }
+            if (STICKY_SETTINGS.contains(name)) {
+                sticky = true;
+            } else if (name.startsWith("execute")) {
+                // Re-executing closes the previous result set anyway
+                results.clear();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                results.add((ResultSet) result);
+            }
+            return result;
+        }
+
+        private void release() {
+            if (!released) {
+                released = true;
+                giveBack(this);
+            }
+        }
+    }
+}
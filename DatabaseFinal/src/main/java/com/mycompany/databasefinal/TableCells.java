@@ -0,0 +1,33 @@
+package com.mycompany.databasefinal;
+
+import java.util.function.Function;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+
+// Cell value factories for the immutable model classes. A TableView only asks for the cells it is drawing, so the
+// wrapper is created per rendered cell instead of every row carrying a property per field. Unlike PropertyValueFactory
+// there is no reflection on each call
+public class TableCells {
+
+    private TableCells() {
+    }
+
+    // Shows getter(row) in the column
+    public static <S, T> Callback<TableColumn.CellDataFeatures<S, T>, ObservableValue<T>> value(Function<S, T> getter) {
+        return data -> new ReadOnlyObjectWrapper<>(getter.apply(data.getValue()));
+    }
+
+    // Cell factory for a column of cents: shows "$1,234.50" but sorts on the exact long
+    public static <S> Callback<TableColumn<S, Long>, TableCell<S, Long>> money() {
+        return column -> new TableCell<S, Long>() {
+            @Override
+            protected void updateItem(Long cents, boolean empty) {
+                super.updateItem(cents, empty);
+                setText(empty || cents == null ? null : Money.formatDollars(cents));
+            }
+        };
+    }
+}
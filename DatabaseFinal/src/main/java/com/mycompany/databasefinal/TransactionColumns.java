@@ -0,0 +1,322 @@
+package com.mycompany.databasefinal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Payments or Orders held column by column in primitive arrays: epoch days, amounts in cents, the row id, a reference id
+// (order_id or customer_id) and a dictionary-encoded category (payment_method or order_type). Rows are kept sorted by
+// date, so a date range is two binary searches and every aggregate is one pass over a contiguous slice. About 21 bytes
+// a row, against well over 100 for a Payment object with its LocalDate and String. Snapshots are immutable; refresh
+// returns a new one, so readers never need a lock. The Payments chart reads its per-method totals from the
+// DailyPaymentTotals rollup; these answer the groupings that rollup doesn't keep, such as payments by order type
+public class TransactionColumns {
+
+    public static final Source PAYMENTS = new Source("Payments", "payment_id", "payment_date", "amount_paid", "order_id", "payment_method");
+    public static final Source ORDERS = new Source("Orders", "order_id", "order_date", "total_amount", "customer_id", "order_type");
+
+    private final Source source;
+    private final int size;
+    private final int[] ids;
+    private final int[] epochDays;
+    private final long[] amountCents;
+    private final int[] refIds;
+    private final byte[] categories;
+    private final String[] categoryNames;
+    private final int maxId;
+    // Category per row id (-1 for ids with no row), built on first use by groupByRefCategory
+    private volatile byte[] categoryById;
+
+    private TransactionColumns(Source source, int size, int[] ids, int[] epochDays, long[] amountCents, int[] refIds,
+                               byte[] categories, String[] categoryNames, int maxId) {
+        this.source = source;
+        this.size = size;
+        this.ids = ids;
+        this.epochDays = epochDays;
+        this.amountCents = amountCents;
+        this.refIds = refIds;
+        this.categories = categories;
+        this.categoryNames = categoryNames;
+        this.maxId = maxId;
+    }
+
+    // A snapshot with no rows, refresh it to load the table
+    public static TransactionColumns empty(Source source) {
+        return new TransactionColumns(source, 0, new int[0], new int[0], new long[0], new int[0], new byte[0], new String[0], 0);
+    }
+
+    // Brings the snapshot up to date: only rows with a higher id than any loaded so far are read, unless the row count
+    // shows something was deleted, in which case the whole table is reloaded. Returns this when nothing changed
+    public TransactionColumns refresh(Connection conn) throws SQLException {
+        long dbCount;
+        int dbMaxId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*), COALESCE(MAX(" + source.idColumn + "), 0) FROM " + source.table)) {
+            rs.next();
+            dbCount = rs.getLong(1);
+            dbMaxId = rs.getInt(2);
+        }
+        if (dbCount == size && dbMaxId == maxId) {
+            return this;
+        }
+        if (dbMaxId >= maxId && dbCount > size) {
+            TransactionColumns appended = append(conn, maxId);
+            if (appended.size == dbCount) {
+                return appended;
+            }
+        }
+        return empty(source).append(conn, 0);
+    }
+
+    // Reads every row with id > afterId and merges it in, re-sorting by date only if the new rows arrived out of order
+    private TransactionColumns append(Connection conn, int afterId) throws SQLException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> names = new ArrayList<>(Arrays.asList(categoryNames));
+        for (int i = 0; i < categoryNames.length; i++) {
+            codes.put(categoryNames[i], i);
+        }
+        int capacity = size + 1024;
+        int[] newIds = Arrays.copyOf(ids, capacity);
+        int[] newDays = Arrays.copyOf(epochDays, capacity);
+        long[] newCents = Arrays.copyOf(amountCents, capacity);
+        int[] newRefs = Arrays.copyOf(refIds, capacity);
+        byte[] newCategories = Arrays.copyOf(categories, capacity);
+        int n = size;
+        int newMaxId = maxId;
+        boolean sorted = true;
+        try (PreparedStatement stmt = conn.prepareStatement(source.deltaSql())) {
+            stmt.setInt(1, afterId);
+            // Connector/J only streams rows with this exact fetch size, anything else buffers the whole table first
+            stmt.setFetchSize(isMySql(conn) ? Integer.MIN_VALUE : 10_000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (n == newIds.length) {
+                        capacity = n + (n >> 1);
+                        newIds = Arrays.copyOf(newIds, capacity);
+                        newDays = Arrays.copyOf(newDays, capacity);
+                        newCents = Arrays.copyOf(newCents, capacity);
+                        newRefs = Arrays.copyOf(newRefs, capacity);
+                        newCategories = Arrays.copyOf(newCategories, capacity);
+                    }
+                    String category = rs.getString(5);
+                    Integer code = codes.get(category);
+                    if (code == null) {
+                        if (names.size() > Byte.MAX_VALUE) {
+                            throw new SQLException("Too many distinct values in " + source.table + "." + source.categoryColumn);
+                        }
+                        code = names.size();
+                        codes.put(category, code);
+                        names.add(category);
+                    }
+                    int id = rs.getInt(1);
+                    int day = (int) rs.getObject(2, LocalDate.class).toEpochDay();
+                    sorted &= n == 0 || day >= newDays[n - 1];
+                    newIds[n] = id;
+                    newDays[n] = day;
+                    newCents[n] = Money.cents(rs, 3);
+                    newRefs[n] = rs.getInt(4);
+                    newCategories[n] = (byte) (int) code;
+                    newMaxId = Math.max(newMaxId, id);
+                    n++;
+                }
+            }
+        }
+        // Trim the spare capacity, the snapshot never grows in place
+        TransactionColumns merged = new TransactionColumns(source, n, Arrays.copyOf(newIds, n), Arrays.copyOf(newDays, n),
+                Arrays.copyOf(newCents, n), Arrays.copyOf(newRefs, n), Arrays.copyOf(newCategories, n), names.toArray(new String[0]), newMaxId);
+        return sorted ? merged : merged.sortedByDate();
+    }
+
+    // Stable sort by date through one primitive sort of (day, row) keys, then a gather into fresh arrays
+    private TransactionColumns sortedByDate() {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) epochDays[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] newIds = new int[size];
+        int[] newDays = new int[size];
+        long[] newCents = new long[size];
+        int[] newRefs = new int[size];
+        byte[] newCategories = new byte[size];
+        for (int i = 0; i < size; i++) {
+            int row = (int) keys[i];
+            newIds[i] = ids[row];
+            newDays[i] = epochDays[row];
+            newCents[i] = amountCents[row];
+            newRefs[i] = refIds[row];
+            newCategories[i] = categories[row];
+        }
+        return new TransactionColumns(source, size, newIds, newDays, newCents, newRefs, newCategories, categoryNames, maxId);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Row accessors, in date order
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public LocalDate getDate(int row) {
+        return LocalDate.ofEpochDay(epochDays[row]);
+    }
+
+    public long getAmountCents(int row) {
+        return amountCents[row];
+    }
+
+    public int getRefId(int row) {
+        return refIds[row];
+    }
+
+    public String getCategory(int row) {
+        return categoryNames[categories[row]];
+    }
+
+    // Rough heap use of the columns, for comparing against the object model
+    public long heapBytes() {
+        return (long) ids.length * (4 + 4 + 8 + 4 + 1);
+    }
+
+    // Count and amount per category for rows dated startDate..endDate inclusive, or for every row when either date is null
+    public Totals groupByCategory(LocalDate startDate, LocalDate endDate) {
+        int from = startDate == null || endDate == null ? 0 : firstOnOrAfter(startDate.toEpochDay());
+        int to = startDate == null || endDate == null ? size : firstOnOrAfter(endDate.toEpochDay() + 1);
+        long[] counts = new long[categoryNames.length];
+        long[] cents = new long[categoryNames.length];
+        // No filter inside the loop, the range is already a slice. Straight loads and adds the JIT can unroll
+        for (int i = from; i < to; i++) {
+            int category = categories[i];
+            counts[category]++;
+            cents[category] += amountCents[i];
+        }
+        return new Totals(categoryNames, counts, cents);
+    }
+
+    // Count and amount per category of each row's referenced row in refs (e.g. a payment's order type, through its
+    // order_id) for rows dated startDate..endDate inclusive, or for every row when either date is null. Rows whose
+    // reference isn't in refs are left out, so refresh refs after this snapshot
+    public Totals groupByRefCategory(LocalDate startDate, LocalDate endDate, TransactionColumns refs) {
+        int from = startDate == null || endDate == null ? 0 : firstOnOrAfter(startDate.toEpochDay());
+        int to = startDate == null || endDate == null ? size : firstOnOrAfter(endDate.toEpochDay() + 1);
+        byte[] refCategories = refs.categoryById();
+        long[] counts = new long[refs.categoryNames.length];
+        long[] cents = new long[refs.categoryNames.length];
+        for (int i = from; i < to; i++) {
+            int ref = refIds[i];
+            int category = ref >= 0 && ref < refCategories.length ? refCategories[ref] : -1;
+            if (category >= 0) {
+                counts[category]++;
+                cents[category] += amountCents[i];
+            }
+        }
+        return new Totals(refs.categoryNames, counts, cents);
+    }
+
+    private byte[] categoryById() {
+        byte[] byId = categoryById;
+        if (byId == null) {
+            byId = new byte[maxId + 1];
+            Arrays.fill(byId, (byte) -1);
+            for (int i = 0; i < size; i++) {
+                byId[ids[i]] = categories[i];
+            }
+            categoryById = byId;
+        }
+        return byId;
+    }
+
+    // Amount in cents per day from startDate to endDate inclusive, index 0 being startDate
+    public long[] dailyTotals(LocalDate startDate, LocalDate endDate) {
+        int firstDay = (int) startDate.toEpochDay();
+        long[] totals = new long[Math.max(0, (int) endDate.toEpochDay() - firstDay + 1)];
+        int to = firstOnOrAfter(endDate.toEpochDay() + 1);
+        for (int i = firstOnOrAfter(firstDay); i < to; i++) {
+            totals[epochDays[i] - firstDay] += amountCents[i];
+        }
+        return totals;
+    }
+
+    // Index of the first row dated on or after the given epoch day
+    private int firstOnOrAfter(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isMySql(Connection conn) throws SQLException {
+        return conn.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+    }
+
+    // Which table and columns a TransactionColumns is read from
+    public static class Source {
+        private final String table;
+        private final String idColumn;
+        private final String dateColumn;
+        private final String amountColumn;
+        private final String refColumn;
+        private final String categoryColumn;
+
+        private Source(String table, String idColumn, String dateColumn, String amountColumn, String refColumn, String categoryColumn) {
+            this.table = table;
+            this.idColumn = idColumn;
+            this.dateColumn = dateColumn;
+            this.amountColumn = amountColumn;
+            this.refColumn = refColumn;
+            this.categoryColumn = categoryColumn;
+        }
+
+        // Every row with an id above the parameter, in id order: the whole table on the first load, then just the new rows
+        public String deltaSql() {
+            return "SELECT " + idColumn + ", " + dateColumn + ", " + amountColumn + ", " + refColumn + ", " + categoryColumn
+                    + " FROM " + table + " WHERE " + idColumn + " > ? ORDER BY " + idColumn;
+        }
+    }
+
+    // Result of groupByCategory, one entry per category seen in the table (zero when none fell in the range)
+    public static class Totals {
+        private final String[] categories;
+        private final long[] counts;
+        private final long[] cents;
+
+        private Totals(String[] categories, long[] counts, long[] cents) {
+            this.categories = categories;
+            this.counts = counts;
+            this.cents = cents;
+        }
+
+        public int size() {
+            return categories.length;
+        }
+
+        public String getCategory(int i) {
+            return categories[i];
+        }
+
+        public long getCount(int i) {
+            return counts[i];
+        }
+
+        public long getCents(int i) {
+            return cents[i];
+        }
+    }
+}
@@ -2,7 +2,9 @@ module com.mycompany.databasefinal {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
-    requires java.base;
+    requires java.base;
+    requires java.logging;
+    requires java.management;
 
 
     opens com.mycompany.databasefinal to javafx.fxml;
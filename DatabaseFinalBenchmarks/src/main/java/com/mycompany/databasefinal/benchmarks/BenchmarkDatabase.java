@@ -0,0 +1,120 @@
+package com.mycompany.databasefinal.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+// An in-memory H2 database (MySQL mode) with the app's schema, seeded by DataGenerator. The scale is the number of
+// orders; payments match it, and the other tables are sized from it. Seeding is deterministic so runs compare
+public class BenchmarkDatabase implements AutoCloseable {
+
+    static final LocalDate FIRST_DAY = LocalDate.of(2021, 1, 1);
+    static final int DAYS = 3 * 365;
+    private static final int BATCH_SIZE = 5000;
+
+    private final Connection connection;
+    private final DataGenerator generator;
+    private int rentals;
+
+    private BenchmarkDatabase(Connection connection, DataGenerator generator) {
+        this.connection = connection;
+        this.generator = generator;
+    }
+
+    // Creates and seeds a fresh database with the given number of orders
+    public static BenchmarkDatabase create(int orders) throws SQLException {
+        String url = "jdbc:h2:mem:gamevault_" + orders + "_" + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE";
+        int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        DataGenerator generator = new DataGenerator(() -> DriverManager.getConnection(url, "sa", ""), orders, threads, BATCH_SIZE, 42, FIRST_DAY, DAYS);
+        BenchmarkDatabase db = new BenchmarkDatabase(DriverManager.getConnection(url, "sa", ""), generator);
+        db.createSchema();
+        try {
+            generator.generate();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Seeding was interrupted", e);
+        }
+        db.rentals = db.countRows("Rentals");
+        db.fillRollups();
+        return db;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public int getOrderCount() {
+        return (int) generator.getOrderCount();
+    }
+
+    public int getGameCount() {
+        return generator.getGameCount();
+    }
+
+    public int getCustomerCount() {
+        return generator.getCustomerCount();
+    }
+
+    public int getRentalCount() {
+        return rentals;
+    }
+
+    private void createSchema() throws SQLException {
+        String script;
+        try (InputStream in = BenchmarkDatabase.class.getResourceAsStream("/bench-schema.sql")) {
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Could not read bench-schema.sql", e);
+        }
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : script.replaceAll("(?m)^--.*$", "").split(";")) {
+                if (!sql.trim().isEmpty()) {
+                    stmt.execute(sql);
+                }
+            }
+        }
+    }
+
+    // What RebuildDailyRollups computes on MySQL, as plain grouping queries H2 runs too
+    private void fillRollups() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO DailyGameSales (sales_date, game_id, units_sold, revenue, rentals_count) "
+                    + "SELECT sales_date, game_id, SUM(units_sold), SUM(revenue), SUM(rentals_count) FROM ("
+                    + "  SELECT o.order_date AS sales_date, od.game_id, od.quantity AS units_sold, od.quantity * od.unit_price AS revenue, 0 AS rentals_count"
+                    + "  FROM Orders o JOIN OrderDetails od ON od.order_id = o.order_id WHERE o.order_type = 'Purchase'"
+                    + "  UNION ALL SELECT received_date, game_id, 0, 0, 1 FROM Rentals"
+                    + ") sales GROUP BY sales_date, game_id");
+            stmt.execute("INSERT INTO DailyEmployeeSales (sales_date, employee_id, lines_sold, units_sold, revenue, rentals_count) "
+                    + "SELECT sales_date, employee_id, SUM(lines_sold), SUM(units_sold), SUM(revenue), SUM(rentals_count) FROM ("
+                    + "  SELECT o.order_date AS sales_date, od.employee_id, 1 AS lines_sold, od.quantity AS units_sold, od.quantity * od.unit_price AS revenue, 0 AS rentals_count"
+                    + "  FROM Orders o JOIN OrderDetails od ON od.order_id = o.order_id WHERE o.order_type = 'Purchase' AND od.employee_id IS NOT NULL"
+                    + "  UNION ALL SELECT received_date, employee_id, 0, 0, 0, 1 FROM Rentals"
+                    + ") sales GROUP BY sales_date, employee_id");
+            stmt.execute("INSERT INTO DailyPaymentTotals (payment_date, payment_method, slot, payment_count, amount_total) "
+                    + "SELECT payment_date, payment_method, 0, COUNT(*), SUM(amount_paid) FROM Payments GROUP BY payment_date, payment_method");
+        }
+    }
+
+    private int countRows(String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        } finally {
+            connection.close();
+        }
+    }
+}
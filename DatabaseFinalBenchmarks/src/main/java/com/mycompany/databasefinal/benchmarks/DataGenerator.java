@@ -0,0 +1,483 @@
+package com.mycompany.databasefinal.benchmarks;
+
+import com.mycompany.databasefinal.Money;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fills an empty game_vault_db schema with synthetic, referentially consistent data at a chosen scale. Scale 1 is one
+// million orders (about 3.9 million rows across all tables); best sellers, regular customers, card payments and recent
+// dates are skewed the way real sales are. Orders are split into chunks that worker threads insert in parallel, each
+// chunk as one batched transaction. Every chunk has its own seed, so the data is the same for any thread count.
+//
+//   java -cp DatabaseFinalBenchmarks/target/benchmarks.jar com.mycompany.databasefinal.benchmarks.DataGenerator \
+//        --url jdbc:mysql://localhost:3306/game_vault_db --user root --password secret --scale 13 --threads 8
+public class DataGenerator {
+
+    public static final int ORDERS_PER_SCALE = 1_000_000;
+    static final String[] GENRES = {"Action", "Adventure", "Puzzle", "RPG", "Shooter", "Strategy", "Racing", "Sports", "Simulation", "Horror"};
+    static final String[] PLATFORMS = {"PC", "PlayStation", "Xbox", "Nintendo Switch", "Mobile"};
+    static final String[] PAYMENT_METHODS = {"Credit Card", "Debit Card", "Cash", "Paypal", "Venmo"};
+    // Cumulative share of each payment method, in PAYMENT_METHODS order
+    private static final double[] PAYMENT_METHOD_SHARE = {0.45, 0.70, 0.85, 0.95, 1.0};
+    static final String[] TITLE_WORDS = {"Epic", "Adventure", "Battle", "Royale", "Puzzle", "Master", "Fantasy", "Quest",
+            "Space", "Shooter", "Chess", "Dragon", "Shadow", "Legend", "Knight", "Star", "Racing", "City", "World", "Dark",
+            "Souls", "Galaxy", "Ninja", "Pirate", "Zombie", "Kingdom", "Empire", "Robot", "Ocean", "Castle"};
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Mike", "Emily", "Chris", "Alex", "Sam", "Taylor",
+            "Jordan", "Morgan", "Casey", "Riley", "Jamie", "Avery", "Quinn", "Drew"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Johnson", "Williams", "Brown", "Taylor", "Miller",
+            "Wilson", "Moore", "Anderson", "Thomas", "Jackson", "White", "Harris", "Martin", "Garcia"};
+    private static final long RENTAL_FEE_CENTS = 665;
+    private static final int CHUNK_SIZE = 10_000;
+
+    private final ConnectionSource connections;
+    private final long orders;
+    private final int games;
+    private final int customers;
+    private final int employees;
+    private final int threads;
+    private final int batchSize;
+    private final long seed;
+    private final LocalDate firstDay;
+    private final int days;
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    // Opens a new connection to the target database, called once per chunk
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    public DataGenerator(ConnectionSource connections, long orders, int threads, int batchSize, long seed, LocalDate firstDay, int days) {
+        if (orders < 1 || threads < 1 || batchSize < 1 || days < 1) {
+            throw new IllegalArgumentException("orders, threads, batchSize and days must all be positive");
+        }
+        this.connections = connections;
+        this.orders = orders;
+        this.games = (int) Math.max(100, Math.min(500_000, orders / 20));
+        this.customers = (int) Math.min(Integer.MAX_VALUE, Math.max(100, orders / 10));
+        this.employees = (int) Math.max(10, Math.min(5_000, orders / 20_000));
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.seed = seed;
+        this.firstDay = firstDay;
+        this.days = days;
+    }
+
+    // Sized from a scale factor (1.0 = one million orders), over the three years up to today
+    public static DataGenerator forScale(ConnectionSource connections, double scale, int threads, int batchSize) {
+        return new DataGenerator(connections, Math.max(1, Math.round(scale * ORDERS_PER_SCALE)), threads, batchSize, 42,
+                LocalDate.now().minusDays(3 * 365), 3 * 365);
+    }
+
+    public long getOrderCount() {
+        return orders;
+    }
+
+    public int getGameCount() {
+        return games;
+    }
+
+    public int getCustomerCount() {
+        return customers;
+    }
+
+    public int getEmployeeCount() {
+        return employees;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    // Customers with a membership, the only ones allowed to rent (see CheckOrderBeforeInsert)
+    static boolean isMember(int customerId) {
+        return customerId % 3 == 0;
+    }
+
+    // A member's order total after CheckOrderBeforeInsert's 10% discount, rounded half up to the cent as MySQL rounds
+    // total_amount * 0.9 into DECIMAL(10,2)
+    static long memberTotal(long cents) {
+        return (cents * 9 + 5) / 10;
+    }
+
+    // Loads everything. The schema must be empty, since generated ids start at 1
+    public void generate() throws SQLException, InterruptedException {
+        try (Connection conn = connections.open()) {
+            requireEmpty(conn);
+            insertReferenceData(conn);
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            // Parents first so every foreign key a chunk writes already exists
+            List<Future<?>> parents = new ArrayList<>();
+            for (int start = 1; start <= games; start += CHUNK_SIZE) {
+                int from = start;
+                int to = Math.min(games, start + CHUNK_SIZE - 1);
+                parents.add(workers.submit(() -> {
+                    inChunk(from, conn -> insertGames(conn, from, to));
+                    return null;
+                }));
+            }
+            for (int start = 1; start <= customers; start += CHUNK_SIZE) {
+                int from = start;
+                int to = Math.min(customers, start + CHUNK_SIZE - 1);
+                parents.add(workers.submit(() -> {
+                    inChunk(from, conn -> insertCustomers(conn, from, to));
+                    return null;
+                }));
+            }
+            await(parents);
+            List<Future<?>> sales = new ArrayList<>();
+            for (long start = 1; start <= orders; start += CHUNK_SIZE) {
+                long from = start;
+                long to = Math.min(orders, start + CHUNK_SIZE - 1);
+                sales.add(workers.submit(() -> {
+                    inChunk(from, conn -> insertOrders(conn, from, to));
+                    return null;
+                }));
+            }
+            await(sales);
+        } finally {
+            workers.shutdownNow();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        try (Connection conn = connections.open()) {
+            if (isMySql(conn)) {
+                // The counting triggers were skipped during the load
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CALL RebuildGameSales()");
+                    stmt.execute("CALL RebuildDailyRollups(NULL, NULL)");
+                }
+            }
+        }
+    }
+
+    private void requireEmpty(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT (SELECT COUNT(*) FROM Games) + (SELECT COUNT(*) FROM Customers) + (SELECT COUNT(*) FROM Orders)")) {
+            if (rs.next() && rs.getLong(1) > 0) {
+                throw new SQLException("DataGenerator needs an empty schema, run create_game_db.sql first");
+            }
+        }
+    }
+
+    private void insertReferenceData(Connection conn) throws SQLException {
+        Random random = new Random(seed);
+        conn.setAutoCommit(false);
+        try (PreparedStatement genre = conn.prepareStatement("INSERT INTO Genres (genre_id, genre_name) VALUES (?, ?)");
+             PreparedStatement platform = conn.prepareStatement("INSERT INTO Platforms (platform_id, platform_name) VALUES (?, ?)");
+             PreparedStatement employee = conn.prepareStatement(
+                     "INSERT INTO Employees (employee_id, first_name, last_name, hire_date, role, salary) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < GENRES.length; i++) {
+                genre.setInt(1, i + 1);
+                genre.setString(2, GENRES[i]);
+                genre.addBatch();
+            }
+            genre.executeBatch();
+            for (int i = 0; i < PLATFORMS.length; i++) {
+                platform.setInt(1, i + 1);
+                platform.setString(2, PLATFORMS[i]);
+                platform.addBatch();
+            }
+            platform.executeBatch();
+            for (int id = 1; id <= employees; id++) {
+                employee.setInt(1, id);
+                employee.setString(2, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                employee.setString(3, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                employee.setDate(4, Date.valueOf(firstDay.minusDays(random.nextInt(3000))));
+                employee.setString(5, id % 10 == 0 ? "Manager" : id % 4 == 0 ? "Technician" : "Salesperson");
+                Money.set(employee, 6, 100 * (35_000 + 500 * random.nextInt(40)));
+                addToBatch(employee, id);
+            }
+            employee.executeBatch();
+            conn.commit();
+            rowsWritten.addAndGet(GENRES.length + PLATFORMS.length + employees);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void insertGames(Connection conn, int from, int to) throws SQLException {
+        Random random = new Random(seed ^ (0x9E3779B97F4A7C15L * from));
+        try (PreparedStatement game = conn.prepareStatement(
+                     "INSERT INTO Games (game_id, title, genre_id, platform_id, year_released, price) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement inventory = conn.prepareStatement(
+                     "INSERT INTO Inventory (game_id, quantity_in_stock, restock_date) VALUES (?, ?, ?)")) {
+            for (int id = from; id <= to; id++) {
+                game.setInt(1, id);
+                game.setString(2, title(random, id));
+                game.setInt(3, 1 + skewed(random, GENRES.length, 2));
+                game.setInt(4, 1 + skewed(random, PLATFORMS.length, 2));
+                game.setInt(5, 1990 + (int) (35 * Math.sqrt(random.nextDouble())));
+                Money.set(game, 6, price(id));
+                game.addBatch();
+                inventory.setInt(1, id);
+                // Best sellers (low ids) carry more stock
+                inventory.setInt(2, random.nextInt(id < games / 10 ? 200 : 20));
+                inventory.setDate(3, random.nextInt(10) == 0 ? null : Date.valueOf(day(random)));
+                inventory.addBatch();
+                if ((id - from + 1) % batchSize == 0) {
+                    game.executeBatch();
+                    inventory.executeBatch();
+                }
+            }
+            game.executeBatch();
+            inventory.executeBatch();
+        }
+        rowsWritten.addAndGet(2L * (to - from + 1));
+    }
+
+    private void insertCustomers(Connection conn, int from, int to) throws SQLException {
+        Random random = new Random(seed ^ (0xC2B2AE3D27D4EB4FL * from));
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO Customers (customer_id, first_name, last_name, email, is_member) VALUES (?, ?, ?, ?, ?)")) {
+            for (int id = from; id <= to; id++) {
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                stmt.setInt(1, id);
+                stmt.setString(2, first);
+                stmt.setString(3, last);
+                stmt.setString(4, (first + "." + last + "." + id + "@example.com").toLowerCase());
+                stmt.setBoolean(5, isMember(id));
+                addToBatch(stmt, id - from + 1);
+            }
+            stmt.executeBatch();
+        }
+        rowsWritten.addAndGet(to - from + 1);
+    }
+
+    // Orders from..to with their order details, payment and (for rentals) the Rentals row, the same rows InsertOrderWithDetails writes
+    private void insertOrders(Connection conn, long from, long to) throws SQLException {
+        Random random = new Random(seed ^ (0x165667B19E3779F9L * from));
+        LocalDate lastDay = firstDay.plusDays(days - 1);
+        long rows = 0;
+        try (PreparedStatement order = conn.prepareStatement(
+                     "INSERT INTO Orders (order_id, customer_id, order_date, order_type, total_amount) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement detail = conn.prepareStatement(
+                     "INSERT INTO OrderDetails (order_id, game_id, employee_id, quantity, unit_price) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement payment = conn.prepareStatement(
+                     "INSERT INTO Payments (order_id, payment_date, payment_method, amount_paid) VALUES (?, ?, ?, ?)");
+             PreparedStatement rental = conn.prepareStatement(
+                     "INSERT INTO Rentals (customer_id, game_id, employee_id, received_date, returned_date, rental_fee) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (long orderId = from; orderId <= to; orderId++) {
+                LocalDate date = day(random);
+                int employeeId = 1 + random.nextInt(employees);
+                boolean isRental = random.nextInt(5) == 0;
+                int customerId;
+                long total;
+                if (isRental) {
+                    // Only members rent, and a rental is one game at a flat fee
+                    customerId = 3 * (1 + skewed(random, Math.max(1, customers / 3), 2));
+                    int gameId = 1 + skewed(random, games, 3);
+                    total = RENTAL_FEE_CENTS;
+                    addDetail(detail, orderId, gameId, employeeId, 1, price(gameId));
+                    rental.setInt(1, customerId);
+                    rental.setInt(2, gameId);
+                    rental.setInt(3, employeeId);
+                    rental.setDate(4, Date.valueOf(date));
+                    LocalDate returned = date.plusDays(1 + random.nextInt(21));
+                    // Recent rentals may still be out, and a few never come back
+                    boolean stillOut = returned.isAfter(lastDay) || random.nextInt(50) == 0;
+                    rental.setDate(5, stillOut ? null : Date.valueOf(returned));
+                    Money.set(rental, 6, price(gameId));
+                    rental.addBatch();
+                    rows += 2;
+                } else {
+                    customerId = 1 + skewed(random, customers, 2);
+                    int lines = random.nextInt(100) < 70 ? 1 : random.nextInt(100) < 70 ? 2 : 3;
+                    total = 0;
+                    for (int line = 0; line < lines; line++) {
+                        int gameId = 1 + skewed(random, games, 3);
+                        int quantity = random.nextInt(100) < 85 ? 1 : 2 + random.nextInt(3);
+                        long unitPrice = price(gameId);
+                        total += Money.times(unitPrice, quantity);
+                        addDetail(detail, orderId, gameId, employeeId, quantity, unitPrice);
+                    }
+                    rows += lines;
+                }
+                // The trigger skips the discount during bulk loads, so the order and its payment both get it here
+                if (isMember(customerId)) {
+                    total = memberTotal(total);
+                }
+                order.setLong(1, orderId);
+                order.setInt(2, customerId);
+                order.setDate(3, Date.valueOf(date));
+                order.setString(4, isRental ? "Rental" : "Purchase");
+                Money.set(order, 5, total);
+                order.addBatch();
+                payment.setLong(1, orderId);
+                payment.setDate(2, Date.valueOf(date));
+                payment.setString(3, paymentMethod(random));
+                Money.set(payment, 4, total);
+                payment.addBatch();
+                rows += 2;
+                if ((orderId - from + 1) % batchSize == 0) {
+                    // Parents before children within every batch
+                    order.executeBatch();
+                    detail.executeBatch();
+                    payment.executeBatch();
+                    rental.executeBatch();
+                }
+            }
+            order.executeBatch();
+            detail.executeBatch();
+            payment.executeBatch();
+            rental.executeBatch();
+        }
+        rowsWritten.addAndGet(rows);
+    }
+
+    private static void addDetail(PreparedStatement detail, long orderId, int gameId, int employeeId, int quantity, long unitPrice) throws SQLException {
+        detail.setLong(1, orderId);
+        detail.setInt(2, gameId);
+        detail.setInt(3, employeeId);
+        detail.setInt(4, quantity);
+        Money.set(detail, 5, unitPrice);
+        detail.addBatch();
+    }
+
+    // Runs one chunk in its own transaction on its own connection. Bulk-load mode turns off the GameSales triggers and
+    // the member discount in CheckOrderBeforeInsert (insertOrders applies it), and on MySQL the per-row unique and
+    // foreign key checks, since the generated ids are consistent by construction
+    private void inChunk(long chunkStart, ChunkWork work) throws SQLException {
+        try (Connection conn = connections.open()) {
+            boolean mySql = isMySql(conn);
+            if (mySql) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SET @gamevault_bulk_load = 1, unique_checks = 0, foreign_key_checks = 0");
+                }
+            }
+            conn.setAutoCommit(false);
+            try {
+                work.run(conn);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw new SQLException("Chunk starting at id " + chunkStart + " failed", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWork {
+        void run(Connection conn) throws SQLException;
+    }
+
+    private static boolean isMySql(Connection conn) throws SQLException {
+        return conn.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+    }
+
+    private static void await(List<Future<?>> futures) throws SQLException, InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                for (Future<?> other : futures) {
+                    other.cancel(true);
+                }
+                Throwable cause = e.getCause();
+                throw cause instanceof SQLException ? (SQLException) cause : new SQLException(cause);
+            }
+        }
+    }
+
+    private void addToBatch(PreparedStatement stmt, int row) throws SQLException {
+        stmt.addBatch();
+        if (row % batchSize == 0) {
+            stmt.executeBatch();
+        }
+    }
+
+    // A value in 0..count-1 heavily weighted toward 0. Higher power means a steeper skew (3 puts about half the picks in the first eighth)
+    static int skewed(Random random, int count, int power) {
+        return (int) (count * Math.pow(random.nextDouble(), power));
+    }
+
+    // Dates lean toward the recent end of the range, the way a growing store's sales do
+    private LocalDate day(Random random) {
+        return firstDay.plusDays((long) (days * Math.sqrt(random.nextDouble())));
+    }
+
+    private static String paymentMethod(Random random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < PAYMENT_METHOD_SHARE.length; i++) {
+            if (u < PAYMENT_METHOD_SHARE[i]) {
+                return PAYMENT_METHODS[i];
+            }
+        }
+        return PAYMENT_METHODS[PAYMENT_METHODS.length - 1];
+    }
+
+    static String title(Random random, int gameId) {
+        String base = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)] + " " + TITLE_WORDS[random.nextInt(TITLE_WORDS.length)];
+        int variant = random.nextInt(10);
+        return variant < 5 ? base + " " + gameId : variant < 8 ? base + " " + (2 + variant - 5) : base + " Deluxe " + gameId;
+    }
+
+    // Price in cents, a function of the game id so order details and rentals agree with Games.price without a lookup
+    static long price(int gameId) {
+        return 499 + 500 * ((gameId * 31) % 12);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "jdbc:mysql://localhost:3306/game_vault_db";
+        String user = "root";
+        String password = "";
+        double scale = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int batchSize = 1000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url": url = args[i + 1]; break;
+                case "--user": user = args[i + 1]; break;
+                case "--password": password = args[i + 1]; break;
+                case "--scale": scale = Double.parseDouble(args[i + 1]); break;
+                case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "--batch": batchSize = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (url.startsWith("jdbc:mysql:") && !url.contains("rewriteBatchedStatements")) {
+            // Without this Connector/J sends every batched row as its own statement
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+        String jdbcUrl = url;
+        String jdbcUser = user;
+        String jdbcPassword = password;
+        DataGenerator generator = forScale(() -> DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword), scale, threads, batchSize);
+        System.out.printf("Generating %,d orders, %,d games, %,d customers with %d threads%n",
+                generator.getOrderCount(), generator.getGameCount(), generator.getCustomerCount(), threads);
+        long start = System.nanoTime();
+        Thread progress = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(5000);
+                    System.out.printf("  %,d rows%n", generator.getRowsWritten());
+                }
+            } catch (InterruptedException e) {
+                // Finished
+            }
+        });
+        progress.setDaemon(true);
+        progress.start();
+        generator.generate();
+        progress.interrupt();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %,d rows in %.1f s (%,.0f rows/s)%n", generator.getRowsWritten(), seconds, generator.getRowsWritten() / seconds);
+    }
+}
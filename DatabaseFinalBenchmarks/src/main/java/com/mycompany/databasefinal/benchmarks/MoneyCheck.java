@@ -0,0 +1,154 @@
+package com.mycompany.databasefinal.benchmarks;
+
+import com.mycompany.databasefinal.Money;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Reads DECIMAL values back through Money.cents and compares them with the exact value from getBigDecimal: every
+// x.x5 and x.x9 amount in the first $1,000 and just below the DECIMAL(10,2) maximum, +/-MAX_COLUMN_CENTS, random
+// column values, SUMs of up to 225,000 maximum-value rows (just under 2^51 cents), and random sums below 2^51 cents.
+// Runs on an in-memory H2 database by default, or on MySQL with --url, where it creates and drops a MoneyCheck
+// table. Exits with status 1 if any value reads back wrong.
+//
+//   java -cp DatabaseFinalBenchmarks/target/benchmarks.jar com.mycompany.databasefinal.benchmarks.MoneyCheck \
+//        [--url jdbc:mysql://localhost:3306/game_vault_db --user root --password secret]
+public class MoneyCheck {
+
+    // Money.cents is documented exact below this many cents
+    private static final long EXACT_LIMIT = 1L << 51;
+    private static final int SUM_ROWS = 225_000;
+
+    private final Connection conn;
+    private int checked;
+    private int failures;
+
+    private MoneyCheck(Connection conn) {
+        this.conn = conn;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "jdbc:h2:mem:moneycheck;MODE=MySQL;DATABASE_TO_UPPER=FALSE";
+        String user = "sa";
+        String password = "";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url": url = args[i + 1]; break;
+                case "--user": user = args[i + 1]; break;
+                case "--password": password = args[i + 1]; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            MoneyCheck check = new MoneyCheck(conn);
+            try {
+                check.run();
+            } finally {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("DROP TABLE IF EXISTS MoneyCheck");
+                }
+            }
+            System.out.printf("%,d values checked, %d read back wrong%n", check.checked, check.failures);
+            if (check.failures > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private void run() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS MoneyCheck");
+            stmt.execute("CREATE TABLE MoneyCheck (id INT PRIMARY KEY, amount DECIMAL(10,2) NOT NULL)");
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        List<Long> values = new ArrayList<>();
+        for (long cents = 0; cents < 100_000; cents += 10) {
+            values.add(cents + 5);
+            values.add(cents + 9);
+            values.add(Money.MAX_COLUMN_CENTS - cents);
+            values.add(Money.MAX_COLUMN_CENTS - cents - 5);
+        }
+        values.add(1L);
+        values.add(-1L);
+        values.add(-Money.MAX_COLUMN_CENTS);
+        for (int i = 0; i < 100_000; i++) {
+            values.add(random.nextLong(-Money.MAX_COLUMN_CENTS, Money.MAX_COLUMN_CENTS + 1));
+        }
+        insert(values);
+        System.out.printf("Column values: %,d rows%n", values.size());
+        compare("SELECT amount FROM MoneyCheck", "column value");
+
+        // Sums of maximum-value rows, the largest just under 2^51 cents
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM MoneyCheck");
+        }
+        List<Long> maxima = new ArrayList<>();
+        for (int i = 0; i < SUM_ROWS; i++) {
+            maxima.add(i % 2 == 0 ? Money.MAX_COLUMN_CENTS : Money.MAX_COLUMN_CENTS - 5);
+        }
+        insert(maxima);
+        for (int rows : new int[] {2, 1_000, 100_000, SUM_ROWS - 1, SUM_ROWS}) {
+            compare("SELECT SUM(amount) FROM MoneyCheck WHERE id < " + rows, "SUM of " + rows + " rows");
+        }
+
+        // Sums too large to build from rows, bound as DECIMAL(20,2) literals. Below 2^51 they must all read exactly
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT CAST(? AS DECIMAL(20,2))")) {
+            for (int i = 0; i < 20_000; i++) {
+                long cents = i < 100 ? EXACT_LIMIT - 1 - i : random.nextLong(Money.MAX_COLUMN_CENTS, EXACT_LIMIT);
+                stmt.setBigDecimal(1, BigDecimal.valueOf(cents, 2));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    expect(rs, "large sum");
+                }
+            }
+        }
+        System.out.println("Large sums: 20,000 values below 2^51 cents");
+    }
+
+    private void insert(List<Long> values) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO MoneyCheck (id, amount) VALUES (?, ?)")) {
+            for (int i = 0; i < values.size(); i++) {
+                stmt.setInt(1, i);
+                Money.set(stmt, 2, values.get(i));
+                stmt.addBatch();
+                if (i % 5_000 == 4_999) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void compare(String sql, String label) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                expect(rs, label);
+            }
+        }
+    }
+
+    // Column 1 read through Money.cents against its exact value, printing the first few mismatches
+    private void expect(ResultSet rs, String label) throws SQLException {
+        long exact = rs.getBigDecimal(1).movePointRight(2).longValueExact();
+        long read = Money.cents(rs, 1);
+        checked++;
+        if (read != exact) {
+            failures++;
+            if (failures <= 20) {
+                System.out.printf("  %s: %s read as %s%n", label, Money.format(exact), Money.format(read));
+            }
+        }
+    }
+}
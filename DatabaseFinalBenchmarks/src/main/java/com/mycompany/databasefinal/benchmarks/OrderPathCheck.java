@@ -0,0 +1,93 @@
+package com.mycompany.databasefinal.benchmarks;
+
+import com.mycompany.databasefinal.Money;
+import com.mycompany.databasefinal.OrderService;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+// Places the same order through both of OrderService's paths, the InsertOrderWithDetails procedure (placeOrder) and
+// the batched cart transaction (placeCartOrder with one line), and checks that they store the same order total and
+// charge the same amount_paid: a purchase by a member (10% discount), a purchase by a non-member and a member rental.
+// Needs a MySQL game_vault_db with the procedures installed and some data (run DataGenerator first); it adds the six
+// orders it places. Exits with status 1 if any pair differs.
+//
+//   java -cp DatabaseFinalBenchmarks/target/benchmarks.jar com.mycompany.databasefinal.benchmarks.OrderPathCheck \
+//        --url jdbc:mysql://localhost:3306/game_vault_db --user root --password secret
+public class OrderPathCheck {
+
+    private static final String LAST_ORDER_SQL = "SELECT o.order_id, o.total_amount, p.amount_paid FROM Orders o "
+            + "JOIN Payments p ON p.order_id = o.order_id WHERE o.customer_id = ? ORDER BY o.order_id DESC LIMIT 1";
+    private static final String ORDER_SQL = "SELECT o.order_id, o.total_amount, p.amount_paid FROM Orders o "
+            + "JOIN Payments p ON p.order_id = o.order_id WHERE o.order_id = ?";
+
+    public static void main(String[] args) throws Exception {
+        String url = "jdbc:mysql://localhost:3306/game_vault_db";
+        String user = "root";
+        String password = "";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url": url = args[i + 1]; break;
+                case "--user": user = args[i + 1]; break;
+                case "--password": password = args[i + 1]; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            int member = firstId(conn, "SELECT customer_id FROM Customers WHERE is_member = TRUE ORDER BY customer_id LIMIT 1");
+            int nonMember = firstId(conn, "SELECT customer_id FROM Customers WHERE is_member = FALSE ORDER BY customer_id LIMIT 1");
+            int employee = firstId(conn, "SELECT employee_id FROM Employees ORDER BY employee_id LIMIT 1");
+            int game = firstId(conn, "SELECT game_id FROM Inventory WHERE quantity_in_stock >= 10 ORDER BY game_id LIMIT 1");
+            if (member < 0 || nonMember < 0 || employee < 0 || game < 0) {
+                throw new IllegalStateException("Load some data first (DataGenerator), need a member, a non-member, an employee and a game in stock");
+            }
+            boolean mismatch = false;
+            mismatch |= !compare(conn, "member purchase", member, employee, "Purchase", game, 2);
+            mismatch |= !compare(conn, "non-member purchase", nonMember, employee, "Purchase", game, 2);
+            mismatch |= !compare(conn, "member rental", member, employee, "Rental", game, 1);
+            System.out.println(mismatch ? "MISMATCH between the order paths" : "Both order paths charge the same");
+            if (mismatch) {
+                System.exit(1);
+            }
+        }
+    }
+
+    // Places the order both ways and prints the two (total, paid) pairs
+    private static boolean compare(Connection conn, String label, int customer, int employee, String orderType,
+                                   int game, int quantity) throws SQLException {
+        LocalDate today = LocalDate.now();
+        OrderService.placeOrder(conn, customer, employee, orderType, "Cash", today, game, quantity);
+        long[] procedure = read(conn, LAST_ORDER_SQL, customer);
+        int cartOrderId = OrderService.placeCartOrder(conn, customer, employee, orderType, "Cash", today,
+                List.of(new OrderService.LineItem(game, quantity)));
+        long[] cart = read(conn, ORDER_SQL, cartOrderId);
+        boolean same = procedure[1] == cart[1] && procedure[2] == cart[2];
+        System.out.printf("  %-20s procedure order %d total %s paid %s | cart order %d total %s paid %s  %s%n", label,
+                procedure[0], Money.formatDollars(procedure[1]), Money.formatDollars(procedure[2]),
+                cart[0], Money.formatDollars(cart[1]), Money.formatDollars(cart[2]), same ? "OK" : "MISMATCH");
+        return same;
+    }
+
+    // order_id, total_amount and amount_paid (in cents) of the order the query finds
+    private static long[] read(Connection conn, String sql, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("No order with a payment found for " + id);
+                }
+                return new long[]{rs.getInt("order_id"), Money.cents(rs, "total_amount"), Money.cents(rs, "amount_paid")};
+            }
+        }
+    }
+
+    private static int firstId(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+}
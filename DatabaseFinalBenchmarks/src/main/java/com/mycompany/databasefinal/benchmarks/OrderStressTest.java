@@ -0,0 +1,189 @@
+package com.mycompany.databasefinal.benchmarks;
+
+import com.mycompany.databasefinal.OrderService;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Many registers selling the same few launch titles at once. Every thread places purchases of 1-3 copies through
+// OrderService as fast as it can on its own connection until the orders run out, then the tool checks that stock
+// never went negative and that each hot game's stock dropped by exactly the units of the orders that succeeded.
+// With --cart-size N above 1 every order is a cart of N different hot games placed with OrderService.placeCartOrder,
+// which also shows whether carts sharing games deadlock (they shouldn't, lines are locked in game_id order).
+// Needs a MySQL game_vault_db with the procedures installed and some data (run DataGenerator first); it only updates
+// the hot games' Inventory rows and adds orders. Exits with status 1 if anything was oversold.
+//
+//   java -cp DatabaseFinalBenchmarks/target/benchmarks.jar com.mycompany.databasefinal.benchmarks.OrderStressTest \
+//        --url jdbc:mysql://localhost:3306/game_vault_db --user root --password secret --threads 32 --orders 20000
+public class OrderStressTest {
+
+    public static void main(String[] args) throws Exception {
+        String url = "jdbc:mysql://localhost:3306/game_vault_db";
+        String user = "root";
+        String password = "";
+        int threads = 32;
+        int orders = 20_000;
+        int hotGames = 3;
+        int stock = -1;
+        int cartSize = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url": url = args[i + 1]; break;
+                case "--user": user = args[i + 1]; break;
+                case "--password": password = args[i + 1]; break;
+                case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                case "--orders": orders = Integer.parseInt(args[i + 1]); break;
+                case "--hot-games": hotGames = Integer.parseInt(args[i + 1]); break;
+                case "--stock": stock = Integer.parseInt(args[i + 1]); break;
+                case "--cart-size": cartSize = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (url.startsWith("jdbc:mysql:") && !url.contains("useServerPrepStmts")) {
+            url += (url.contains("?") ? "&" : "?") + "useServerPrepStmts=true&cachePrepStmts=true";
+        }
+        // By default there is stock for about two thirds of the units ordered (2 per order on average), so the run
+        // exercises both selling and running out
+        int startingStock = stock >= 0 ? stock : orders * 4 / 3 / hotGames;
+        String jdbcUrl = url;
+        String jdbcUser = user;
+        String jdbcPassword = password;
+        int linesPerOrder = Math.max(1, Math.min(cartSize, hotGames));
+
+        int[] gameIds;
+        int[] customers;
+        int[] employees;
+        try (Connection conn = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword)) {
+            gameIds = firstIds(conn, "SELECT game_id FROM Games ORDER BY game_id LIMIT " + hotGames);
+            customers = firstIds(conn, "SELECT customer_id FROM Customers ORDER BY customer_id LIMIT 1000");
+            employees = firstIds(conn, "SELECT employee_id FROM Employees ORDER BY employee_id LIMIT 100");
+            if (gameIds.length < hotGames || customers.length == 0 || employees.length == 0) {
+                throw new IllegalStateException("Load some data first (DataGenerator), need games, customers and employees");
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("UPDATE Inventory SET quantity_in_stock = ? WHERE game_id = ?")) {
+                for (int gameId : gameIds) {
+                    stmt.setInt(1, startingStock);
+                    stmt.setInt(2, gameId);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+
+        System.out.printf("%,d purchases (%d game%s each) of %d hot games (%,d in stock each) from %d threads%n", orders,
+                linesPerOrder, linesPerOrder == 1 ? "" : "s", hotGames, startingStock, threads);
+        AtomicInteger remaining = new AtomicInteger(orders);
+        AtomicLong[] unitsSold = new AtomicLong[gameIds.length];
+        for (int i = 0; i < unitsSold.length; i++) {
+            unitsSold[i] = new AtomicLong();
+        }
+        AtomicLong placed = new AtomicLong();
+        AtomicLong outOfStock = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long retriesBefore = OrderService.getRetryCount();
+        LocalDate today = LocalDate.now();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long seed = 42 + t;
+            futures.add(workers.submit(() -> {
+                Random random = new Random(seed);
+                try (Connection conn = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword)) {
+                    while (remaining.getAndDecrement() > 0) {
+                        int customer = customers[random.nextInt(customers.length)];
+                        int employee = employees[random.nextInt(employees.length)];
+                        int[] games = pickGames(random, gameIds.length, linesPerOrder);
+                        int[] quantities = new int[games.length];
+                        List<OrderService.LineItem> cart = new ArrayList<>();
+                        for (int i = 0; i < games.length; i++) {
+                            quantities[i] = 1 + random.nextInt(3);
+                            cart.add(new OrderService.LineItem(gameIds[games[i]], quantities[i]));
+                        }
+                        try {
+                            if (games.length == 1) {
+                                OrderService.placeOrder(conn, customer, employee, "Purchase", "Credit Card", today,
+                                        gameIds[games[0]], quantities[0]);
+                            } else {
+                                OrderService.placeCartOrder(conn, customer, employee, "Purchase", "Credit Card", today, cart);
+                            }
+                            for (int i = 0; i < games.length; i++) {
+                                unitsSold[games[i]].addAndGet(quantities[i]);
+                            }
+                            placed.incrementAndGet();
+                        } catch (SQLException e) {
+                            if ("45000".equals(e.getSQLState())) {
+                                outOfStock.incrementAndGet();
+                            } else {
+                                failed.incrementAndGet();
+                                System.err.println("Order failed: " + e);
+                            }
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        workers.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        boolean oversold = false;
+        try (Connection conn = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword);
+             PreparedStatement stmt = conn.prepareStatement("SELECT quantity_in_stock FROM Inventory WHERE game_id = ?")) {
+            for (int i = 0; i < gameIds.length; i++) {
+                stmt.setInt(1, gameIds[i]);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    int left = rs.getInt(1);
+                    long expected = startingStock - unitsSold[i].get();
+                    boolean ok = left >= 0 && left == expected;
+                    oversold |= !ok;
+                    System.out.printf("  game %d: sold %,d units, %,d left (expected %,d) %s%n",
+                            gameIds[i], unitsSold[i].get(), left, expected, ok ? "OK" : "MISMATCH");
+                }
+            }
+        }
+        System.out.printf("%,d placed, %,d rejected for stock, %,d failed, %,d deadlock retries in %.1f s (%,.0f orders/s)%n",
+                placed.get(), outOfStock.get(), failed.get(), OrderService.getRetryCount() - retriesBefore, seconds,
+                (placed.get() + outOfStock.get()) / seconds);
+        System.out.println(oversold ? "OVERSOLD" : "No oversells");
+        if (oversold || failed.get() > 0) {
+            System.exit(1);
+        }
+    }
+
+    // count different indexes below bound, in random order so carts list their games differently
+    private static int[] pickGames(Random random, int bound, int count) {
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < bound; i++) {
+            all.add(i);
+        }
+        Collections.shuffle(all, random);
+        return all.subList(0, count).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] firstIds(Connection conn, String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,112 @@
+package com.mycompany.databasefinal.benchmarks;
+
+import com.mycompany.databasefinal.Money;
+import com.mycompany.databasefinal.Payment;
+import com.mycompany.databasefinal.PaymentAnalytics;
+import com.mycompany.databasefinal.RowMappers;
+import com.mycompany.databasefinal.TransactionColumns;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The Payments screen's per-method totals for a date range: PaymentAnalytics reading the DailyPaymentTotals rollup,
+// against the GROUP BY over raw Payments it used to run, the old approach of loading every Payment in the range and
+// grouping the list with streams, and the in-memory columnar kernel over TransactionColumns
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PaymentGroupingBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"30", "365", "1095"})
+    public int rangeDays;
+
+    private BenchmarkDatabase db;
+    private LocalDate start;
+    private LocalDate end;
+    private TransactionColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        db = BenchmarkDatabase.create(rows);
+        start = BenchmarkDatabase.FIRST_DAY;
+        end = start.plusDays(rangeDays - 1);
+        columns = TransactionColumns.empty(TransactionColumns.PAYMENTS).refresh(db.getConnection());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Benchmark
+    public PaymentAnalytics.Summary sqlGroupBy() throws SQLException {
+        return PaymentAnalytics.summarize(db.getConnection(), start, end);
+    }
+
+    @Benchmark
+    public Map<String, Long> rawSqlGroupBy() throws SQLException {
+        Map<String, Long> amounts = new HashMap<>();
+        try (PreparedStatement stmt = db.getConnection().prepareStatement(
+                "SELECT payment_method, COUNT(*) AS payment_count, SUM(amount_paid) AS amount_total "
+                + "FROM Payments WHERE payment_date BETWEEN ? AND ? GROUP BY payment_method ORDER BY payment_method")) {
+            stmt.setDate(1, Date.valueOf(start));
+            stmt.setDate(2, Date.valueOf(end));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    amounts.put(rs.getString("payment_method"), Money.cents(rs, "amount_total"));
+                }
+            }
+        }
+        return amounts;
+    }
+
+    @Benchmark
+    public PaymentAnalytics.Summary columnarGroupBy() {
+        return PaymentAnalytics.summarize(columns.groupByCategory(start, end));
+    }
+
+    @Benchmark
+    public Map<String, Long> clientSideGrouping() throws SQLException {
+        List<Payment> payments = new ArrayList<>();
+        try (PreparedStatement stmt = db.getConnection().prepareStatement("SELECT * FROM Payments WHERE payment_date BETWEEN ? AND ?")) {
+            stmt.setDate(1, Date.valueOf(start));
+            stmt.setDate(2, Date.valueOf(end));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    payments.add(RowMappers.payment(rs));
+                }
+            }
+        }
+        Map<String, Long> counts = payments.stream().collect(Collectors.groupingBy(Payment::getPaymentMethod, Collectors.counting()));
+        Map<String, Long> amounts = payments.stream().collect(Collectors.groupingBy(Payment::getPaymentMethod, Collectors.summingLong(Payment::getAmountCents)));
+        amounts.put("count", counts.values().stream().mapToLong(Long::longValue).sum());
+        return amounts;
+    }
+}
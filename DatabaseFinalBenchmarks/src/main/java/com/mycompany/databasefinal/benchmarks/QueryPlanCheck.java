@@ -0,0 +1,240 @@
+package com.mycompany.databasefinal.benchmarks;
+
+import com.mycompany.databasefinal.CatalogImporter;
+import com.mycompany.databasefinal.CustomerManagementController;
+import com.mycompany.databasefinal.DatabaseUtil;
+import com.mycompany.databasefinal.GamesController;
+import com.mycompany.databasefinal.InventoryController;
+import com.mycompany.databasefinal.OrderService;
+import com.mycompany.databasefinal.PagedTableLoader;
+import com.mycompany.databasefinal.PaymentAnalytics;
+import com.mycompany.databasefinal.PaymentsController;
+import com.mycompany.databasefinal.ReferenceData;
+import com.mycompany.databasefinal.RentalsController;
+import com.mycompany.databasefinal.SalesRollups;
+import com.mycompany.databasefinal.TransactionColumns;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Query plan regression check: runs EXPLAIN on every query the screens, OrderService, the catalog importer, the
+// reference data cache and the rentals job send, and exits with status 1 if any of them reads a whole table that has
+// --min-rows rows or more (access type ALL, or a full index scan). The statements are the app's own SQL constants and
+// PagedTableLoader.pageSql, not copies, so a changed query is checked as it now is; page queries cover the first page
+// and a keyset page for every sortable column. SQL that only exists inside a procedure or trigger (SearchGames,
+// ProcessOverdueRentals, DeleteCustomerHistory) is copied here and marked as such. A few queries scan on purpose (a
+// sort on a computed name column, loading the whole catalog, the LIKE search fallback); they are listed as expected
+// scans and reported without failing. Run it against a database with realistic volumes (DataGenerator) after
+// migrations/ are applied, since on a tiny table the optimizer scans anyway.
+//
+//   java -cp DatabaseFinalBenchmarks/target/benchmarks.jar com.mycompany.databasefinal.benchmarks.QueryPlanCheck \
+//        --url jdbc:mysql://localhost:3306/game_vault_db --user root --password secret
+public class QueryPlanCheck {
+
+    private final Connection conn;
+    private final long minRows;
+    private int failures;
+    private int expected;
+    private int checked;
+
+    private QueryPlanCheck(Connection conn, long minRows) {
+        this.conn = conn;
+        this.minRows = minRows;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "jdbc:mysql://localhost:3306/game_vault_db";
+        String user = "root";
+        String password = "";
+        long minRows = 1000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url": url = args[i + 1]; break;
+                case "--user": user = args[i + 1]; break;
+                case "--password": password = args[i + 1]; break;
+                case "--min-rows": minRows = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        try (Connection conn = DriverManager.getConnection(url, user, password)) {
+            QueryPlanCheck check = new QueryPlanCheck(conn, minRows);
+            check.run();
+            System.out.printf("%d queries checked, %d expected scans, %d unexpected full scans%n",
+                    check.checked, check.expected, check.failures);
+            if (check.failures > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private void run() throws SQLException {
+        LocalDate today = LocalDate.now();
+        Date monthAgo = Date.valueOf(today.minusDays(30));
+        Date weekAgo = Date.valueOf(today.minusDays(6));
+        Date now = Date.valueOf(today);
+
+        // OrdersController; customer, employee and game names are computed in the view and can't be indexed
+        pages("OrderInformation", "order_id", null, List.of(),
+                "order_id", "order_date", "order_type", "total_amount", "!customer_name", "!employee_name", "!game_title");
+        // PaymentsController, unfiltered and with its date range, and the chart's totals from the rollup
+        pages("Payments", "payment_id", null, List.of(),
+                "payment_id", "payment_date", "payment_method", "amount_paid", "order_id");
+        pages("Payments", "payment_id", PaymentsController.DATE_FILTER_SQL, List.of(monthAgo, now),
+                "payment_id", "payment_date", "payment_method", "amount_paid", "order_id");
+        check("PaymentAnalytics date range", PaymentAnalytics.DATE_RANGE_SQL, monthAgo, now);
+        expectScan("PaymentAnalytics all payments (one row per day and method)", PaymentAnalytics.ALL_PAYMENTS_SQL);
+        // The order type grouping's columns; the first load reads the whole table, later ones the PK range past the last id
+        expectScan("TransactionColumns payments load", TransactionColumns.PAYMENTS.deltaSql(), 0);
+        expectScan("TransactionColumns orders load", TransactionColumns.ORDERS.deltaSql(), 0);
+
+        // GameVaultHubController, last 7 days from the rollups
+        check("SalesRollups payments", SalesRollups.PAYMENT_TOTALS_SQL, weekAgo, now);
+        check("SalesRollups best seller", SalesRollups.TOP_GAME_SQL, weekAgo, now);
+        check("SalesRollups top employee", SalesRollups.TOP_EMPLOYEE_SQL, weekAgo, now);
+
+        // CustomerManagementController. Deleting a customer fires DeleteCustomerHistory, whose deletes reach into the three
+        // partitioned history tables; those are copies of the trigger's statements, keep in step with game_vault_functions.sql
+        pages("Customers", "customer_id", null, List.of(), "customer_id", "first_name", "last_name", "email", "is_member");
+        check("Update customer", CustomerManagementController.UPDATE_CUSTOMER_SQL, "a", "b", "c", true, 1);
+        check("Delete customer", CustomerManagementController.DELETE_CUSTOMER_SQL, 1);
+        check("DeleteCustomerHistory payments", "DELETE p FROM Payments p JOIN Orders o ON p.order_id = o.order_id "
+                + "WHERE o.customer_id = ?", 1);
+        check("DeleteCustomerHistory order lines", "DELETE od FROM OrderDetails od JOIN Orders o ON od.order_id = o.order_id "
+                + "WHERE o.customer_id = ?", 1);
+        check("DeleteCustomerHistory orders", "DELETE FROM Orders WHERE customer_id = ?", 1);
+        check("DeleteCustomerHistory rentals", "DELETE FROM Rentals WHERE customer_id = ?", 1);
+
+        // RentalsController
+        pages("RentalHistory", "rental_id", null, List.of(), "rental_id", "received_date", "!customer_name", "!game_title");
+        check("Active rentals", RentalsController.ACTIVE_RENTALS_SQL);
+        check("Changed rentals", RentalsController.CHANGED_RENTALS_SQL, new Timestamp(System.currentTimeMillis() - 60_000));
+        check("Deleted rentals", RentalsController.DELETED_RENTALS_SQL, new Timestamp(System.currentTimeMillis() - 60_000));
+        check("Mark returned", RentalsController.MARK_RETURNED_SQL, 1);
+        check("Server time for watermarks", DatabaseUtil.SERVER_TIME_SQL);
+        // The batch boundary probe inside the ProcessOverdueRentals procedure, which Java can't share; keep in step with
+        // game_vault_functions.sql
+        check("ProcessOverdueRentals batch", "SELECT due_date, rental_id FROM Rentals WHERE returned_date IS NULL "
+                + "AND (due_date > ? OR (due_date = ? AND rental_id > ?)) AND due_date <= ? ORDER BY due_date, rental_id LIMIT 999, 1",
+                monthAgo, monthAgo, 0, now);
+
+        // GamesController and the inventory screen
+        check("Top sellers", GamesController.TOP_SELLERS_SQL);
+        expectScan("Game catalog (the whole catalog is loaded for the search index)", GamesController.CATALOG_SQL);
+        check("Changed games", GamesController.CHANGED_GAMES_SQL, new Timestamp(System.currentTimeMillis() - 60_000));
+        // The SearchGames procedure, the search fallback while the index isn't ready; a copy of its query. LIKE '%...%'
+        // can't use an index, so only the ID search may avoid the scan
+        expectScan("SearchGames fallback", "SELECT * FROM GameDetails WHERE (? = 'ID' AND game_id = CAST(? AS UNSIGNED)) "
+                + "OR (? = 'Title' AND title LIKE CONCAT('%', ?, '%')) OR (? = 'Genre' AND genre_name LIKE CONCAT('%', ?, '%')) "
+                + "OR (? = 'Platform' AND platform_name LIKE CONCAT('%', ?, '%'))",
+                "Title", "zel", "Title", "zel", "Title", "zel", "Title", "zel");
+        check("Stock update", InventoryController.UPDATE_STOCK_SQL, 1, now, 1);
+        check("Genres", ReferenceData.GENRES_SQL);
+        check("Platforms", ReferenceData.PLATFORMS_SQL);
+
+        // CatalogImporter
+        check("Import game", CatalogImporter.INSERT_GAME_SQL, "t", 1, 1, 2000, 1);
+        check("Import inventory", CatalogImporter.INSERT_INVENTORY_SQL, 1, 0, now);
+        check("Import restock", CatalogImporter.RESTOCK_SQL, 1, now, 1);
+
+        // OrderService
+        check("Cart prices", OrderService.pricesSql(3), 1, 2, 3);
+        check("Cart stock claim", OrderService.CLAIM_STOCK_SQL, 1, 1, 1);
+        check("Cart rental stock", OrderService.rentalStockSql(2), 1, 2);
+        check("Cart payment", OrderService.INSERT_PAYMENT_SQL, now, "Cash", 1, now);
+    }
+
+    // The first page and a keyset page after the first row, for the default order and each sort column, built by
+    // PagedTableLoader.pageSql exactly as the screens build them. A sort column starting with '!' is expected to scan
+    private void pages(String source, String key, String filter, List<Object> filterParams, String... sortColumns) throws SQLException {
+        List<String> sorts = new ArrayList<>();
+        sorts.add(null);
+        sorts.addAll(Arrays.asList(sortColumns));
+        for (String sort : sorts) {
+            boolean scanExpected = sort != null && sort.startsWith("!");
+            String column = scanExpected ? sort.substring(1) : sort;
+            String label = source + (filter != null ? " filtered" : "") + " by " + (column != null ? column : key);
+            List<Object> params = new ArrayList<>(filterParams);
+            params.add(PagedTableLoader.DEFAULT_PAGE_SIZE);
+            explain(label + ", first page", PagedTableLoader.pageSql(source, key, filter, column, true, false), params, scanExpected);
+
+            String where = filter != null ? " WHERE (" + filter + ")" : "";
+            Object[] anchor = firstRow(source, where, filterParams, column, key);
+            if (anchor == null) {
+                continue;
+            }
+            params = new ArrayList<>(filterParams);
+            if (column != null) {
+                params.add(anchor[0]);
+                params.add(anchor[0]);
+            }
+            params.add(anchor[1]);
+            params.add(PagedTableLoader.DEFAULT_PAGE_SIZE);
+            explain(label + ", next page", PagedTableLoader.pageSql(source, key, filter, column, true, true), params, scanExpected);
+        }
+    }
+
+    // Sort value and key of the first row in that order, the anchor the screen would send for the next page
+    private Object[] firstRow(String source, String where, List<Object> filterParams, String column, String key) throws SQLException {
+        String sql = "SELECT " + (column != null ? column : key) + ", " + key + " FROM " + source + where
+                + " ORDER BY " + (column != null ? column + ", " : "") + key + " LIMIT 1";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bind(stmt, filterParams);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? new Object[]{rs.getObject(1), rs.getObject(2)} : null;
+            }
+        }
+    }
+
+    private void check(String label, String sql, Object... params) throws SQLException {
+        explain(label, sql, Arrays.asList(params), false);
+    }
+
+    private void expectScan(String label, String sql, Object... params) throws SQLException {
+        explain(label, sql, Arrays.asList(params), true);
+    }
+
+    private void explain(String label, String sql, List<Object> params, boolean scanExpected) throws SQLException {
+        checked++;
+        List<String> scans = new ArrayList<>();
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    String type = rs.getString("type");
+                    String key = rs.getString("key");
+                    long rows = rs.getLong("rows");
+                    plan.append(String.format("%n      %-14s %-7s %-28s %,12d rows  %s", table, type, key, rows,
+                            rs.getString("Extra") == null ? "" : rs.getString("Extra")));
+                    if (("ALL".equals(type) || "index".equals(type)) && rows >= minRows) {
+                        scans.add(table + " (" + type + ", " + String.format("%,d", rows) + " rows)");
+                    }
+                }
+            }
+        }
+        if (scans.isEmpty()) {
+            System.out.println("  ok        " + label);
+        } else if (scanExpected) {
+            expected++;
+            System.out.println("  expected  " + label + ": scans " + String.join(", ", scans));
+        } else {
+            failures++;
+            System.out.println("  FULL SCAN " + label + ": " + String.join(", ", scans) + plan + "\n      " + sql);
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+}
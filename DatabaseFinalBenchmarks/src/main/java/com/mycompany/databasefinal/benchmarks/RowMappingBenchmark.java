@@ -0,0 +1,120 @@
+package com.mycompany.databasefinal.benchmarks;
+
+import com.mycompany.databasefinal.RowMapper;
+import com.mycompany.databasefinal.RowMappers;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// How long one screen page takes to turn into model objects, using the same keyset query shape as PagedTableLoader.
+// scanPaymentsOnly reads a Payments page without mapping, so the difference is the cost of RowMappers
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RowMappingBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"200"})
+    public int pageSize;
+
+    private BenchmarkDatabase db;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        db = BenchmarkDatabase.create(rows);
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Benchmark
+    public int scanPaymentsOnly() throws SQLException {
+        int count = 0;
+        try (PreparedStatement stmt = pageQuery("Payments", "payment_id");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public List<?> mapPayments() throws SQLException {
+        return mapPage("Payments", "payment_id", db.getOrderCount(), RowMappers::payment);
+    }
+
+    @Benchmark
+    public List<?> mapOrders() throws SQLException {
+        return mapPage("OrderInformation", "order_id", db.getOrderCount(), RowMappers::order);
+    }
+
+    @Benchmark
+    public List<?> mapRentals() throws SQLException {
+        return mapPage("RentalHistory", "rental_id", db.getRentalCount(), RowMappers::rentalHistory);
+    }
+
+    @Benchmark
+    public List<?> mapCustomers() throws SQLException {
+        return mapPage("Customers", "customer_id", db.getCustomerCount(), RowMappers::customer);
+    }
+
+    @Benchmark
+    public List<?> mapGames() throws SQLException {
+        return mapPage("GameDetails", "game_id", db.getGameCount(), RowMappers::game);
+    }
+
+    private <T> List<T> mapPage(String source, String keyColumn, int keyCount, RowMapper<T> mapper) throws SQLException {
+        List<T> page = new ArrayList<>(pageSize);
+        try (PreparedStatement stmt = db.getConnection().prepareStatement(
+                "SELECT * FROM " + source + " WHERE " + keyColumn + " > ? ORDER BY " + keyColumn + " LIMIT ?")) {
+            stmt.setInt(1, startKey(keyCount));
+            stmt.setInt(2, pageSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapper.map(rs));
+                }
+            }
+        }
+        return page;
+    }
+
+    private PreparedStatement pageQuery(String source, String keyColumn) throws SQLException {
+        PreparedStatement stmt = db.getConnection().prepareStatement(
+                "SELECT * FROM " + source + " WHERE " + keyColumn + " > ? ORDER BY " + keyColumn + " LIMIT ?");
+        stmt.setInt(1, startKey(db.getOrderCount()));
+        stmt.setInt(2, pageSize);
+        return stmt;
+    }
+
+    // A random page start that still leaves a full page after it
+    private int startKey(int keyCount) {
+        return random.nextInt(Math.max(1, keyCount - pageSize));
+    }
+}
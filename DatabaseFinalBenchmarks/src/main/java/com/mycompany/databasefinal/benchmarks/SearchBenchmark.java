@@ -0,0 +1,95 @@
+package com.mycompany.databasefinal.benchmarks;
+
+import com.mycompany.databasefinal.Game;
+import com.mycompany.databasefinal.GameSearchIndex;
+import com.mycompany.databasefinal.RowMappers;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Title search on the games screen: the in-memory GameSearchIndex against the LIKE '%...%' scan SearchGames runs.
+// The catalog size follows rows (one game per 20 orders, at least 100 and at most 500k)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchBenchmark {
+
+    private static final int SEARCH_LIMIT = 5000;
+
+    @Param({"10000"})
+    public int rows;
+
+    // A prefix, a whole word, a typo and two words
+    @Param({"dra", "dragon", "dragn", "dark souls"})
+    public String query;
+
+    private BenchmarkDatabase db;
+    private List<Game> catalog;
+    private GameSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        db = BenchmarkDatabase.create(rows);
+        catalog = new ArrayList<>();
+        try (PreparedStatement stmt = db.getConnection().prepareStatement("SELECT * FROM GameDetails");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                catalog.add(RowMappers.game(rs));
+            }
+        }
+        index = new GameSearchIndex();
+        index.rebuild(catalog);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        db.close();
+    }
+
+    @Benchmark
+    public List<Game> indexSearch() {
+        return index.search("Title", query, SEARCH_LIMIT);
+    }
+
+    @Benchmark
+    public List<Game> sqlLikeSearch() throws SQLException {
+        List<Game> games = new ArrayList<>();
+        try (PreparedStatement stmt = db.getConnection().prepareStatement(
+                "SELECT * FROM GameDetails WHERE title LIKE CONCAT('%', ?, '%')")) {
+            stmt.setString(1, query);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    games.add(RowMappers.game(rs));
+                }
+            }
+        }
+        return games;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GameSearchIndex indexRebuild() {
+        GameSearchIndex fresh = new GameSearchIndex();
+        fresh.rebuild(catalog);
+        return fresh;
+    }
+}
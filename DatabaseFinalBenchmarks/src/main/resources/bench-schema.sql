@@ -0,0 +1,174 @@
+-- The tables, indexes and views from create_game_db.sql and game_vault_functions.sql that the benchmarks read,
+-- written so H2 (MODE=MySQL) accepts them. Triggers and procedures are left out, the seeder writes final values directly
+CREATE TABLE Genres (
+    genre_id INT PRIMARY KEY AUTO_INCREMENT,
+    genre_name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE Platforms (
+    platform_id INT PRIMARY KEY AUTO_INCREMENT,
+    platform_name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE Games (
+    game_id INT PRIMARY KEY AUTO_INCREMENT,
+    title VARCHAR(200) NOT NULL,
+    genre_id INT NOT NULL,
+    platform_id INT NOT NULL,
+    year_released INT,
+    price DECIMAL(10, 2) NOT NULL,
+    FOREIGN KEY (genre_id) REFERENCES Genres(genre_id),
+    FOREIGN KEY (platform_id) REFERENCES Platforms(platform_id)
+);
+
+CREATE TABLE Customers (
+    customer_id INT PRIMARY KEY AUTO_INCREMENT,
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    email VARCHAR(150) UNIQUE NOT NULL,
+    is_member BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE TABLE Employees (
+    employee_id INT PRIMARY KEY AUTO_INCREMENT,
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    hire_date DATE NOT NULL,
+    role VARCHAR(20) NOT NULL,
+    salary DECIMAL(10,2) NOT NULL
+);
+
+CREATE TABLE Orders (
+    order_id INT PRIMARY KEY AUTO_INCREMENT,
+    customer_id INT NOT NULL,
+    order_date DATE NOT NULL,
+    order_type VARCHAR(50) NOT NULL,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    FOREIGN KEY (customer_id) REFERENCES Customers(customer_id) ON DELETE CASCADE
+);
+
+CREATE TABLE OrderDetails (
+    order_detail_id INT PRIMARY KEY AUTO_INCREMENT,
+    order_id INT NOT NULL,
+    game_id INT NOT NULL,
+    employee_id INT,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10,2) NOT NULL,
+    FOREIGN KEY (order_id) REFERENCES Orders(order_id) ON DELETE CASCADE,
+    FOREIGN KEY (game_id) REFERENCES Games(game_id),
+    FOREIGN KEY (employee_id) REFERENCES Employees(employee_id)
+);
+
+CREATE TABLE Rentals (
+    rental_id INT PRIMARY KEY AUTO_INCREMENT,
+    customer_id INT NOT NULL,
+    game_id INT NOT NULL,
+    employee_id INT NOT NULL,
+    received_date DATE NOT NULL,
+    returned_date DATE,
+    rental_fee DECIMAL(10,2) NOT NULL,
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    due_date DATE GENERATED ALWAYS AS (DATEADD(DAY, 14, received_date)),
+    FOREIGN KEY (customer_id) REFERENCES Customers(customer_id) ON DELETE CASCADE,
+    FOREIGN KEY (game_id) REFERENCES Games(game_id),
+    FOREIGN KEY (employee_id) REFERENCES Employees(employee_id)
+);
+
+CREATE INDEX idx_rentals_updated_at ON Rentals (updated_at);
+CREATE INDEX idx_rentals_open_due ON Rentals (returned_date, due_date);
+
+CREATE TABLE Inventory (
+    inventory_id INT PRIMARY KEY AUTO_INCREMENT,
+    game_id INT NOT NULL UNIQUE,
+    quantity_in_stock INT NOT NULL,
+    restock_date DATE,
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    FOREIGN KEY (game_id) REFERENCES Games(game_id)
+);
+
+CREATE INDEX idx_inventory_updated_at ON Inventory (updated_at);
+
+CREATE TABLE Payments (
+    payment_id INT PRIMARY KEY AUTO_INCREMENT,
+    order_id INT NOT NULL,
+    payment_date DATE NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    amount_paid DECIMAL(10, 2) NOT NULL,
+    FOREIGN KEY (order_id) REFERENCES Orders (order_id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_payments_date_method ON Payments (payment_date, payment_method, amount_paid);
+
+-- Daily rollups (migrations/V5). H2 has no triggers here, BenchmarkDatabase fills them once after seeding
+CREATE TABLE DailyGameSales (
+    sales_date DATE NOT NULL,
+    game_id INT NOT NULL,
+    units_sold INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    rentals_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (sales_date, game_id)
+);
+
+CREATE TABLE DailyPaymentTotals (
+    payment_date DATE NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    slot TINYINT NOT NULL,
+    payment_count INT NOT NULL DEFAULT 0,
+    amount_total DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (payment_date, payment_method, slot)
+);
+
+CREATE TABLE DailyEmployeeSales (
+    sales_date DATE NOT NULL,
+    employee_id INT NOT NULL,
+    lines_sold INT NOT NULL DEFAULT 0,
+    units_sold INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    rentals_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (sales_date, employee_id)
+);
+
+CREATE VIEW OrderInformation AS
+SELECT
+    o.order_id,
+    CONCAT(c.first_name, ' ', c.last_name) AS customer_name,
+    o.order_date,
+    o.order_type,
+    g.title AS game_title,
+    CONCAT(e.first_name, ' ', e.last_name) AS employee_name,
+    o.total_amount AS total_amount
+FROM Orders o
+JOIN Customers c ON o.customer_id = c.customer_id
+JOIN OrderDetails od ON o.order_id = od.order_id
+JOIN Games g ON od.game_id = g.game_id
+JOIN Employees e ON od.employee_id = e.employee_id;
+
+CREATE VIEW GameDetails AS
+SELECT
+    g.game_id,
+    g.title,
+    ge.genre_name,
+    g.year_released,
+    p.platform_name,
+    i.quantity_in_stock,
+    g.price
+FROM Games g
+JOIN Genres ge ON g.genre_id = ge.genre_id
+JOIN Platforms p ON g.platform_id = p.platform_id
+JOIN Inventory i ON g.game_id = i.game_id;
+
+CREATE VIEW RentalHistory AS
+SELECT
+    r.rental_id,
+    r.customer_id,
+    CONCAT(c.first_name, ' ', c.last_name) AS customer_name,
+    r.game_id,
+    g.title AS game_title,
+    r.received_date,
+    r.returned_date,
+    r.due_date,
+    (r.returned_date IS NULL AND r.due_date < CURRENT_DATE) AS is_overdue,
+    r.updated_at
+FROM Rentals r
+JOIN Customers c ON r.customer_id = c.customer_id
+JOIN Games g ON r.game_id = g.game_id;
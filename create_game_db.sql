@@ -2,6 +2,17 @@ DROP DATABASE IF EXISTS game_vault_db;
 CREATE DATABASE game_vault_db;
 USE game_vault_db;
 
+-- This file creates the schema at version 1, the original GameVault tables. Everything since is in the numbered
+-- scripts in migrations/ (V2__..., V3__...), applied in order by SchemaMigrator, which records each one here, so a
+-- new install and an upgraded one end up with the same schema. A new install runs this file, then SchemaMigrator,
+-- then game_vault_functions.sql, whose triggers and procedures use the tables the migrations add
+CREATE TABLE SchemaVersion (
+    version INT PRIMARY KEY,
+    description VARCHAR(200) NOT NULL,
+    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+INSERT INTO SchemaVersion (version, description) VALUES (1, 'create_game_db.sql baseline');
+
 CREATE TABLE Genres (
     genre_id INT PRIMARY KEY AUTO_INCREMENT,
     genre_name VARCHAR(100) NOT NULL
@@ -68,6 +68,7 @@ INSERT INTO Inventory (game_id, quantity_in_stock, restock_date) VALUES
 (2, 5, '2022-03-01'),
 (3, 8, '2022-01-15'),
 (4, 15, '2022-04-01'),
+(5, 0, NULL),
 (6, 20, '2022-04-10');
 
 -- Inserting dummy data for Payments
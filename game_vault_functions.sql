@@ -1,59 +1,364 @@
 USE game_vault_db;
 
 DROP EVENT IF EXISTS UpdateRentalFeeForLateRentals;
+DROP EVENT IF EXISTS ChargeOverdueRentals;
+DROP PROCEDURE IF EXISTS ProcessOverdueRentals;
+DROP TRIGGER IF EXISTS ChargeBackdatedRental;
 DROP TRIGGER IF EXISTS ApplyDiscountBeforeInsert;
 DROP TRIGGER IF EXISTS PreventRentalWithoutMembership;
+DROP TRIGGER IF EXISTS CheckOrderBeforeInsert;
+DROP TRIGGER IF EXISTS CheckOrderDetailBeforeInsert;
+DROP TRIGGER IF EXISTS CheckPaymentBeforeInsert;
+DROP TRIGGER IF EXISTS CheckRentalBeforeInsert;
 DROP PROCEDURE IF EXISTS AddCustomer;
 DROP PROCEDURE IF EXISTS InsertOrderWithDetails;
 DROP PROCEDURE IF EXISTS SearchGames;
+DROP PROCEDURE IF EXISTS AddGameWithInventory;
+DROP TRIGGER IF EXISTS CreateGameSalesRow;
+DROP TRIGGER IF EXISTS CountOrderedGame;
+DROP TRIGGER IF EXISTS UncountOrderedGame;
+DROP TRIGGER IF EXISTS CountRentedGame;
+DROP TRIGGER IF EXISTS UncountRentedGame;
+DROP TRIGGER IF EXISTS CountPayment;
+DROP TRIGGER IF EXISTS UncountPayment;
+DROP TRIGGER IF EXISTS UncountCustomerSales;
+DROP TRIGGER IF EXISTS DeleteCustomerHistory;
+DROP EVENT IF EXISTS ExtendHistoryPartitions;
+DROP PROCEDURE IF EXISTS ExtendMonthlyPartitions;
+DROP PROCEDURE IF EXISTS RebuildGameSales;
+DROP PROCEDURE IF EXISTS CheckGameSales;
+DROP PROCEDURE IF EXISTS RebuildDailyRollups;
 
 DELIMITER $$
 
-CREATE EVENT UpdateRentalFeeForLateRentals
+-- Charges the late fee (rental_fee = 20.00) on open rentals that became overdue since the last run. Replaces the old
+-- UpdateRentalFeeForLateRentals event, which re-checked DATEDIFF on every rental every day (no index could help) and
+-- charged rentals that had already come back. Only due dates after the JobWatermarks entry are visited, through
+-- idx_rentals_open_due, in keyset batches of in_batch_size rows that each commit on their own so no batch holds its
+-- locks for long. With no watermark (a new database, or after the row is deleted) everything already overdue is charged
+CREATE PROCEDURE ProcessOverdueRentals(IN in_batch_size INT)
+BEGIN
+    -- A rental is overdue once its due date is in the past
+    DECLARE v_through DATE DEFAULT CURDATE() - INTERVAL 1 DAY;
+    DECLARE v_after_due DATE;
+    DECLARE v_after_id INT DEFAULT 0;
+    DECLARE v_end_due DATE;
+    DECLARE v_end_id INT;
+    DECLARE v_skip INT DEFAULT GREATEST(in_batch_size, 1) - 1;
+    DECLARE v_charged INT DEFAULT 0;
+    SELECT processed_through INTO v_after_due FROM JobWatermarks WHERE job_name = 'overdue_rentals';
+    SET v_after_due = COALESCE(v_after_due, '1000-01-01');
+    batches: LOOP
+        -- The last rental of the next batch, or NULL when fewer than a batch are left
+        SET v_end_due = NULL;
+        SELECT due_date, rental_id INTO v_end_due, v_end_id
+        FROM Rentals
+        WHERE returned_date IS NULL
+          AND (due_date > v_after_due OR (due_date = v_after_due AND rental_id > v_after_id))
+          AND due_date <= v_through
+        ORDER BY due_date, rental_id
+        LIMIT v_skip, 1;
+        IF v_end_due IS NULL THEN
+            SET v_end_due = v_through;
+            SET v_end_id = 2147483647;
+        END IF;
+        UPDATE Rentals
+        SET rental_fee = 20.00
+        WHERE returned_date IS NULL
+          AND (due_date > v_after_due OR (due_date = v_after_due AND rental_id > v_after_id))
+          AND (due_date < v_end_due OR (due_date = v_end_due AND rental_id <= v_end_id))
+          AND rental_fee < 20.00; -- Avoids re-updating already updated records
+        SET v_charged = v_charged + ROW_COUNT();
+        IF v_end_id = 2147483647 THEN
+            LEAVE batches;
+        END IF;
+        SET v_after_due = v_end_due;
+        SET v_after_id = v_end_id;
+    END LOOP;
+    INSERT INTO JobWatermarks (job_name, processed_through) VALUES ('overdue_rentals', v_through)
+    ON DUPLICATE KEY UPDATE processed_through = GREATEST(COALESCE(processed_through, v_through), v_through);
+    SELECT v_charged AS rentals_charged, v_through AS processed_through;
+END$$
+
+CREATE EVENT ChargeOverdueRentals
 ON SCHEDULE EVERY 1 DAY -- Set to go off daily
 STARTS CURRENT_TIMESTAMP 
 DO
 BEGIN
-    -- Update rental_fee for rentals older than 2 weeks
-    UPDATE Rentals
-    SET rental_fee = 20.00
-    WHERE DATEDIFF(CURDATE(), received_date) > 14
-    AND rental_fee < 20.00; -- Avoids re-updating already updated records
+    CALL ProcessOverdueRentals(1000);
+    -- Deletion records no rentals screen needs any more (see migrations/V6)
+    DELETE FROM DeletedRentals WHERE deleted_at < NOW(3) - INTERVAL 2 DAY;
 END$$
 
-CREATE TRIGGER ApplyDiscountBeforeInsert
+-- A rental entered with a due date the overdue job has already passed (a backdated entry) would never be visited by
+-- it, so it is charged here instead. Bulk loads skip this; they only run on an empty schema, before any watermark exists
+CREATE TRIGGER ChargeBackdatedRental
+BEFORE INSERT ON Rentals
+FOR EACH ROW
+BEGIN
+    IF @gamevault_bulk_load IS NULL AND NEW.returned_date IS NULL AND NEW.rental_fee < 20.00
+       AND NEW.received_date + INTERVAL 14 DAY <= (SELECT processed_through FROM JobWatermarks WHERE job_name = 'overdue_rentals') THEN
+        SET NEW.rental_fee = 20.00;
+    END IF;
+END$$
+
+-- Replaces ApplyDiscountBeforeInsert and PreventRentalWithoutMembership, which each looked the customer up again.
+-- One read of is_member now serves both the 10% member discount and the members-only rental rule
+CREATE TRIGGER CheckOrderBeforeInsert
 BEFORE INSERT ON Orders
 FOR EACH ROW
 BEGIN
-    DECLARE membership_status BOOLEAN;
-    SELECT is_member INTO membership_status
+    DECLARE v_is_member BOOLEAN;
+    SELECT is_member INTO v_is_member
     FROM Customers
     WHERE customer_id = NEW.customer_id;
-    -- Apply a 10% discount if the customer is a member
-    IF membership_status = TRUE THEN
+    -- Orders has no foreign key to Customers once migrations/V4 has partitioned it
+    IF v_is_member IS NULL THEN
+        SIGNAL SQLSTATE '45000'
+        SET MESSAGE_TEXT = 'Customer does not exist';
+    END IF;
+    -- Nor is order_id unique on its own once the primary key is (order_id, order_date). Generated ids (0 here) are;
+    -- an explicit one is checked (bulk loads skip this, they only run on an empty schema)
+    IF NEW.order_id <> 0 AND @gamevault_bulk_load IS NULL
+       AND EXISTS (SELECT 1 FROM Orders WHERE order_id = NEW.order_id) THEN
+        SIGNAL SQLSTATE '45000'
+        SET MESSAGE_TEXT = 'Duplicate order_id';
+    END IF;
+    -- Apply a 10% discount if the customer is a member. Bulk loaders (@gamevault_bulk_load) write the discounted
+    -- total themselves, to the order and its payment alike
+    IF v_is_member = TRUE AND @gamevault_bulk_load IS NULL THEN
         SET NEW.total_amount = NEW.total_amount * 0.9;
     END IF;
+    -- If the customer is not a member, raise an error and prevent the rental
+    IF NEW.order_type = 'Rental' AND NOT v_is_member THEN
+        SIGNAL SQLSTATE '45000'
+        SET MESSAGE_TEXT = 'Customer must be a member to rent games';
+    END IF;
 END$$
 
-CREATE TRIGGER PreventRentalWithoutMembership
-BEFORE INSERT ON Orders
+-- The foreign keys migrations/V4 had to drop, checked here instead: an order line needs its order
+CREATE TRIGGER CheckOrderDetailBeforeInsert
+BEFORE INSERT ON OrderDetails
 FOR EACH ROW
 BEGIN
-    DECLARE v_is_member BOOLEAN;
-    -- Checks if the order is a rental 
-    IF NEW.order_type = 'Rental' THEN
-        -- Checks if the customer has a membership
-        SELECT is_member INTO v_is_member
-        FROM Customers
-        WHERE customer_id = NEW.customer_id;
-        -- If the customer is not a member, raise an error and prevent the rental
-        IF NOT v_is_member THEN
+    IF @gamevault_bulk_load IS NULL AND NOT EXISTS (SELECT 1 FROM Orders WHERE order_id = NEW.order_id) THEN
+        SIGNAL SQLSTATE '45000'
+        SET MESSAGE_TEXT = 'Order does not exist';
+    END IF;
+END$$
+
+-- A payment needs its order, and an explicit payment_id must be new (see CheckOrderBeforeInsert)
+CREATE TRIGGER CheckPaymentBeforeInsert
+BEFORE INSERT ON Payments
+FOR EACH ROW
+BEGIN
+    IF @gamevault_bulk_load IS NULL THEN
+        IF NOT EXISTS (SELECT 1 FROM Orders WHERE order_id = NEW.order_id) THEN
+            SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'Order does not exist';
+        END IF;
+        IF NEW.payment_id <> 0 AND EXISTS (SELECT 1 FROM Payments WHERE payment_id = NEW.payment_id) THEN
+            SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'Duplicate payment_id';
+        END IF;
+    END IF;
+END$$
+
+-- A rental needs its customer, game and employee, and an explicit rental_id must be new (see CheckOrderBeforeInsert)
+CREATE TRIGGER CheckRentalBeforeInsert
+BEFORE INSERT ON Rentals
+FOR EACH ROW
+BEGIN
+    IF @gamevault_bulk_load IS NULL THEN
+        IF NOT EXISTS (SELECT 1 FROM Customers WHERE customer_id = NEW.customer_id) THEN
+            SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'Customer does not exist';
+        END IF;
+        IF NOT EXISTS (SELECT 1 FROM Games WHERE game_id = NEW.game_id) THEN
             SIGNAL SQLSTATE '45000'
-            SET MESSAGE_TEXT = 'Customer must be a member to rent games';
+            SET MESSAGE_TEXT = 'Game does not exist';
         END IF;
+        IF NOT EXISTS (SELECT 1 FROM Employees WHERE employee_id = NEW.employee_id) THEN
+            SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'Employee does not exist';
+        END IF;
+        IF NEW.rental_id <> 0 AND EXISTS (SELECT 1 FROM Rentals WHERE rental_id = NEW.rental_id) THEN
+            SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'Duplicate rental_id';
+        END IF;
+    END IF;
+END$$
+
+-- Every game gets a zero sales row so it can still show up on the leaderboard before its first sale
+CREATE TRIGGER CreateGameSalesRow
+AFTER INSERT ON Games
+FOR EACH ROW
+BEGIN
+    INSERT IGNORE INTO GameSales (game_id) VALUES (NEW.game_id);
+END$$
+
+-- Keeps GameSales.units_ordered in step with OrderDetails, and adds purchase lines to the day's DailyGameSales and
+-- DailyEmployeeSales rows (migrations/V5). Bulk loaders set @gamevault_bulk_load = 1 to skip the per-row counting
+-- (parallel loads would all queue on the best sellers' rows) and call RebuildGameSales and RebuildDailyRollups when done
+CREATE TRIGGER CountOrderedGame
+AFTER INSERT ON OrderDetails
+FOR EACH ROW
+BEGIN
+    DECLARE v_order_date DATE;
+    DECLARE v_order_type VARCHAR(50);
+    IF @gamevault_bulk_load IS NULL THEN
+        INSERT INTO GameSales (game_id, units_ordered) VALUES (NEW.game_id, NEW.quantity)
+        ON DUPLICATE KEY UPDATE units_ordered = units_ordered + NEW.quantity;
+        SELECT order_date, order_type INTO v_order_date, v_order_type
+        FROM Orders WHERE order_id = NEW.order_id LIMIT 1;
+        -- Rental lines carry the game's price, not what was charged; rentals are counted from Rentals instead
+        IF v_order_type = 'Purchase' THEN
+            INSERT INTO DailyGameSales (sales_date, game_id, units_sold, revenue)
+            VALUES (v_order_date, NEW.game_id, NEW.quantity, NEW.quantity * NEW.unit_price)
+            ON DUPLICATE KEY UPDATE units_sold = units_sold + NEW.quantity,
+                                    revenue = revenue + NEW.quantity * NEW.unit_price;
+            IF NEW.employee_id IS NOT NULL THEN
+                INSERT INTO DailyEmployeeSales (sales_date, employee_id, lines_sold, units_sold, revenue)
+                VALUES (v_order_date, NEW.employee_id, 1, NEW.quantity, NEW.quantity * NEW.unit_price)
+                ON DUPLICATE KEY UPDATE lines_sold = lines_sold + 1,
+                                        units_sold = units_sold + NEW.quantity,
+                                        revenue = revenue + NEW.quantity * NEW.unit_price;
+            END IF;
+        END IF;
+    END IF;
+END$$
+
+CREATE TRIGGER UncountOrderedGame
+AFTER DELETE ON OrderDetails
+FOR EACH ROW
+BEGIN
+    DECLARE v_order_date DATE;
+    DECLARE v_order_type VARCHAR(50);
+    UPDATE GameSales SET units_ordered = units_ordered - OLD.quantity WHERE game_id = OLD.game_id;
+    SELECT order_date, order_type INTO v_order_date, v_order_type
+    FROM Orders WHERE order_id = OLD.order_id LIMIT 1;
+    IF v_order_type = 'Purchase' THEN
+        UPDATE DailyGameSales
+        SET units_sold = units_sold - OLD.quantity, revenue = revenue - OLD.quantity * OLD.unit_price
+        WHERE sales_date = v_order_date AND game_id = OLD.game_id;
+        UPDATE DailyEmployeeSales
+        SET lines_sold = lines_sold - 1, units_sold = units_sold - OLD.quantity,
+            revenue = revenue - OLD.quantity * OLD.unit_price
+        WHERE sales_date = v_order_date AND employee_id = OLD.employee_id;
+    END IF;
+END$$
+
+-- Keeps GameSales.rentals_count and the day's rental counts in step with Rentals (skipped during bulk loads, see
+-- CountOrderedGame)
+CREATE TRIGGER CountRentedGame
+AFTER INSERT ON Rentals
+FOR EACH ROW
+BEGIN
+    IF @gamevault_bulk_load IS NULL THEN
+        INSERT INTO GameSales (game_id, rentals_count) VALUES (NEW.game_id, 1)
+        ON DUPLICATE KEY UPDATE rentals_count = rentals_count + 1;
+        INSERT INTO DailyGameSales (sales_date, game_id, rentals_count) VALUES (NEW.received_date, NEW.game_id, 1)
+        ON DUPLICATE KEY UPDATE rentals_count = rentals_count + 1;
+        INSERT INTO DailyEmployeeSales (sales_date, employee_id, rentals_count) VALUES (NEW.received_date, NEW.employee_id, 1)
+        ON DUPLICATE KEY UPDATE rentals_count = rentals_count + 1;
     END IF;
 END$$
 
+CREATE TRIGGER UncountRentedGame
+AFTER DELETE ON Rentals
+FOR EACH ROW
+BEGIN
+    UPDATE GameSales SET rentals_count = rentals_count - 1 WHERE game_id = OLD.game_id;
+    UPDATE DailyGameSales SET rentals_count = rentals_count - 1
+    WHERE sales_date = OLD.received_date AND game_id = OLD.game_id;
+    UPDATE DailyEmployeeSales SET rentals_count = rentals_count - 1
+    WHERE sales_date = OLD.received_date AND employee_id = OLD.employee_id;
+    -- Lets the rentals screen drop the row from its tables without a full reload
+    INSERT INTO DeletedRentals (rental_id) VALUES (OLD.rental_id)
+    ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP(3);
+END$$
+
+-- Adds each payment to its day and method in DailyPaymentTotals, on the slot row for this connection so concurrent
+-- checkouts don't all wait on the same row (skipped during bulk loads, see CountOrderedGame)
+CREATE TRIGGER CountPayment
+AFTER INSERT ON Payments
+FOR EACH ROW
+BEGIN
+    IF @gamevault_bulk_load IS NULL THEN
+        INSERT INTO DailyPaymentTotals (payment_date, payment_method, slot, payment_count, amount_total)
+        VALUES (NEW.payment_date, NEW.payment_method, CONNECTION_ID() % 8, 1, NEW.amount_paid)
+        ON DUPLICATE KEY UPDATE payment_count = payment_count + 1, amount_total = amount_total + NEW.amount_paid;
+    END IF;
+END$$
+
+-- The slot a payment was added to isn't known any more, so it comes off slot 0; only the sum over slots matters
+CREATE TRIGGER UncountPayment
+AFTER DELETE ON Payments
+FOR EACH ROW
+BEGIN
+    INSERT INTO DailyPaymentTotals (payment_date, payment_method, slot, payment_count, amount_total)
+    VALUES (OLD.payment_date, OLD.payment_method, 0, -1, -OLD.amount_paid)
+    ON DUPLICATE KEY UPDATE payment_count = payment_count - 1, amount_total = amount_total - OLD.amount_paid;
+END$$
+
+-- Deletes a customer's payments, order lines, orders and rentals before the customer row goes. ON DELETE CASCADE used
+-- to do it, but rows removed by a cascade don't fire triggers, and once migrations/V4 has partitioned these tables
+-- there are no foreign keys left to cascade. Deleting them here fires UncountPayment, UncountOrderedGame and
+-- UncountRentedGame for each row, which keeps GameSales and the daily rollups right (order lines go before their
+-- orders so UncountOrderedGame can still look up the order's date)
+CREATE TRIGGER DeleteCustomerHistory
+BEFORE DELETE ON Customers
+FOR EACH ROW
+BEGIN
+    DELETE p FROM Payments p
+    JOIN Orders o ON p.order_id = o.order_id
+    WHERE o.customer_id = OLD.customer_id;
+    DELETE od FROM OrderDetails od
+    JOIN Orders o ON od.order_id = o.order_id
+    WHERE o.customer_id = OLD.customer_id;
+    DELETE FROM Orders WHERE customer_id = OLD.customer_id;
+    DELETE FROM Rentals WHERE customer_id = OLD.customer_id;
+END$$
+
+-- Keeps in_months_ahead months of partitions ahead of today on a table partitioned by month (migrations/V4), by
+-- splitting new months off p_future before any rows can land in it. Does nothing on a table that isn't partitioned
+CREATE PROCEDURE ExtendMonthlyPartitions(IN in_table VARCHAR(64), IN in_months_ahead INT)
+BEGIN
+    DECLARE v_month DATE;
+    DECLARE v_last DATE DEFAULT DATE_FORMAT(CURDATE() + INTERVAL in_months_ahead MONTH, '%Y-%m-01');
+    DECLARE v_partitions TEXT DEFAULT '';
+    -- The upper bound of the last monthly partition is the first month not covered yet
+    SELECT MAX(STR_TO_DATE(TRIM(BOTH '''' FROM PARTITION_DESCRIPTION), '%Y-%m-%d')) INTO v_month
+    FROM information_schema.PARTITIONS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = in_table AND PARTITION_NAME <> 'p_future';
+    IF v_month IS NOT NULL AND v_month <= v_last THEN
+        WHILE v_month <= v_last DO
+            SET v_partitions = CONCAT(v_partitions, 'PARTITION p', DATE_FORMAT(v_month, '%Y%m'),
+                                      ' VALUES LESS THAN (''', v_month + INTERVAL 1 MONTH, '''), ');
+            SET v_month = v_month + INTERVAL 1 MONTH;
+        END WHILE;
+        SET @partition_sql = CONCAT('ALTER TABLE `', in_table, '` REORGANIZE PARTITION p_future INTO (',
+                                    v_partitions, 'PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+        PREPARE stmt FROM @partition_sql;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END$$
+
+CREATE EVENT ExtendHistoryPartitions
+ON SCHEDULE EVERY 1 DAY
+STARTS CURRENT_TIMESTAMP
+DO
+BEGIN
+    CALL ExtendMonthlyPartitions('Orders', 3);
+    CALL ExtendMonthlyPartitions('Payments', 3);
+    CALL ExtendMonthlyPartitions('Rentals', 3);
+END$$
+
+-- Places an order in one transaction. Stock is claimed first: a purchase decrements it with a conditional UPDATE that
+-- only matches while enough is left, so two registers selling the last copy can't both succeed (the second one waits
+-- on the row lock, then matches nothing). A rental takes a shared lock on the row for the stock check. Any error rolls
+-- the whole order back; deadlock victims are retried by the caller (OrderService)
 CREATE PROCEDURE InsertOrderWithDetails(
     IN in_customer_id INT,
     IN in_employee_id INT,
@@ -68,13 +373,34 @@ BEGIN
     DECLARE game_price DECIMAL(10,2);
     DECLARE total DECIMAL(10,2);
     DECLARE current_stock INT;
-    SELECT quantity_in_stock INTO current_stock
-    FROM Inventory
-    WHERE game_id = in_game_id;
-    -- Ensures there is enough stock for the order
-    IF current_stock < in_quantity THEN
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL;
+    END;
+    IF in_quantity IS NULL OR in_quantity < 1 THEN
         SIGNAL SQLSTATE '45000'
-        SET MESSAGE_TEXT = 'Not enough stock available for the requested game.';
+        SET MESSAGE_TEXT = 'Quantity must be at least 1.';
+    END IF;
+    START TRANSACTION;
+    IF in_order_type = 'Purchase' THEN
+        UPDATE Inventory
+        SET quantity_in_stock = quantity_in_stock - in_quantity
+        WHERE game_id = in_game_id AND quantity_in_stock >= in_quantity;
+        -- Ensures there is enough stock for the order
+        IF ROW_COUNT() = 0 THEN
+            SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'Not enough stock available for the requested game.';
+        END IF;
+    ELSE
+        SELECT quantity_in_stock INTO current_stock
+        FROM Inventory
+        WHERE game_id = in_game_id
+        FOR SHARE;
+        IF current_stock IS NULL OR current_stock < in_quantity THEN
+            SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'Not enough stock available for the requested game.';
+        END IF;
     END IF;
     SELECT price INTO game_price FROM Games WHERE game_id = in_game_id;
     -- Calculates total (Rentals have a fixed fee)
@@ -89,19 +415,18 @@ BEGIN
     SET new_order_id = LAST_INSERT_ID();
     INSERT INTO OrderDetails (order_id, game_id, employee_id, quantity, unit_price)
     VALUES (new_order_id, in_game_id, in_employee_id, in_quantity, game_price);
+    -- Pays the total as stored, after CheckOrderBeforeInsert applied any member discount (the same rule as
+    -- OrderService.placeCartOrder)
     INSERT INTO Payments (order_id, payment_date, payment_method, amount_paid)
-    VALUES ( new_order_id, in_order_date, in_payment_method, total);
+    SELECT order_id, in_order_date, in_payment_method, total_amount
+    FROM Orders
+    WHERE order_id = new_order_id AND order_date = in_order_date;
     -- If Rental, insert into Rentals table
     IF in_order_type = 'Rental' THEN
         INSERT INTO Rentals (customer_id, game_id, employee_id, received_date, rental_fee)
         VALUES (in_customer_id, in_game_id, in_employee_id, in_order_date, game_price);
     END IF;
-    -- If an order is a purchase, the quantity is updated
-    IF in_order_type = 'Purchase' THEN
-        UPDATE Inventory
-        SET quantity_in_stock = quantity_in_stock - in_quantity
-        WHERE game_id = in_game_id;
-    END IF;
+    COMMIT;
 END$$
 
 CREATE PROCEDURE SearchGames(IN filterType VARCHAR(20), IN searchValue VARCHAR(100))
@@ -125,23 +450,163 @@ BEGIN
     VALUES (p_first_name, p_last_name, p_email, p_is_member);
 END$$
 
+-- Adds a game and its (empty) inventory row in one transaction so a game can never exist without inventory
+CREATE PROCEDURE AddGameWithInventory(
+    IN in_title VARCHAR(200),
+    IN in_genre_id INT,
+    IN in_platform_id INT,
+    IN in_year_released INT,
+    IN in_price DECIMAL(10,2),
+    OUT out_game_id INT
+)
+BEGIN
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL;
+    END;
+    START TRANSACTION;
+    INSERT INTO Games (title, genre_id, platform_id, year_released, price)
+    VALUES (in_title, in_genre_id, in_platform_id, in_year_released, in_price);
+    SET out_game_id = LAST_INSERT_ID();
+    -- New games start with no stock and no restock date
+    INSERT INTO Inventory (game_id, quantity_in_stock, restock_date)
+    VALUES (out_game_id, 0, NULL);
+    COMMIT;
+END$$
+
+-- Recomputes every GameSales row from OrderDetails and Rentals, for the initial load or after the counters drift
+CREATE PROCEDURE RebuildGameSales()
+BEGIN
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL;
+    END;
+    START TRANSACTION;
+    DELETE FROM GameSales;
+    INSERT INTO GameSales (game_id, units_ordered, rentals_count)
+    SELECT g.game_id,
+           COALESCE((SELECT SUM(od.quantity) FROM OrderDetails od WHERE od.game_id = g.game_id), 0),
+           (SELECT COUNT(*) FROM Rentals r WHERE r.game_id = g.game_id)
+    FROM Games g;
+    COMMIT;
+END$$
+
+-- Lists the games whose stored counters disagree with the raw tables (no rows means GameSales is consistent)
+CREATE PROCEDURE CheckGameSales()
+BEGIN
+    SELECT * FROM (
+        SELECT g.game_id,
+               gs.game_id IS NOT NULL AS has_row,
+               COALESCE(gs.units_ordered, 0) AS stored_units_ordered,
+               COALESCE((SELECT SUM(od.quantity) FROM OrderDetails od WHERE od.game_id = g.game_id), 0) AS actual_units_ordered,
+               COALESCE(gs.rentals_count, 0) AS stored_rentals_count,
+               (SELECT COUNT(*) FROM Rentals r WHERE r.game_id = g.game_id) AS actual_rentals_count
+        FROM Games g
+        LEFT JOIN GameSales gs ON g.game_id = gs.game_id
+    ) counts
+    WHERE NOT has_row
+       OR stored_units_ordered <> actual_units_ordered
+       OR stored_rentals_count <> actual_rentals_count;
+END$$
+
+-- Recomputes DailyGameSales, DailyEmployeeSales and DailyPaymentTotals for the days in_from to in_to from the raw
+-- tables; NULL for either end means from the first or through the last day with data. This is the backfill for
+-- history that predates the rollups, and the fix if they drift. Each month is its own transaction, so a backfill of
+-- years of history never holds one huge transaction; checkouts for the month being rebuilt wait for it (or deadlock
+-- and are retried by OrderService)
+CREATE PROCEDURE RebuildDailyRollups(IN in_from DATE, IN in_to DATE)
+BEGIN
+    DECLARE v_from DATE;
+    DECLARE v_to DATE;
+    DECLARE v_month_end DATE;
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL;
+    END;
+    SET v_from = COALESCE(in_from, LEAST(COALESCE((SELECT MIN(order_date) FROM Orders), CURDATE()),
+                                         COALESCE((SELECT MIN(payment_date) FROM Payments), CURDATE()),
+                                         COALESCE((SELECT MIN(received_date) FROM Rentals), CURDATE())));
+    SET v_to = COALESCE(in_to, GREATEST(COALESCE((SELECT MAX(order_date) FROM Orders), CURDATE()),
+                                        COALESCE((SELECT MAX(payment_date) FROM Payments), CURDATE()),
+                                        COALESCE((SELECT MAX(received_date) FROM Rentals), CURDATE())));
+    WHILE v_from <= v_to DO
+        SET v_month_end = LEAST(LAST_DAY(v_from), v_to);
+        START TRANSACTION;
+        DELETE FROM DailyGameSales WHERE sales_date BETWEEN v_from AND v_month_end;
+        DELETE FROM DailyEmployeeSales WHERE sales_date BETWEEN v_from AND v_month_end;
+        DELETE FROM DailyPaymentTotals WHERE payment_date BETWEEN v_from AND v_month_end;
+
+        INSERT INTO DailyGameSales (sales_date, game_id, units_sold, revenue)
+        SELECT o.order_date, od.game_id, SUM(od.quantity), SUM(od.quantity * od.unit_price)
+        FROM Orders o
+        JOIN OrderDetails od ON od.order_id = o.order_id
+        WHERE o.order_date BETWEEN v_from AND v_month_end AND o.order_type = 'Purchase'
+        GROUP BY o.order_date, od.game_id;
+        -- Grouped in a derived table so ON DUPLICATE KEY UPDATE can refer to its columns
+        INSERT INTO DailyGameSales (sales_date, game_id, rentals_count)
+        SELECT * FROM (
+            SELECT received_date, game_id, COUNT(*) AS rentals
+            FROM Rentals
+            WHERE received_date BETWEEN v_from AND v_month_end
+            GROUP BY received_date, game_id
+        ) AS rented
+        ON DUPLICATE KEY UPDATE rentals_count = rentals;
+
+        INSERT INTO DailyEmployeeSales (sales_date, employee_id, lines_sold, units_sold, revenue)
+        SELECT o.order_date, od.employee_id, COUNT(*), SUM(od.quantity), SUM(od.quantity * od.unit_price)
+        FROM Orders o
+        JOIN OrderDetails od ON od.order_id = o.order_id
+        WHERE o.order_date BETWEEN v_from AND v_month_end AND o.order_type = 'Purchase' AND od.employee_id IS NOT NULL
+        GROUP BY o.order_date, od.employee_id;
+        INSERT INTO DailyEmployeeSales (sales_date, employee_id, rentals_count)
+        SELECT * FROM (
+            SELECT received_date, employee_id, COUNT(*) AS rentals
+            FROM Rentals
+            WHERE received_date BETWEEN v_from AND v_month_end
+            GROUP BY received_date, employee_id
+        ) AS rented
+        ON DUPLICATE KEY UPDATE rentals_count = rentals;
+
+        INSERT INTO DailyPaymentTotals (payment_date, payment_method, slot, payment_count, amount_total)
+        SELECT payment_date, payment_method, 0, COUNT(*), SUM(amount_paid)
+        FROM Payments
+        WHERE payment_date BETWEEN v_from AND v_month_end
+        GROUP BY payment_date, payment_method;
+        COMMIT;
+        SET v_from = v_month_end + INTERVAL 1 DAY;
+    END WHILE;
+END$$
+
 DELIMITER ;
 
+-- One row per order. A cart order has several OrderDetails rows, so its titles are listed together and the employee is
+-- the one on its first line ('' when that line has none). The per-order lookups are subqueries rather than a GROUP BY
+-- so the view stays mergeable: the Orders screen's "WHERE order_id > ? ORDER BY order_id LIMIT n" still reads only n
+-- orders
 CREATE OR REPLACE VIEW OrderInformation AS
 SELECT 
     o.order_id,
     CONCAT(c.first_name, ' ', c.last_name) AS customer_name,
     o.order_date,
     o.order_type,
-    g.title AS game_title,
-    CONCAT(e.first_name, ' ', e.last_name) AS employee_name,
+    (SELECT GROUP_CONCAT(g.title ORDER BY od.order_detail_id SEPARATOR ', ')
+     FROM OrderDetails od
+     JOIN Games g ON od.game_id = g.game_id
+     WHERE od.order_id = o.order_id) AS game_title,
+    -- OrderDetails.employee_id is nullable, and the Orders screen pages on this column by keyset, which needs it NOT NULL
+    COALESCE((SELECT CONCAT(e.first_name, ' ', e.last_name)
+              FROM OrderDetails od
+              JOIN Employees e ON od.employee_id = e.employee_id
+              WHERE od.order_id = o.order_id
+              ORDER BY od.order_detail_id
+              LIMIT 1), '') AS employee_name,
 	o.total_amount AS total_amount  -- Directly use the modified total_amount from Orders
 FROM Orders o
 JOIN Customers c ON o.customer_id = c.customer_id
-JOIN OrderDetails od ON o.order_id = od.order_id
-JOIN Games g ON od.game_id = g.game_id
-JOIN Employees e ON od.employee_id = e.employee_id
-ORDER BY o.order_id;
+WHERE EXISTS (SELECT 1 FROM OrderDetails od WHERE od.order_id = o.order_id);
 
 CREATE OR REPLACE VIEW GameDetails AS
     SELECT 
@@ -161,32 +626,37 @@ CREATE OR REPLACE VIEW GameDetails AS
             JOIN
         Inventory i ON g.game_id = i.game_id;
 
--- Creates a view for Top-Selling Games TableView (including both orders and rentals)
+-- Creates a view for Top-Selling Games TableView (including both orders and rentals), read from the GameSales counters
 CREATE OR REPLACE VIEW TopSellingGames AS
 SELECT 
     g.game_id,
     g.title AS game_title,
     g.year_released,
     g.price AS game_price,
-    -- Calculates total sales from orders
-    COALESCE(SUM(od.quantity), 0) AS total_orders,
-    -- Calculates total rentals
-    COALESCE(COUNT(r.rental_id), 0) AS total_rentals,
-    -- Combines orders and rentals for the total number of sales
-    (COALESCE(SUM(od.quantity), 0) + COALESCE(COUNT(r.rental_id), 0)) AS total_sales
-FROM Games g
-LEFT JOIN OrderDetails od ON g.game_id = od.game_id
-LEFT JOIN Rentals r ON g.game_id = r.game_id
-GROUP BY g.game_id, g.title, g.year_released, g.price
-ORDER BY total_sales DESC;
+    gs.units_ordered AS total_orders,
+    gs.rentals_count AS total_rentals,
+    gs.total_sales
+FROM GameSales gs
+JOIN Games g ON gs.game_id = g.game_id
+ORDER BY gs.total_sales DESC, gs.game_id;
 
 CREATE OR REPLACE VIEW RentalHistory AS
 SELECT 
     r.rental_id, 
+    r.customer_id,
     CONCAT(c.first_name, ' ', c.last_name) AS customer_name, 
+    r.game_id,
     g.title AS game_title, 
     r.received_date, 
-    r.returned_date
+    r.returned_date,
+    r.due_date,
+    -- Worked out by the server so every screen agrees with the late-fee job on what is overdue
+    (r.returned_date IS NULL AND r.due_date < CURDATE()) AS is_overdue,
+    r.updated_at
 FROM Rentals r
 JOIN Customers c ON r.customer_id = c.customer_id
-JOIN Games g ON r.game_id = g.game_id;
\ No newline at end of file
+JOIN Games g ON r.game_id = g.game_id;
+
+-- Brings the counters and daily rollups in line with whatever data is already loaded
+CALL RebuildGameSales();
+CALL RebuildDailyRollups(NULL, NULL);
@@ -0,0 +1,37 @@
+-- The schema changes made after the version 1 baseline and before the access path indexes: rental change tracking
+-- and due dates, the job watermark table, one inventory row per game, the running per-game sales counters and the
+-- Payments date-range index. Re-run game_vault_functions.sql after this script, its triggers keep GameSales current
+-- and it ends by filling it with RebuildGameSales
+
+-- updated_at is bumped on every change so the rentals screen can re-read only what changed since its last refresh
+-- (existing rows start at the time of this script). Rentals are due back 14 days after they go out, overdue from the
+-- day after. idx_rentals_open_due lists open rentals (returned_date IS NULL) in due date order, for the active
+-- rentals screen and ProcessOverdueRentals
+ALTER TABLE Rentals
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD COLUMN due_date DATE AS (received_date + INTERVAL 14 DAY) STORED,
+    ADD INDEX idx_rentals_updated_at (updated_at),
+    ADD INDEX idx_rentals_open_due (returned_date, due_date);
+
+-- How far each incremental background job has got, e.g. the last due date ProcessOverdueRentals has charged through
+CREATE TABLE JobWatermarks (
+    job_name VARCHAR(50) PRIMARY KEY,
+    processed_through DATE
+);
+
+-- Exactly one inventory row per game. Fails if a game already has two; merge them by hand and run this again
+ALTER TABLE Inventory ADD UNIQUE INDEX uq_inventory_game (game_id);
+
+-- Running sales counters per game, kept current by the triggers in game_vault_functions.sql so the
+-- top-selling list is an index read instead of an aggregate over OrderDetails and Rentals
+CREATE TABLE GameSales (
+    game_id INT PRIMARY KEY,
+    units_ordered INT NOT NULL DEFAULT 0,
+    rentals_count INT NOT NULL DEFAULT 0,
+    total_sales INT AS (units_ordered + rentals_count) STORED,
+    INDEX idx_game_sales_total (total_sales DESC, game_id),
+    FOREIGN KEY (game_id) REFERENCES Games(game_id)
+);
+
+-- Serves the Payments screen's date-range filter and its per-method GROUP BY straight from the index (covers amount_paid too)
+CREATE INDEX idx_payments_date_method ON Payments (payment_date, payment_method, amount_paid);
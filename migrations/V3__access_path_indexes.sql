@@ -0,0 +1,25 @@
+-- Indexes for the access paths the screens and procedures actually use. Each screen pages by keyset on
+-- (sort column, id), so an index on the sort column (InnoDB appends the primary key to it) turns every page into a
+-- short index range instead of a scan and filesort. QueryPlanCheck lists the queries these serve.
+
+-- Orders screen sorted by date, type or total; date-range reports
+CREATE INDEX idx_orders_date ON Orders (order_date);
+CREATE INDEX idx_orders_type ON Orders (order_type);
+CREATE INDEX idx_orders_total ON Orders (total_amount);
+
+-- Per-game sums for RebuildGameSales and CheckGameSales, read from the index alone.
+-- Replaces the plain game_id index the foreign key created
+CREATE INDEX idx_order_details_game ON OrderDetails (game_id, quantity);
+
+-- Payments screen sorted by method or amount. The per-method totals over all payments read
+-- idx_payments_method in order instead of grouping the table (date ranges keep using idx_payments_date_method)
+CREATE INDEX idx_payments_method ON Payments (payment_method, amount_paid);
+CREATE INDEX idx_payments_amount ON Payments (amount_paid);
+
+-- Rental history sorted by the date it went out (open rentals already have idx_rentals_open_due)
+CREATE INDEX idx_rentals_received ON Rentals (received_date);
+
+-- Customers screen sorted by name or membership
+CREATE INDEX idx_customers_last_name ON Customers (last_name);
+CREATE INDEX idx_customers_first_name ON Customers (first_name);
+CREATE INDEX idx_customers_member ON Customers (is_member);
@@ -0,0 +1,94 @@
+-- Partitions the history tables, Orders, Payments and Rentals, by month of their date column (RANGE COLUMNS), so
+-- date-range queries only open the months they cover, and a month can be archived or dropped without a huge DELETE.
+-- ExtendMonthlyPartitions (game_vault_functions.sql) keeps adding months ahead of time.
+--
+-- MySQL's rules for partitioned InnoDB tables shape the rest of this script:
+--  * every unique key must contain the partitioning column, so the primary keys become (id, date). The ids stay
+--    AUTO_INCREMENT, and lookups by id alone still use the primary key (probing each partition), but the database no
+--    longer rejects a second row with an explicit id that is already taken
+--  * partitioned tables can neither have nor be the target of foreign keys, so the keys on and to these three tables
+--    are dropped (their indexes stay): Orders -> Customers, OrderDetails -> Orders, Payments -> Orders and
+--    Rentals -> Customers, Games, Employees
+--
+-- The BEFORE INSERT triggers in game_vault_functions.sql take over those checks for new rows: CheckOrderBeforeInsert
+-- (customer), CheckOrderDetailBeforeInsert (order), CheckPaymentBeforeInsert (order) and CheckRentalBeforeInsert
+-- (customer, game, employee), and each rejects an explicit order, payment or rental id that is already in use. What is
+-- given up:
+--  * the checks only cover inserts. Updating a row's customer_id, order_id, game_id or employee_id is not checked, and
+--    deleting a customer, order, game or employee no longer cascades or is refused. The app never does any of these
+--    except deleting a customer, and DeleteCustomerHistory deletes that customer's orders, payments and rentals itself
+--  * bulk loads (@gamevault_bulk_load = 1, i.e. DataGenerator) skip them; DataGenerator only loads an empty schema and
+--    builds consistent ids by construction
+
+DROP PROCEDURE IF EXISTS MigrationDropForeignKeys;
+DROP PROCEDURE IF EXISTS MigrationPartitionByMonth;
+
+DELIMITER $$
+
+-- Drops every foreign key declared on in_table or referencing it
+CREATE PROCEDURE MigrationDropForeignKeys(IN in_table VARCHAR(64))
+BEGIN
+    DECLARE v_done BOOLEAN DEFAULT FALSE;
+    DECLARE v_table VARCHAR(64);
+    DECLARE v_constraint VARCHAR(64);
+    DECLARE foreign_keys CURSOR FOR
+        SELECT TABLE_NAME, CONSTRAINT_NAME
+        FROM information_schema.REFERENTIAL_CONSTRAINTS
+        WHERE CONSTRAINT_SCHEMA = DATABASE()
+          AND (TABLE_NAME = in_table OR REFERENCED_TABLE_NAME = in_table);
+    DECLARE CONTINUE HANDLER FOR NOT FOUND SET v_done = TRUE;
+    OPEN foreign_keys;
+    drop_keys: LOOP
+        FETCH foreign_keys INTO v_table, v_constraint;
+        IF v_done THEN
+            LEAVE drop_keys;
+        END IF;
+        SET @migration_sql = CONCAT('ALTER TABLE `', v_table, '` DROP FOREIGN KEY `', v_constraint, '`');
+        PREPARE stmt FROM @migration_sql;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END LOOP;
+    CLOSE foreign_keys;
+END$$
+
+-- One partition per month of in_column, from three years back (or the oldest row, if older) to in_months_ahead
+-- months from now, then p_future for anything later. The first partition also takes everything before it
+CREATE PROCEDURE MigrationPartitionByMonth(IN in_table VARCHAR(64), IN in_column VARCHAR(64), IN in_months_ahead INT)
+BEGIN
+    DECLARE v_month DATE;
+    DECLARE v_last DATE;
+    DECLARE v_partitions TEXT DEFAULT '';
+    SET @migration_sql = CONCAT('SELECT MIN(`', in_column, '`) INTO @migration_oldest FROM `', in_table, '`');
+    PREPARE stmt FROM @migration_sql;
+    EXECUTE stmt;
+    DEALLOCATE PREPARE stmt;
+    SET v_month = DATE_FORMAT(LEAST(COALESCE(@migration_oldest, CURDATE()), CURDATE() - INTERVAL 3 YEAR), '%Y-%m-01');
+    SET v_last = DATE_FORMAT(CURDATE() + INTERVAL in_months_ahead MONTH, '%Y-%m-01');
+    WHILE v_month <= v_last DO
+        SET v_partitions = CONCAT(v_partitions, 'PARTITION p', DATE_FORMAT(v_month, '%Y%m'),
+                                  ' VALUES LESS THAN (''', v_month + INTERVAL 1 MONTH, '''), ');
+        SET v_month = v_month + INTERVAL 1 MONTH;
+    END WHILE;
+    SET @migration_sql = CONCAT('ALTER TABLE `', in_table, '` PARTITION BY RANGE COLUMNS (`', in_column, '`) (',
+                                v_partitions, 'PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+    PREPARE stmt FROM @migration_sql;
+    EXECUTE stmt;
+    DEALLOCATE PREPARE stmt;
+END$$
+
+DELIMITER ;
+
+CALL MigrationDropForeignKeys('Orders');
+CALL MigrationDropForeignKeys('Payments');
+CALL MigrationDropForeignKeys('Rentals');
+
+ALTER TABLE Orders DROP PRIMARY KEY, ADD PRIMARY KEY (order_id, order_date);
+ALTER TABLE Payments DROP PRIMARY KEY, ADD PRIMARY KEY (payment_id, payment_date);
+ALTER TABLE Rentals DROP PRIMARY KEY, ADD PRIMARY KEY (rental_id, received_date);
+
+CALL MigrationPartitionByMonth('Orders', 'order_date', 3);
+CALL MigrationPartitionByMonth('Payments', 'payment_date', 3);
+CALL MigrationPartitionByMonth('Rentals', 'received_date', 3);
+
+DROP PROCEDURE MigrationDropForeignKeys;
+DROP PROCEDURE MigrationPartitionByMonth;
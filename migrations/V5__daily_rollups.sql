@@ -0,0 +1,43 @@
+-- Pre-aggregated daily totals for the dashboards and reports, so a summary over a date range reads one row per day
+-- (and game, method or employee) instead of every order line and payment in it. Triggers in game_vault_functions.sql
+-- add to them as orders, payments and rentals are written, and RebuildDailyRollups recomputes any date range from the
+-- raw tables: once after this script for the history already there, and after bulk loads. Re-run
+-- game_vault_functions.sql after this script, its triggers write to these tables and it ends with that backfill.
+-- Purchase revenue is the list price of the lines (quantity * unit_price, before member discounts); the amounts
+-- actually taken are in DailyPaymentTotals
+
+-- Per day and game: purchased units and their revenue, rentals that went out
+CREATE TABLE DailyGameSales (
+    sales_date DATE NOT NULL,
+    game_id INT NOT NULL,
+    units_sold INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    rentals_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (sales_date, game_id),
+    -- One game's history
+    INDEX idx_daily_game_sales_game (game_id, sales_date)
+);
+
+-- Per day and payment method. Every checkout adds to one of only a handful of rows for the day, and holds that row's
+-- lock until it commits, so each (day, method) is spread over 8 slot rows picked by connection id. Readers sum the
+-- slots; deletes subtract from slot 0, which keeps the sums right even if a single slot goes negative
+CREATE TABLE DailyPaymentTotals (
+    payment_date DATE NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    slot TINYINT NOT NULL,
+    payment_count INT NOT NULL DEFAULT 0,
+    amount_total DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (payment_date, payment_method, slot)
+);
+
+-- Per day and employee: purchase lines, purchased units and their revenue, rentals handed out
+CREATE TABLE DailyEmployeeSales (
+    sales_date DATE NOT NULL,
+    employee_id INT NOT NULL,
+    lines_sold INT NOT NULL DEFAULT 0,
+    units_sold INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    rentals_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (sales_date, employee_id),
+    INDEX idx_daily_employee_sales_employee (employee_id, sales_date)
+);
@@ -0,0 +1,10 @@
+-- Rentals deleted recently, by id, so the rentals screen's delta (RentalsController) can drop them from its tables the
+-- way it picks up changed rows through Rentals.updated_at. UncountRentedGame in game_vault_functions.sql adds a row for
+-- every deleted rental, DeleteCustomerHistory's included, and ChargeOverdueRentals prunes rows older than two days:
+-- the screen reloads in full on a new day, so no delta ever looks further back. Re-run game_vault_functions.sql after
+-- this script
+CREATE TABLE DeletedRentals (
+    rental_id INT PRIMARY KEY,
+    deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_deleted_rentals_at (deleted_at)
+);
@@ -0,0 +1,6 @@
+-- Bumped on every stock change, order or restock, so the games screen can re-read only the games whose stock moved
+-- since its last visit instead of the whole catalog. New games arrive with their inventory row, so they show up the
+-- same way; the app never edits a Games row after it is added. Existing rows start at the time of this script
+ALTER TABLE Inventory
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_inventory_updated_at (updated_at);